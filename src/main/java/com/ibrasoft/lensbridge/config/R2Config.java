@@ -3,11 +3,15 @@ package com.ibrasoft.lensbridge.config;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryPolicy;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
@@ -16,9 +20,10 @@ import java.net.URI;
 
 /**
  * Configuration class for Cloudflare R2 storage.
- * Provides S3Client and S3Presigner beans for use across the application.
+ * Provides the S3Client, S3AsyncClient and S3Presigner behind the r2 storage backend.
  */
 @Configuration
+@ConditionalOnProperty(name = "storage.backend", havingValue = "r2", matchIfMissing = true)
 @Slf4j
 public class R2Config {
 
@@ -32,6 +37,7 @@ public class R2Config {
     private String endpoint;
 
     private S3Client s3Client;
+    private S3AsyncClient s3AsyncClient;
     private S3Presigner s3Presigner;
 
     @Bean
@@ -47,6 +53,7 @@ public class R2Config {
                     .endpointOverride(URI.create(normalizedEndpoint))
                     .credentialsProvider(StaticCredentialsProvider.create(credentials))
                     .serviceConfiguration(s3Config)
+                    .overrideConfiguration(noSdkRetries())
                     .region(Region.US_EAST_1)
                     .build();
             
@@ -55,6 +62,25 @@ public class R2Config {
         return s3Client;
     }
 
+    @Bean
+    public S3AsyncClient s3AsyncClient() {
+        if (s3AsyncClient == null) {
+            AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKeyId, secretAccessKey);
+            String normalizedEndpoint = normalizeEndpoint(endpoint);
+
+            s3AsyncClient = S3AsyncClient.builder()
+                    .endpointOverride(URI.create(normalizedEndpoint))
+                    .credentialsProvider(StaticCredentialsProvider.create(credentials))
+                    .forcePathStyle(true)
+                    .overrideConfiguration(noSdkRetries())
+                    .region(Region.US_EAST_1)
+                    .build();
+
+            log.info("S3AsyncClient initialized for R2 endpoint: {}", normalizedEndpoint);
+        }
+        return s3AsyncClient;
+    }
+
     @Bean
     public S3Presigner s3Presigner() {
         if (s3Presigner == null) {
@@ -76,6 +102,16 @@ public class R2Config {
         return s3Presigner;
     }
 
+    /**
+     * Retries, timeouts and the circuit breaker live in ResilientStorageBackend; SDK
+     * retries on top of those would multiply attempts against a struggling R2.
+     */
+    private static ClientOverrideConfiguration noSdkRetries() {
+        return ClientOverrideConfiguration.builder()
+                .retryPolicy(RetryPolicy.none())
+                .build();
+    }
+
     private String normalizeEndpoint(String ep) {
         if (ep == null) return null;
         String trimmed = ep.trim();
@@ -88,6 +124,10 @@ public class R2Config {
             s3Client.close();
             log.info("S3Client closed");
         }
+        if (s3AsyncClient != null) {
+            s3AsyncClient.close();
+            log.info("S3AsyncClient closed");
+        }
         if (s3Presigner != null) {
             s3Presigner.close();
             log.info("S3Presigner closed");
@@ -0,0 +1,88 @@
+package com.ibrasoft.lensbridge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Timeouts, retries and circuit breakers for outbound dependencies.
+ */
+@Component
+@ConfigurationProperties(prefix = "resilience")
+@Data
+public class ResilienceProperties {
+
+    /**
+     * Object storage (R2).
+     */
+    private Policy r2 = new Policy();
+
+    /**
+     * Outgoing mail.
+     */
+    private Policy smtp = defaultSmtpPolicy();
+
+    private static Policy defaultSmtpPolicy() {
+        Policy policy = new Policy();
+        policy.setCallTimeout(Duration.ofSeconds(15));
+        policy.setMaxAttempts(2);
+        policy.setInitialBackoff(Duration.ofSeconds(1));
+        policy.setMaxBackoff(Duration.ofSeconds(5));
+        policy.setMinimumCalls(5);
+        policy.setOpenDuration(Duration.ofMinutes(1));
+        return policy;
+    }
+
+    @Data
+    public static class Policy {
+
+        /**
+         * Upper bound for a single attempt.
+         */
+        private Duration callTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Upper bound for a single attempt that moves a whole object body (storage only).
+         */
+        private Duration transferTimeout = Duration.ofMinutes(2);
+
+        /**
+         * Attempts including the first; 1 disables retries.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Backoff cap for the first retry; doubles per attempt up to maxBackoff, with full jitter.
+         */
+        private Duration initialBackoff = Duration.ofMillis(100);
+
+        private Duration maxBackoff = Duration.ofSeconds(2);
+
+        /**
+         * Failure percentage over the sliding window that opens the breaker.
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * Calls needed in the window before the failure rate is evaluated.
+         */
+        private int minimumCalls = 20;
+
+        private int slidingWindowSize = 50;
+
+        /**
+         * How long an open breaker rejects calls before letting trial calls through.
+         */
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        private int halfOpenCalls = 3;
+
+        /**
+         * Send a second copy of a hedgeable read if the first hasn't answered by then;
+         * zero disables hedging.
+         */
+        private Duration hedgeAfter = Duration.ofMillis(300);
+    }
+}
@@ -0,0 +1,73 @@
+package com.ibrasoft.lensbridge.config;
+
+import com.ibrasoft.lensbridge.service.resilience.DependencyGuard;
+import com.ibrasoft.lensbridge.service.resilience.ResilienceRegistry;
+import com.ibrasoft.lensbridge.service.media.DerivativeSpec;
+import com.ibrasoft.lensbridge.service.storage.FileSystemStorageBackend;
+import com.ibrasoft.lensbridge.service.storage.InstrumentedStorageBackend;
+import com.ibrasoft.lensbridge.service.storage.R2StorageBackend;
+import com.ibrasoft.lensbridge.service.storage.ResilientStorageBackend;
+import com.ibrasoft.lensbridge.service.storage.StorageBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Selects the object storage backend with storage.backend: r2 (default) or filesystem.
+ * Either way the backend is wrapped in {@link InstrumentedStorageBackend}.
+ */
+@Configuration
+public class StorageConfig {
+
+    @Value("${thumbnail.folder:thumbnails/}")
+    private String thumbnailFolder;
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.backend", havingValue = "r2", matchIfMissing = true)
+    public StorageBackend r2StorageBackend(S3Client s3Client,
+                                           S3AsyncClient s3AsyncClient,
+                                           S3Presigner s3Presigner,
+                                           ResilienceRegistry resilienceRegistry,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${cloudflare.r2.bucket-name}") String bucketName,
+                                           @Value("${cloudflare.r2.public-url:}") String publicUrl) {
+        DependencyGuard guard = resilienceRegistry.r2();
+        R2StorageBackend r2 = new R2StorageBackend(s3Client, s3AsyncClient, s3Presigner, bucketName, publicUrl,
+                guard.getPolicy().getCallTimeout(), guard.getPolicy().getTransferTimeout());
+        // Instrumented inside the guard so each attempt against R2 is timed separately.
+        // Thumbnails and derivatives never change under a key, so reads of them can be hedged.
+        return new ResilientStorageBackend(instrumented(r2, meterRegistry), guard,
+                List.of(thumbnailFolder, DerivativeSpec.FOLDER));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.backend", havingValue = "filesystem")
+    public FileSystemStorageBackend fileSystemStorageBackend(
+            @Value("${storage.filesystem.root:./data/storage}") String root,
+            @Value("${storage.filesystem.signing-key}") String signingKey,
+            @Value("${storage.filesystem.base-url:}") String baseUrl) {
+        return new FileSystemStorageBackend(Path.of(root), signingKey, baseUrl);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "storage.backend", havingValue = "filesystem")
+    public StorageBackend instrumentedFileSystemStorageBackend(FileSystemStorageBackend fileSystemStorageBackend,
+                                                               MeterRegistry meterRegistry) {
+        return instrumented(fileSystemStorageBackend, meterRegistry);
+    }
+
+    private StorageBackend instrumented(StorageBackend backend, MeterRegistry meterRegistry) {
+        return new InstrumentedStorageBackend(backend, meterRegistry,
+                List.of("images/", "videos/", thumbnailFolder, DerivativeSpec.FOLDER, "contact-sheets/"));
+    }
+}
@@ -0,0 +1,29 @@
+package com.ibrasoft.lensbridge.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+@Configuration
+public class UploadIndexConfig {
+
+    private final MongoTemplate mongoTemplate;
+
+    public UploadIndexConfig(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    public void createUploadIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps("uploads");
+
+        // Public gallery ordered by capture time (?sort=capturedAt,desc)
+        indexOps.createIndex(new Index().on("approved", Sort.Direction.ASC).on("capturedAt", Sort.Direction.DESC));
+
+        // Event galleries ordered by capture time
+        indexOps.createIndex(new Index().on("eventId", Sort.Direction.ASC).on("capturedAt", Sort.Direction.DESC));
+    }
+}
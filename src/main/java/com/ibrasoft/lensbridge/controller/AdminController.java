@@ -2,9 +2,11 @@ package com.ibrasoft.lensbridge.controller;
 
 import com.ibrasoft.lensbridge.model.audit.AdminAction;
 import com.ibrasoft.lensbridge.service.AdminAuditService;
+import com.ibrasoft.lensbridge.service.ContactSheetService;
 import com.ibrasoft.lensbridge.model.audit.AuditEvent;
 import com.ibrasoft.lensbridge.dto.request.SignupRequest;
 import com.ibrasoft.lensbridge.dto.response.AdminUploadDto;
+import com.ibrasoft.lensbridge.dto.response.ContactSheetDto;
 import com.ibrasoft.lensbridge.dto.response.MessageResponse;
 import com.ibrasoft.lensbridge.model.auth.Role;
 import com.ibrasoft.lensbridge.model.auth.User;
@@ -27,6 +29,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.function.Consumer;
@@ -43,6 +46,7 @@ public class AdminController {
     private final EventsService eventsService;
     private final AdminAuditService auditService;
     private final UserService userService;
+    private final ContactSheetService contactSheetService;
 
     private ResponseEntity<?> executeUploadAction(UUID uploadId, HttpServletRequest request, Consumer<UUID> serviceAction, AdminAction auditAction, String successMessage) {
         serviceAction.accept(uploadId);
@@ -51,6 +55,13 @@ public class AdminController {
         return ResponseEntity.ok(new MessageResponse(successMessage));
     }
 
+    private ResponseEntity<?> executeUploadGroupAction(UUID uploadId, HttpServletRequest request, Function<UUID, List<UUID>> serviceAction, AdminAction auditAction, String successMessage) {
+        List<UUID> affected = serviceAction.apply(uploadId);
+        UserDetailsImpl curr = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        affected.forEach(id -> this.auditService.logAuditEvent(curr.getEmail(), auditAction, "Upload", id, request.getRemoteAddr()));
+        return ResponseEntity.ok(new MessageResponse(successMessage + " (" + affected.size() + " uploads)"));
+    }
+
     private ResponseEntity<?> executeUserAction(UUID userId, HttpServletRequest request, Consumer<UUID> serviceAction, AdminAction auditAction, String successMessage) {
         serviceAction.accept(userId);
         UserDetailsImpl curr = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
@@ -110,6 +121,23 @@ public class AdminController {
         return executeUploadAction(uploadId, request, uploadService::unfeatureUpload, AdminAction.UNFEATURE_UPLOAD, "Upload unfeatured successfully");
     }
 
+    // Near-Duplicate Group Operations
+    @GetMapping("/upload/{uploadId}/duplicates")
+    public ResponseEntity<?> getNearDuplicateGroup(@PathVariable UUID uploadId) {
+        log.debug("Admin retrieving near-duplicate group for upload: {}", uploadId);
+        return ResponseEntity.ok(uploadService.getNearDuplicateGroup(uploadId));
+    }
+
+    @PostMapping("/upload/{uploadId}/duplicates")
+    public ResponseEntity<?> approveNearDuplicateGroup(@PathVariable UUID uploadId, HttpServletRequest request) {
+        return executeUploadGroupAction(uploadId, request, uploadService::approveNearDuplicateGroup, AdminAction.APPROVE_UPLOAD, "Near-duplicate group approved");
+    }
+
+    @DeleteMapping("/upload/{uploadId}/duplicates")
+    public ResponseEntity<?> deletePendingNearDuplicates(@PathVariable UUID uploadId, HttpServletRequest request) {
+        return executeUploadGroupAction(uploadId, request, uploadService::deletePendingNearDuplicates, AdminAction.DELETE_UPLOAD, "Pending near-duplicates deleted");
+    }
+
     // Data Retrieval Operations
     @GetMapping("/uploads")
     public ResponseEntity<?> getAllUploads(Pageable pageable) {
@@ -125,6 +153,13 @@ public class AdminController {
         return ResponseEntity.ok(uploads);
     }
 
+    @GetMapping("/uploads/pending/contact-sheet")
+    public ResponseEntity<?> getPendingContactSheet(Pageable pageable) {
+        log.debug("Admin retrieving pending uploads contact sheet, page: {}", pageable.getPageNumber());
+        ContactSheetDto sheet = contactSheetService.getPendingContactSheet(pageable);
+        return ResponseEntity.ok(sheet);
+    }
+
     @GetMapping("/uploads/approved")
     public ResponseEntity<?> getApprovedUploads(Pageable pageable) {
         try {
@@ -7,7 +7,7 @@ import com.ibrasoft.lensbridge.dto.request.UpdateCalendarEventRequest;
 import com.ibrasoft.lensbridge.dto.request.UpdatePosterRequest;
 import com.ibrasoft.lensbridge.dto.request.WeeklyContentRequest;
 import com.ibrasoft.lensbridge.dto.response.MessageResponse;
-import com.ibrasoft.lensbridge.handler.SignboardHandler;
+import com.ibrasoft.lensbridge.handler.BoardBroadcastRelay;
 import com.ibrasoft.lensbridge.model.audit.AdminAction;
 import com.ibrasoft.lensbridge.model.board.Audience;
 import com.ibrasoft.lensbridge.model.board.BoardConfig;
@@ -56,7 +56,7 @@ public class BoardAdminController {
     private final BoardService boardService;
     private final AdminAuditService auditService;
     @Autowired
-    private SignboardHandler signboardHandler;
+    private BoardBroadcastRelay boardBroadcastRelay;
     
     // ==================== Board Config Endpoints ====================
 
@@ -337,6 +337,7 @@ public class BoardAdminController {
                 .endTimestamp(createRequest.getEndTimestamp())
                 .allDay(createRequest.getAllDay())
                 .audience(createRequest.getAudience())
+                .recurrence(createRequest.getRecurrence())
                 .build();
 
         Event created = boardService.createEvent(event);
@@ -367,9 +368,11 @@ public class BoardAdminController {
                 .endTimestamp(updateRequest.getEndTimestamp())
                 .allDay(updateRequest.getAllDay())
                 .audience(updateRequest.getAudience())
+                .recurrence(updateRequest.getRecurrence())
                 .build();
 
-        Event updated = boardService.updateEvent(eventId, updates);
+        Event updated = boardService.updateEvent(eventId, updates,
+                Boolean.TRUE.equals(updateRequest.getClearRecurrence()));
 
         // Audit the action
         UserDetailsImpl user = getCurrentUser();
@@ -397,12 +400,14 @@ public class BoardAdminController {
     }
 
     /**
-     * Refresh a MusallahBoard instance
-     * @return
+     * Refresh connected MusallahBoard instances: all of them, those at one board location,
+     * or a single device, whichever backend instance they are connected to.
      */
     @PostMapping("/refresh")
-    public ResponseEntity<String> refreshSignboard() {
-        signboardHandler.sendRefreshCommand();
+    public ResponseEntity<String> refreshSignboard(
+            @RequestParam(value = "board", required = false) BoardLocation boardLocation,
+            @RequestParam(value = "device", required = false) String deviceId) {
+        boardBroadcastRelay.refresh(boardLocation, deviceId);
         return ResponseEntity.ok("Refresh command sent to MusallahBoard instances");
     }
 
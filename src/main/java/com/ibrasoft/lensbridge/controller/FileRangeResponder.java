@@ -0,0 +1,92 @@
+package com.ibrasoft.lensbridge.controller;
+
+import com.ibrasoft.lensbridge.service.media.ByteRange;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Writes a local file to the response with ETag/If-None-Match, If-Range and single
+ * byte-range support. Large bodies are handed to Tomcat's sendfile; the rest are
+ * copied with FileChannel.transferTo.
+ */
+final class FileRangeResponder {
+
+    // Below this, a plain copy is cheaper than handing the file to the connector
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private FileRangeResponder() {
+    }
+
+    /**
+     * @param cacheControl Cache-Control header value, or null to leave it unset
+     * @param writeBody    false for HEAD requests
+     * @return true if the body was left to Tomcat's sendfile, which opens the file after the
+     *         handler returns
+     */
+    static boolean serve(HttpServletRequest request, HttpServletResponse response, Path path, long length,
+                      String eTag, String contentType, String cacheControl, boolean writeBody) throws IOException {
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (eTag != null) {
+            response.setHeader(HttpHeaders.ETAG, eTag);
+        }
+        if (cacheControl != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        if (eTag != null && eTag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+
+        ByteRange range;
+        try {
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+            range = ifRange == null || ifRange.equals(eTag)
+                    ? ByteRange.parse(request.getHeader(HttpHeaders.RANGE), length)
+                    : null;
+        } catch (ByteRange.UnsatisfiableRangeException e) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return false;
+        }
+
+        long start = range != null ? range.start() : 0;
+        long count = range != null ? range.length() : length;
+        if (range != null) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(length));
+        }
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+        response.setContentLengthLong(count);
+        if (!writeBody) {
+            return false;
+        }
+
+        if (count >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            // Tomcat writes the file with sendfile after the handler returns (end is exclusive)
+            request.setAttribute("org.apache.tomcat.sendfile.filename", path.toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", start + count);
+            return true;
+        }
+
+        try (FileChannel file = FileChannel.open(path)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, out);
+                if (sent <= 0) break;
+                position += sent;
+                remaining -= sent;
+            }
+        }
+        return false;
+    }
+}
@@ -2,12 +2,16 @@ package com.ibrasoft.lensbridge.controller;
 
 import com.ibrasoft.lensbridge.dto.response.GalleryItemDto;
 import com.ibrasoft.lensbridge.service.GalleryService;
+import com.ibrasoft.lensbridge.service.MediaStreamService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.UUID;
 
 @RestController
@@ -16,12 +20,16 @@ import java.util.UUID;
 public class GalleryController {
 
     private final GalleryService galleryService;
+    private final MediaStreamService mediaStreamService;
+
+    @Value("${gallery.list-cache-seconds:60}")
+    private long listCacheSeconds;
 
     @GetMapping("/gallery")
     public ResponseEntity<Page<GalleryItemDto>> getAllUploads(Pageable pageable) {
         try {
             Page<GalleryItemDto> response = galleryService.getAllApprovedGalleryItems(pageable);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().cacheControl(listCacheControl()).body(response);
         } catch (Exception e) {
             System.err.println("Error fetching gallery: " + e.getMessage());
             return ResponseEntity.ok(Page.empty());
@@ -32,10 +40,20 @@ public class GalleryController {
     public ResponseEntity<Page<GalleryItemDto>> getGalleryByEvent(@PathVariable UUID eventId, Pageable pageable) {
         try {
             Page<GalleryItemDto> response = galleryService.getGalleryItemsByEvent(eventId, pageable);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().cacheControl(listCacheControl()).body(response);
         } catch (Exception e) {
             System.err.println("Error fetching gallery for event: " + e.getMessage());
             return ResponseEntity.ok(Page.empty());
         }
     }
+
+    /**
+     * Listings only contain stable media references in reference mode, so they can be
+     * cached briefly; signed URLs would expire inside a shared cache.
+     */
+    private CacheControl listCacheControl() {
+        return mediaStreamService.isReferenceMode()
+                ? CacheControl.maxAge(Duration.ofSeconds(listCacheSeconds)).cachePublic()
+                : CacheControl.empty();
+    }
 }
@@ -0,0 +1,68 @@
+package com.ibrasoft.lensbridge.controller;
+
+import com.ibrasoft.lensbridge.dto.response.ErrorResponse;
+import com.ibrasoft.lensbridge.service.storage.FileSystemStorageBackend;
+import com.ibrasoft.lensbridge.service.storage.StoredObjectInfo;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Serves the presigned URLs of the filesystem storage backend. Access is granted by the
+ * HMAC signature in the URL alone, the same way a presigned R2 URL works.
+ */
+@RestController
+@RequestMapping("/api/storage")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "storage.backend", havingValue = "filesystem")
+public class LocalStorageController {
+
+    private final FileSystemStorageBackend storage;
+
+    @RequestMapping(value = "/{*key}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void download(@PathVariable String key,
+                         @RequestParam long expires,
+                         @RequestParam String sig,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String objectKey = key.substring(1);
+        if (!storage.verifyGet(objectKey, expires, sig)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Invalid or expired signature");
+            return;
+        }
+        Optional<StoredObjectInfo> info = storage.head(objectKey);
+        Optional<Path> file = storage.localFile(objectKey);
+        if (info.isEmpty() || file.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        StoredObjectInfo object = info.get();
+        FileRangeResponder.serve(request, response, file.get(), object.size(), object.eTag(), object.contentType(),
+                CacheControl.maxAge(Duration.ofHours(1)).cachePrivate().getHeaderValue(),
+                !"HEAD".equals(request.getMethod()));
+    }
+
+    @PutMapping("/{*key}")
+    public ResponseEntity<?> upload(@PathVariable String key,
+                                    @RequestParam long expires,
+                                    @RequestParam String sig,
+                                    HttpServletRequest request) throws IOException {
+        String objectKey = key.substring(1);
+        long contentLength = request.getContentLengthLong();
+        String contentType = request.getContentType();
+        if (contentLength < 0 || !storage.verifyPut(objectKey, expires, contentType, contentLength, sig)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ErrorResponse.of("Invalid or expired signature"));
+        }
+        StoredObjectInfo stored = storage.put(objectKey, request.getInputStream(), contentLength, contentType);
+        return ResponseEntity.ok().eTag(stored.eTag()).build();
+    }
+}
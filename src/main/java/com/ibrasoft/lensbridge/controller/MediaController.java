@@ -0,0 +1,101 @@
+package com.ibrasoft.lensbridge.controller;
+
+import com.ibrasoft.lensbridge.model.auth.Role;
+import com.ibrasoft.lensbridge.service.MediaDerivativeService;
+import com.ibrasoft.lensbridge.service.MediaStreamService;
+import com.ibrasoft.lensbridge.service.media.LocalMediaCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Resized image variants and direct media streaming. Public for approved uploads;
+ * admins can also fetch unapproved ones.
+ */
+@RestController
+@RequestMapping("/api/media")
+@RequiredArgsConstructor
+public class MediaController {
+
+    private final MediaDerivativeService mediaDerivativeService;
+    private final MediaStreamService mediaStreamService;
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<byte[]> getDerivative(@PathVariable UUID uploadId,
+                                                @RequestParam(value = "w", required = false) Integer width,
+                                                @RequestParam(value = "h", required = false) Integer height,
+                                                @RequestParam(value = "fit", required = false) String fit) {
+        boolean isAdmin = isAdmin(SecurityContextHolder.getContext().getAuthentication());
+        MediaDerivativeService.Derivative derivative = mediaDerivativeService.getDerivative(uploadId, width, height, fit, isAdmin);
+
+        // Derivative keys never change content, so clients and CDNs can keep them for a year.
+        // Unapproved uploads are only served to admins and must not land in shared caches.
+        CacheControl cacheControl = isAdmin
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePrivate()
+                : CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .cacheControl(cacheControl)
+                .eTag(derivative.eTag())
+                .body(derivative.bytes());
+    }
+
+    /**
+     * Serve an upload's original (src) or thumbnail (thumb). With the local media cache
+     * enabled the file is streamed from disk with Range support; otherwise, or for objects
+     * too large to cache, this redirects to a presigned storage URL.
+     */
+    @GetMapping("/{uploadId}/{variant:src|thumb}")
+    public void streamMedia(@PathVariable UUID uploadId, @PathVariable String variant,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean isAdmin = isAdmin(SecurityContextHolder.getContext().getAuthentication());
+        MediaStreamService.ResolvedMedia media = mediaStreamService.resolve(
+                uploadId, MediaStreamService.Variant.valueOf(variant.toUpperCase(Locale.ROOT)), isAdmin);
+
+        LocalMediaCache.Lease lease = mediaStreamService.getCached(media);
+        if (lease == null) {
+            // Let the browser reuse the redirect while the signed URL is still comfortably valid
+            response.setHeader(HttpHeaders.CACHE_CONTROL,
+                    CacheControl.maxAge(mediaStreamService.getRedirectMaxAge()).cachePrivate().getHeaderValue());
+            response.sendRedirect(mediaStreamService.getSecureUrl(media, isAdmin));
+            return;
+        }
+
+        String cacheControl = media.approved()
+                ? CacheControl.maxAge(Duration.ofHours(1)).cachePublic().getHeaderValue()
+                : CacheControl.maxAge(Duration.ofHours(1)).cachePrivate().getHeaderValue();
+        LocalMediaCache.CachedObject cached = lease.object();
+        boolean handedOff = false;
+        try {
+            handedOff = FileRangeResponder.serve(request, response, cached.path(), cached.length(),
+                    cached.eTag(), cached.contentType(), cacheControl, true);
+        } finally {
+            if (handedOff) {
+                lease.closeAfterHandoff();
+            } else {
+                lease.close();
+            }
+        }
+    }
+
+    private boolean isAdmin(Authentication authentication) {
+        if (authentication == null || authentication.getAuthorities() == null) {
+            return false;
+        }
+        return authentication.getAuthorities().stream()
+                .anyMatch(a -> Role.ADMIN.equals(a.getAuthority()) || Role.ROOT.equals(a.getAuthority()));
+    }
+}
@@ -1,6 +1,8 @@
 package com.ibrasoft.lensbridge.controller;
 
-import com.ibrasoft.lensbridge.dto.response.MusallahBoardPayload;
+import com.ibrasoft.lensbridge.dto.response.BoardTimeline;
+import com.ibrasoft.lensbridge.dto.response.ErrorResponse;
+import com.ibrasoft.lensbridge.exception.ApiResponseException;
 import com.ibrasoft.lensbridge.model.board.BoardConfig;
 import com.ibrasoft.lensbridge.model.board.BoardLocation;
 import com.ibrasoft.lensbridge.model.board.Event;
@@ -8,12 +10,21 @@ import com.ibrasoft.lensbridge.model.board.WeeklyContent;
 import com.ibrasoft.lensbridge.model.board.frames.FrameDefinition;
 import com.ibrasoft.lensbridge.service.BoardService;
 import com.ibrasoft.lensbridge.service.PosterService;
+import com.ibrasoft.lensbridge.service.board.BoardContext;
 import com.ibrasoft.lensbridge.service.board.BoardPayloadAssembler;
+import com.ibrasoft.lensbridge.service.board.BoardPayloadCache;
+import com.ibrasoft.lensbridge.service.board.CachedBoardPayload;
+import com.ibrasoft.lensbridge.util.AcceptEncoding;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -28,8 +39,11 @@ import java.util.List;
 @Slf4j
 public class MusallahBoardController {
 
+    private static final int MAX_TIMELINE_HOURS = 48;
+
     private final PosterService posterService;
     private final BoardService boardService;
+    private final BoardPayloadCache payloadCache;
     private final BoardPayloadAssembler payloadAssembler;
 
     // ==================== Board Configuration ====================
@@ -87,7 +101,9 @@ public class MusallahBoardController {
     public ResponseEntity<List<FrameDefinition>> getActivePosterFrames(
             @RequestParam("board") BoardLocation boardLocation) {
         log.debug("Musallah board fetching active poster frames for: {}", boardLocation);
-        List<FrameDefinition> frames = posterService.getActivePosterFrameDefinitions(boardLocation);
+        // Today in the board's timezone, as in the payload
+        BoardContext ctx = BoardContext.of(boardLocation, boardService.getBoardConfig(boardLocation).orElse(null));
+        List<FrameDefinition> frames = posterService.getActivePosterFrameDefinitions(ctx);
         return ResponseEntity.ok(frames);
     }
 
@@ -128,11 +144,46 @@ public class MusallahBoardController {
      * Get all data needed for the board in a single request.
      * Returns board config, active posters (as FrameDefinitions), upcoming events, and current week's content.
      * This reduces the number of API calls the board needs to make on refresh.
+     * Served from BoardPayloadCache: gzipped when the client accepts it, and 304 when
+     * If-None-Match matches the current ETag. X-Payload-Version is the version to send in
+     * the signboard socket's HELLO.
      */
     @GetMapping("/payload")
-    public ResponseEntity<MusallahBoardPayload> getBoardPayload(
-            @RequestParam("board") BoardLocation boardLocation) {
+    public ResponseEntity<byte[]> getBoardPayload(
+            @RequestParam("board") BoardLocation boardLocation,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         log.debug("Musallah board fetching full payload for: {}", boardLocation);
-        return ResponseEntity.ok(payloadAssembler.assemble(boardLocation));
+        CachedBoardPayload payload = payloadCache.get(boardLocation);
+
+        boolean gzip = AcceptEncoding.accepts(acceptEncoding, "gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(gzip ? payload.gzipETag() : payload.eTag())
+                .header("X-Payload-Version", Long.toString(payload.version()))
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+        }
+        return response.body(payload.json());
+    }
+
+    /**
+     * Get everything the board will show over the next {@code hours} hours (default 24, at
+     * most 48). Each frame carries validFrom/validUntil in the board's timezone, so a display
+     * can switch frames itself and only needs to fetch again at one of refreshAt.
+     */
+    @GetMapping("/timeline")
+    public ResponseEntity<BoardTimeline> getBoardTimeline(
+            @RequestParam("board") BoardLocation boardLocation,
+            @RequestParam(value = "hours", defaultValue = "24") int hours) {
+        if (hours < 1 || hours > MAX_TIMELINE_HOURS) {
+            throw new ApiResponseException(HttpStatus.BAD_REQUEST,
+                    ErrorResponse.of("hours must be between 1 and " + MAX_TIMELINE_HOURS));
+        }
+        log.debug("Musallah board fetching {}h timeline for: {}", hours, boardLocation);
+        BoardConfig config = boardService.getBoardConfig(boardLocation).orElse(null);
+        BoardTimeline timeline = payloadAssembler.assembleTimeline(BoardContext.of(boardLocation, config), Duration.ofHours(hours));
+        return ResponseEntity.ok(timeline);
     }
 }
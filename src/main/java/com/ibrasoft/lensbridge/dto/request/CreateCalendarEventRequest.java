@@ -1,7 +1,9 @@
 package com.ibrasoft.lensbridge.dto.request;
 
 import com.ibrasoft.lensbridge.model.board.Audience;
+import com.ibrasoft.lensbridge.model.board.Recurrence;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -33,4 +35,10 @@ public class CreateCalendarEventRequest {
     
     @NotNull(message = "Audience is required")
     private Audience audience;
+    
+    /**
+     * Makes the event a recurring series.
+     */
+    @Valid
+    private Recurrence recurrence;
 }
@@ -1,7 +1,9 @@
 package com.ibrasoft.lensbridge.dto.request;
 
 import com.ibrasoft.lensbridge.model.board.Audience;
+import com.ibrasoft.lensbridge.model.board.Recurrence;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -33,4 +35,15 @@ public class UpdateCalendarEventRequest {
     private Boolean allDay;
     
     private Audience audience;
+    
+    /**
+     * Replaces the whole recurrence rule, or makes a single event a series.
+     */
+    @Valid
+    private Recurrence recurrence;
+
+    /**
+     * Turns a series back into a single event at its first occurrence. Not together with recurrence.
+     */
+    private Boolean clearRecurrence;
 }
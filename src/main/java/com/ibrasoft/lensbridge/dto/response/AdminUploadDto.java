@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -17,6 +18,7 @@ public class AdminUploadDto {
     private String fileUrl;           // Original R2 URL (internal use only)
     private String secureUrl;         // Signed URL for actual access
     private String thumbnailUrl;      // Signed thumbnail URL
+    private String blurHash;          // Inline placeholder until the thumbnail loads
     private String uploadDescription;
     private String instagramHandle;
     
@@ -36,6 +38,9 @@ public class AdminUploadDto {
     private boolean featured;
     private boolean isAnon;
     private UploadType contentType;
+
+    // Other uploads in the same event that look like the same shot (pending listing only)
+    private List<UUID> nearDuplicateIds;
     
     /**
      * Get full name of the uploader.
@@ -0,0 +1,37 @@
+package com.ibrasoft.lensbridge.dto.response;
+
+import com.ibrasoft.lensbridge.model.board.BoardConfig;
+import com.ibrasoft.lensbridge.model.board.frames.FrameDefinition;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Everything a board will show from generatedAt until validUntil. Each frame carries its own
+ * validFrom/validUntil, so a display can switch frames on its own clock without polling.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardTimeline {
+    private BoardConfig boardConfig;
+
+    private Instant generatedAt;
+
+    /**
+     * End of the timeline; the display must fetch a new one before then.
+     */
+    private Instant validUntil;
+
+    /**
+     * Good moments to fetch a new timeline (e.g. start of each day), ending with validUntil.
+     */
+    private List<Instant> refreshAt;
+
+    private List<FrameDefinition> frames;
+}
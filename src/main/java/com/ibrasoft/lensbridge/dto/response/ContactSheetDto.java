@@ -0,0 +1,37 @@
+package com.ibrasoft.lensbridge.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One sprite-sheet JPEG covering a page of uploads, plus where each upload sits in it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContactSheetDto {
+    private String url;               // Signed URL of the sheet JPEG
+    private String hash;              // Page content hash the sheet was built from
+    private int width;
+    private int height;
+    private int tileSize;             // Each upload is fitted into a tileSize x tileSize cell
+    private List<Tile> tiles;
+    private List<UUID> missing;       // Uploads on the page without a thumbnail yet (not in the sheet)
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tile {
+        private UUID uploadId;
+        private int x;                // Drawn image rectangle within the sheet, in pixels
+        private int y;
+        private int width;
+        private int height;
+    }
+}
@@ -1,9 +1,12 @@
 package com.ibrasoft.lensbridge.dto.response;
 
+import com.ibrasoft.lensbridge.model.upload.Upload;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.format.DateTimeFormatter;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,4 +20,26 @@ public class GalleryItemDto {
     private String date;
     private String event;
     private boolean featured;
+
+    // Image layout hints so clients can reserve space before the image loads
+    private Integer width;
+    private Integer height;
+    private Integer orientation;
+    private String capturedAt;
+
+    // Inline placeholder rendered until the thumbnail loads
+    private String blurHash;
+
+    /**
+     * Copy the image metadata read at ingestion (null for videos / unprocessed uploads).
+     */
+    public void applyImageMetadata(Upload upload) {
+        this.width = upload.getWidth();
+        this.height = upload.getHeight();
+        this.orientation = upload.getOrientation();
+        this.blurHash = upload.getBlurHash();
+        if (upload.getCapturedAt() != null) {
+            this.capturedAt = upload.getCapturedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.ibrasoft.lensbridge.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.ibrasoft.lensbridge.model.board.BoardConfig;
 import com.ibrasoft.lensbridge.model.board.frames.FrameDefinition;
 import lombok.AllArgsConstructor;
@@ -16,4 +17,10 @@ import java.util.List;
 public class MusallahBoardPayload {
     private BoardConfig boardConfig;
     private List<FrameDefinition> frames;
+
+    /**
+     * Some source failed and its last good frames (or none) were used instead.
+     */
+    @JsonIgnore
+    private boolean degraded;
 }
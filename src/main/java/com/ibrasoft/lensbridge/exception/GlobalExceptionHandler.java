@@ -1,6 +1,7 @@
 package com.ibrasoft.lensbridge.exception;
 
 import com.ibrasoft.lensbridge.dto.response.MessageResponse;
+import com.ibrasoft.lensbridge.service.resilience.CircuitBreakerOpenException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -111,6 +112,16 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new MessageResponse("Failed to process upload"));
     }
 
+    @ExceptionHandler(CircuitBreakerOpenException.class)
+    public ResponseEntity<MessageResponse> handleCircuitBreakerOpenException(CircuitBreakerOpenException ex) {
+        log.warn("Rejected call: {}", ex.getMessage());
+        // Whole seconds, rounded up; at least 1 while half-open trials are still running
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", String.valueOf(retryAfterSeconds))
+                .body(new MessageResponse("A required service is temporarily unavailable, please try again shortly"));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<MessageResponse> handleGenericException(Exception ex) {
         log.error("Unexpected error occurred: {}", ex.getMessage(), ex);
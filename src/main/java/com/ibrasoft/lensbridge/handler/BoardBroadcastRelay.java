@@ -0,0 +1,91 @@
+package com.ibrasoft.lensbridge.handler;
+
+import com.ibrasoft.lensbridge.model.board.BoardLocation;
+import com.ibrasoft.lensbridge.service.board.BoardChangeDebouncer;
+import com.ibrasoft.lensbridge.service.board.BoardContentChangedEvent;
+import com.ibrasoft.lensbridge.service.board.BoardPayloadCache;
+import com.ibrasoft.lensbridge.service.board.bus.BoardBroadcast;
+import com.ibrasoft.lensbridge.service.board.bus.BoardBroadcastBus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Connects board writes and admin refreshes to the {@link BoardBroadcastBus}, and applies
+ * what arrives on it to this instance: drop the cached payload, then update the boards
+ * connected here.
+ *
+ * Writes drop this instance's cached payload immediately, but are debounced per board
+ * (board.push.debounce, at most board.push.debounce-max) before being broadcast, so a
+ * burst of edits reaches the boards as one push.
+ */
+@Component
+public class BoardBroadcastRelay {
+
+    private final BoardBroadcastBus bus;
+    private final BoardPayloadCache payloadCache;
+    private final SignboardHandler signboardHandler;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("board-change-debounce").daemon().factory());
+    private final BoardChangeDebouncer debouncer;
+
+    public BoardBroadcastRelay(BoardBroadcastBus bus,
+                               BoardPayloadCache payloadCache,
+                               SignboardHandler signboardHandler,
+                               @Value("${board.push.debounce:2s}") Duration debounce,
+                               @Value("${board.push.debounce-max:10s}") Duration debounceMax) {
+        this.bus = bus;
+        this.payloadCache = payloadCache;
+        this.signboardHandler = signboardHandler;
+        this.debouncer = new BoardChangeDebouncer(debounce, debounceMax, scheduler,
+                changed -> bus.publish(BoardBroadcast.contentChanged(changed.locations(), changed.sources())));
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        bus.subscribe(this::apply);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @EventListener
+    public void onBoardContentChanged(BoardContentChangedEvent event) {
+        payloadCache.invalidate(event.locations(), event.sources());
+        debouncer.submit(event);
+    }
+
+    /**
+     * Refresh boards on every instance.
+     *
+     * @param board    only boards at this location, or null for all
+     * @param deviceId only this device, or null
+     */
+    public void refresh(BoardLocation board, String deviceId) {
+        bus.publish(BoardBroadcast.refresh(board, deviceId));
+    }
+
+    private void apply(BoardBroadcast message) {
+        switch (message.type()) {
+            case CONTENT_CHANGED -> {
+                payloadCache.invalidate(message.locations(), message.sources());
+                signboardHandler.pushContentChanged(message.locations());
+            }
+            case REFRESH -> {
+                if (message.deviceId() != null || message.locations().isEmpty()) {
+                    signboardHandler.sendRefreshCommand(null, message.deviceId());
+                } else {
+                    message.locations().forEach(board -> signboardHandler.sendRefreshCommand(board, null));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.ibrasoft.lensbridge.handler;
+
+import com.ibrasoft.lensbridge.model.board.BoardLocation;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A connected board screen: its (concurrency-safe) session, where it is and what it holds.
+ *
+ * Its messages go out one at a time, so the send time and buffer limits are enforced here
+ * rather than by ConcurrentWebSocketSessionDecorator, which only checks them when two
+ * threads send at once.
+ */
+public class BoardSession {
+
+    private final WebSocketSession session;
+    private final long sendTimeLimitNanos;
+    private final long bufferSizeLimit;
+    private volatile BoardLocation board;
+    private volatile String deviceId;
+    private volatile boolean subscribed;
+    private volatile Long ackedVersion;
+    private volatile long lastSeenNanos = System.nanoTime();
+
+    private record Outgoing(WebSocketMessage<?> message, CompletableFuture<Void> sent) {
+    }
+
+    private final Queue<Outgoing> outbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    // System.nanoTime() when the send in progress started, 0 when none is
+    private volatile long sendStartedNanos;
+
+    /**
+     * @param sendTimeLimit   longest a single send may take before the session is given up on
+     * @param bufferSizeLimit most bytes that may wait behind a send in progress
+     */
+    BoardSession(WebSocketSession session, Duration sendTimeLimit, long bufferSizeLimit) {
+        this.session = session;
+        this.sendTimeLimitNanos = sendTimeLimit.toNanos();
+        this.bufferSizeLimit = bufferSizeLimit;
+    }
+
+    public WebSocketSession getSession() {
+        return session;
+    }
+
+    public String getId() {
+        return session.getId();
+    }
+
+    public BoardLocation getBoard() {
+        return board;
+    }
+
+    void setBoard(BoardLocation board) {
+        this.board = board;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    /**
+     * Whether the board sent HELLO and takes PAYLOAD/PATCH messages; otherwise it is an
+     * older client that only understands REFRESH.
+     */
+    public boolean isSubscribed() {
+        return subscribed;
+    }
+
+    void setSubscribed(boolean subscribed) {
+        this.subscribed = subscribed;
+    }
+
+    public Long getAckedVersion() {
+        return ackedVersion;
+    }
+
+    void setAckedVersion(Long ackedVersion) {
+        this.ackedVersion = ackedVersion;
+    }
+
+    void touch() {
+        lastSeenNanos = System.nanoTime();
+    }
+
+    long idleNanos() {
+        return System.nanoTime() - lastSeenNanos;
+    }
+
+    /**
+     * Queue a message behind the ones already waiting. At most one task per session sends
+     * at a time, so a PATCH never overtakes the PAYLOAD it is based on.
+     *
+     * @return completes once the message has been handed to the session (or dropped)
+     * @throws SessionLimitExceededException if the send in progress has taken longer than the
+     *                                       send time limit, or the message would take the
+     *                                       bytes waiting behind it over the buffer size limit;
+     *                                       the message is not queued and the session should be closed
+     */
+    CompletableFuture<Void> enqueue(WebSocketMessage<?> message, Executor executor, Consumer<WebSocketMessage<?>> sender) {
+        long started = sendStartedNanos;
+        if (started != 0 && System.nanoTime() - started > sendTimeLimitNanos) {
+            throw new SessionLimitExceededException("Send has taken longer than "
+                    + Duration.ofNanos(sendTimeLimitNanos), CloseStatus.SESSION_NOT_RELIABLE);
+        }
+        int length = message.getPayloadLength();
+        long queued = queuedBytes.addAndGet(length);
+        if (started != 0 && queued > bufferSizeLimit) {
+            queuedBytes.addAndGet(-length);
+            throw new SessionLimitExceededException("Buffer size " + queued + " bytes exceeds the limit of "
+                    + bufferSizeLimit, CloseStatus.SESSION_NOT_RELIABLE);
+        }
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        outbox.add(new Outgoing(message, sent));
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(() -> drain(sender));
+        }
+        return sent;
+    }
+
+    private void drain(Consumer<WebSocketMessage<?>> sender) {
+        do {
+            Outgoing next;
+            while ((next = outbox.poll()) != null) {
+                queuedBytes.addAndGet(-next.message().getPayloadLength());
+                sendStartedNanos = System.nanoTime();
+                try {
+                    sender.accept(next.message());
+                } finally {
+                    sendStartedNanos = 0;
+                    next.sent().complete(null);
+                }
+            }
+            draining.set(false);
+            // A message queued after the last poll but before the flag was cleared
+        } while (!outbox.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    /**
+     * Drop everything still waiting, once the session has been given up on.
+     */
+    void discardQueued() {
+        Outgoing next;
+        while ((next = outbox.poll()) != null) {
+            queuedBytes.addAndGet(-next.message().getPayloadLength());
+            next.sent().complete(null);
+        }
+    }
+}
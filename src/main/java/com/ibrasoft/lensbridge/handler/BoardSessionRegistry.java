@@ -0,0 +1,98 @@
+package com.ibrasoft.lensbridge.handler;
+
+import com.ibrasoft.lensbridge.model.board.BoardLocation;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Open board sessions, indexed by BoardLocation so a change for one audience only reaches
+ * the screens that show it. Sessions that haven't said where they are yet are kept apart.
+ */
+@Component
+public class BoardSessionRegistry {
+
+    private final Map<String, BoardSession> byId = new ConcurrentHashMap<>();
+    private final Map<BoardLocation, Set<BoardSession>> byBoard = new EnumMap<>(BoardLocation.class);
+    private final Set<BoardSession> unassigned = ConcurrentHashMap.newKeySet();
+
+    public BoardSessionRegistry(MeterRegistry meterRegistry) {
+        for (BoardLocation board : BoardLocation.values()) {
+            Set<BoardSession> sessions = ConcurrentHashMap.newKeySet();
+            byBoard.put(board, sessions);
+            Gauge.builder("signboard.sessions", sessions, Set::size)
+                    .description("Open signboard WebSocket sessions")
+                    .tag("board", board.name())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("signboard.sessions", unassigned, Set::size)
+                .description("Open signboard WebSocket sessions")
+                .tag("board", "unassigned")
+                .register(meterRegistry);
+    }
+
+    BoardSession add(BoardSession boardSession) {
+        byId.put(boardSession.getId(), boardSession);
+        unassigned.add(boardSession);
+        return boardSession;
+    }
+
+    /**
+     * Record (or change) where a session's board is; a null deviceId keeps the current one.
+     */
+    synchronized void assign(BoardSession session, BoardLocation board, String deviceId) {
+        if (deviceId != null && !deviceId.isBlank()) {
+            session.setDeviceId(deviceId);
+        }
+        if (board == null || board == session.getBoard()) {
+            return;
+        }
+        if (session.getBoard() == null) {
+            unassigned.remove(session);
+        } else {
+            byBoard.get(session.getBoard()).remove(session);
+        }
+        session.setBoard(board);
+        if (byId.containsKey(session.getId())) {
+            byBoard.get(board).add(session);
+        }
+    }
+
+    /**
+     * @return the removed session, or null if it was already gone
+     */
+    synchronized BoardSession remove(String sessionId) {
+        BoardSession session = byId.remove(sessionId);
+        if (session != null) {
+            if (session.getBoard() == null) {
+                unassigned.remove(session);
+            } else {
+                byBoard.get(session.getBoard()).remove(session);
+            }
+        }
+        return session;
+    }
+
+    public BoardSession get(String sessionId) {
+        return byId.get(sessionId);
+    }
+
+    public Collection<BoardSession> all() {
+        return byId.values();
+    }
+
+    public Collection<BoardSession> forBoard(BoardLocation board) {
+        return byBoard.get(board);
+    }
+
+    public List<BoardSession> forDevice(String deviceId) {
+        return byId.values().stream().filter(s -> deviceId.equals(s.getDeviceId())).toList();
+    }
+}
@@ -1,43 +1,443 @@
 package com.ibrasoft.lensbridge.handler;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ibrasoft.lensbridge.model.board.BoardLocation;
+import com.ibrasoft.lensbridge.service.board.BoardPayloadCache;
+import com.ibrasoft.lensbridge.service.board.CachedBoardPayload;
+import com.ibrasoft.lensbridge.util.JsonDiff;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.PongMessage;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
-import java.util.Set;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * WebSocket endpoint for the Musallah boards.
+ *
+ * A board says where it is either in the connect URL (?board=BROTHERS_MUSALLAH&device=lobby-1)
+ * or in its HELLO, and is kept in {@link BoardSessionRegistry} under that location.
+ *
+ * A board that sends {"type":"HELLO","board":"BROTHERS_MUSALLAH","device":"lobby-1","version":n}
+ * (device and version optional) subscribes to its payload: it gets a PAYLOAD message with
+ * the full payload, or a PATCH (RFC 6902) from version n, and the same again whenever the
+ * content changes. It answers each with {"type":"ACK","version":v}; later patches are
+ * computed from the last acknowledged version. A patch carries its baseVersion; a board
+ * that doesn't hold that version should send HELLO with the version it has to resync. When
+ * a patch would be larger than board.push.max-patch-ratio of the full payload, or the base
+ * version is no longer known, the full payload is sent instead.
+ *
+ * A cached payload also expires on its own (at midnight in the board's timezone, or after
+ * board.payload-cache.max-age); a push is scheduled for that moment for every location
+ * that has sessions, so subscribed boards move to the new day without a content change.
+ *
+ * Sessions that never send HELLO are older clients and receive the plain "REFRESH" text
+ * instead: on an admin refresh, and on content changes for their location if they gave one.
+ *
+ * Each session's messages are queued on its BoardSession and sent one at a time, in order,
+ * by a task on a dedicated executor, so a stalled board can't hold up the caller or the
+ * other boards, and a board never sees a PATCH before the payload it applies to.
+ * When a message is queued behind a send that has taken longer than
+ * board.push.send-time-limit, or would leave more than board.push.buffer-size-limit
+ * waiting, the session is closed and dropped; so is one whose send fails. Every
+ * board.heartbeat.interval each session is pinged, which also catches a send that has
+ * stalled while nothing else was queued; one that has sent nothing (pong or message) for
+ * board.heartbeat.idle-timeout is closed as half-open.
+ */
 @Component
+@Slf4j
 public class SignboardHandler extends TextWebSocketHandler {
-    
-    private final Set<WebSocketSession> sessions = ConcurrentHashMap.newKeySet();
-    
+
+    private static final TextMessage REFRESH = new TextMessage("REFRESH");
+    private static final PingMessage PING = new PingMessage(ByteBuffer.allocate(0));
+    private static final Duration EXPIRY_PUSH_RETRY = Duration.ofMinutes(1);
+
+    private final BoardSessionRegistry registry;
+    private final BoardPayloadCache payloadCache;
+    private final ObjectMapper objectMapper;
+    private final double maxPatchRatio;
+    private final Duration sendTimeLimit;
+    private final int bufferSizeLimit;
+    private final Duration idleTimeout;
+    private final ExecutorService sendExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("signboard-send-", 0).factory());
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("signboard-heartbeat").daemon().factory());
+    private final Timer broadcastTimer;
+    private final Counter evictions;
+
+    private record ExpiryPush(Instant at, ScheduledFuture<?> task) {
+    }
+
+    // Per location, the push scheduled for when the payload last sent there expires
+    private final Map<BoardLocation, ExpiryPush> expiryPushes = new ConcurrentHashMap<>();
+
+    public SignboardHandler(BoardSessionRegistry registry,
+                            BoardPayloadCache payloadCache,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${board.push.max-patch-ratio:0.5}") double maxPatchRatio,
+                            @Value("${board.push.send-time-limit:10s}") Duration sendTimeLimit,
+                            @Value("${board.push.buffer-size-limit:1MB}") DataSize bufferSizeLimit,
+                            @Value("${board.heartbeat.interval:30s}") Duration heartbeatInterval,
+                            @Value("${board.heartbeat.idle-timeout:90s}") Duration idleTimeout) {
+        this.registry = registry;
+        this.payloadCache = payloadCache;
+        this.objectMapper = objectMapper;
+        this.maxPatchRatio = maxPatchRatio;
+        this.sendTimeLimit = sendTimeLimit;
+        this.bufferSizeLimit = (int) Math.min(Integer.MAX_VALUE, bufferSizeLimit.toBytes());
+        this.idleTimeout = idleTimeout;
+        this.broadcastTimer = Timer.builder("signboard.broadcast")
+                .description("Time from starting a broadcast until every session has been sent to")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.evictions = Counter.builder("signboard.evicted")
+                .description("Sessions closed because they were too slow, idle or their send failed")
+                .register(meterRegistry);
+        long intervalMillis = Math.max(1000, heartbeatInterval.toMillis());
+        heartbeat.scheduleWithFixedDelay(this::heartbeat, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
-        sessions.add(session);
-        System.out.println("Signboard connected: " + session.getId());
+        // The decorator keeps close() safe alongside a send; BoardSession enforces the limits
+        int sendTimeLimitMillis = (int) Math.min(Integer.MAX_VALUE, sendTimeLimit.toMillis());
+        BoardSession boardSession = registry.add(new BoardSession(
+                new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMillis, bufferSizeLimit,
+                        ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE),
+                sendTimeLimit, bufferSizeLimit));
+        if (session.getUri() != null) {
+            MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams();
+            BoardLocation board = BoardLocation.from(params.getFirst("board")).orElse(null);
+            registry.assign(boardSession, board, params.getFirst("device"));
+        }
+        log.info("Signboard connected: {} (board {}, device {})", session.getId(),
+                boardSession.getBoard(), boardSession.getDeviceId());
     }
-    
+
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
-        sessions.remove(session);
-        System.out.println("Signboard disconnected: " + session.getId());
-    }
-    
-    public void sendRefreshCommand() {
-        sessions.removeIf(session -> !session.isOpen());
-        sessions.forEach(session -> {
-            if (session.isOpen()) {
-                try {
-                    session.sendMessage(new TextMessage("REFRESH"));
-                    System.out.println("Sent REFRESH to session: " + session.getId());
-                } catch (IOException e) {
-                    System.err.println("Failed to send to session " + session.getId() + ": " + e.getMessage());
+        registry.remove(session.getId());
+        log.info("Signboard disconnected: {} ({})", session.getId(), status);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        sendExecutor.shutdownNow();
+    }
+
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        BoardSession boardSession = registry.get(session.getId());
+        if (boardSession != null) {
+            boardSession.touch();
+        }
+        super.handleMessage(session, message);
+    }
+
+    @Override
+    protected void handlePongMessage(WebSocketSession session, PongMessage message) {
+        // Liveness is recorded in handleMessage
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        BoardSession boardSession = registry.get(session.getId());
+        if (boardSession == null) {
+            return;
+        }
+        JsonNode json;
+        try {
+            json = objectMapper.readTree(message.getPayload());
+        } catch (IOException e) {
+            log.debug("Ignoring malformed signboard message from {}", session.getId());
+            return;
+        }
+        switch (json.path("type").asText()) {
+            case "HELLO" -> onHello(boardSession, json);
+            case "ACK" -> onAck(boardSession, json);
+            default -> log.debug("Ignoring signboard message of type '{}' from {}", json.path("type").asText(), session.getId());
+        }
+    }
+
+    private void onHello(BoardSession session, JsonNode hello) {
+        BoardLocation board = BoardLocation.from(hello.path("board").asText(null)).orElse(session.getBoard());
+        if (board == null) {
+            log.debug("Signboard {} sent HELLO without a valid board", session.getId());
+            return;
+        }
+        registry.assign(session, board, hello.path("device").asText(null));
+        session.setAckedVersion(hello.hasNonNull("version") ? hello.get("version").asLong() : null);
+        session.setSubscribed(true);
+        log.info("Signboard {} (device {}) subscribed to {} at version {}", session.getId(), session.getDeviceId(),
+                board, session.getAckedVersion());
+        TextMessage message = encodeFor(session, currentPayload(board), new HashMap<>(), false);
+        if (message != null) {
+            enqueue(session, message);
+        }
+    }
+
+    private void onAck(BoardSession session, JsonNode ack) {
+        if (ack.hasNonNull("version")) {
+            session.setAckedVersion(ack.get("version").asLong());
+        }
+    }
+
+    /**
+     * Update this instance's screens at the changed locations; call once the payload cache
+     * has been invalidated. Subscribed boards get the new payload, older clients get REFRESH.
+     */
+    public void pushContentChanged(Collection<BoardLocation> locations) {
+        for (BoardLocation board : locations) {
+            Collection<BoardSession> sessions = registry.forBoard(board);
+            if (!sessions.isEmpty()) {
+                broadcast(encodeFor(board, sessions, false));
+            }
+        }
+    }
+
+    /**
+     * Ask this instance's boards to refresh: subscribed boards get their full payload pushed,
+     * older clients get the REFRESH text. Use BoardBroadcastRelay to reach every instance.
+     *
+     * @param board    only boards at this location, or null for all
+     * @param deviceId only this device, or null; takes precedence over board
+     */
+    public void sendRefreshCommand(BoardLocation board, String deviceId) {
+        Collection<BoardSession> targets;
+        if (deviceId != null && !deviceId.isBlank()) {
+            targets = registry.forDevice(deviceId);
+        } else if (board != null) {
+            targets = registry.forBoard(board);
+        } else {
+            targets = registry.all();
+        }
+
+        Map<BoardSession, TextMessage> outgoing = new HashMap<>();
+        Map<BoardLocation, List<BoardSession>> subscribed = new HashMap<>();
+        for (BoardSession session : targets) {
+            if (session.isSubscribed()) {
+                subscribed.computeIfAbsent(session.getBoard(), b -> new ArrayList<>()).add(session);
+            } else {
+                outgoing.put(session, REFRESH);
+            }
+        }
+        subscribed.forEach((location, sessions) -> outgoing.putAll(encodeFor(location, sessions, true)));
+        broadcast(outgoing);
+    }
+
+    /**
+     * Messages for the given sessions of one board. Subscribed sessions already on the
+     * current version are skipped unless forceFull; the rest get REFRESH.
+     */
+    private Map<BoardSession, TextMessage> encodeFor(BoardLocation board, Collection<BoardSession> sessions,
+                                                     boolean forceFull) {
+        CachedBoardPayload current = currentPayload(board);
+        // Boards on the same acknowledged version share one encoded message
+        Map<Long, TextMessage> encoded = new HashMap<>();
+        Map<BoardSession, TextMessage> outgoing = new HashMap<>();
+        for (BoardSession session : sessions) {
+            TextMessage message = session.isSubscribed() ? encodeFor(session, current, encoded, forceFull) : REFRESH;
+            if (message != null) {
+                outgoing.put(session, message);
+            }
+        }
+        return outgoing;
+    }
+
+    private TextMessage encodeFor(BoardSession session, CachedBoardPayload current, Map<Long, TextMessage> encoded,
+                                  boolean forceFull) {
+        Long acked = session.getAckedVersion();
+        if (!forceFull && acked != null && acked == current.version()) {
+            return null;
+        }
+        long base = forceFull || acked == null ? -1 : acked;
+        return encoded.computeIfAbsent(base, b -> encode(session.getBoard(), current, b));
+    }
+
+    /**
+     * Queue each message on its session and time how long until all have gone out.
+     * Returns without waiting.
+     */
+    private void broadcast(Map<BoardSession, TextMessage> outgoing) {
+        if (outgoing.isEmpty()) {
+            return;
+        }
+        Timer.Sample sample = Timer.start();
+        CompletableFuture<?>[] sends = outgoing.entrySet().stream()
+                .map(e -> enqueue(e.getKey(), e.getValue()))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(sends).whenComplete((ignored, error) -> sample.stop(broadcastTimer));
+    }
+
+    private TextMessage encode(BoardLocation board, CachedBoardPayload current, long baseVersion) {
+        try {
+            if (baseVersion >= 0) {
+                CachedBoardPayload base = payloadCache.getVersion(board, baseVersion).orElse(null);
+                if (base != null) {
+                    ArrayNode patch = JsonDiff.diff(base.tree(), current.tree());
+                    ObjectNode message = objectMapper.createObjectNode();
+                    message.put("type", "PATCH");
+                    message.put("board", board.name());
+                    message.put("baseVersion", baseVersion);
+                    message.put("version", current.version());
+                    message.set("patch", patch);
+                    String text = objectMapper.writeValueAsString(message);
+                    if (text.length() <= current.json().length * maxPatchRatio) {
+                        return new TextMessage(text);
+                    }
                 }
             }
+            ObjectNode message = objectMapper.createObjectNode();
+            message.put("type", "PAYLOAD");
+            message.put("board", board.name());
+            message.put("version", current.version());
+            message.set("payload", current.tree());
+            return new TextMessage(objectMapper.writeValueAsString(message));
+        } catch (IOException e) {
+            log.error("Failed to encode board payload for {}", board, e);
+            return null;
+        }
+    }
+
+    /**
+     * The board's payload, with a push scheduled for when it expires.
+     */
+    private CachedBoardPayload currentPayload(BoardLocation board) {
+        CachedBoardPayload current = payloadCache.get(board);
+        scheduleExpiryPush(board, current.validUntil());
+        return current;
+    }
+
+    private void scheduleExpiryPush(BoardLocation board, Instant at) {
+        expiryPushes.compute(board, (key, scheduled) -> {
+            if (scheduled != null && scheduled.at().equals(at) && !scheduled.task().isDone()) {
+                return scheduled;
+            }
+            if (scheduled != null) {
+                scheduled.task().cancel(false);
+            }
+            // The entry is stale from validUntil on, so fire just after it
+            long delayMillis = Math.max(0, Duration.between(Instant.now(), at).toMillis()) + 1;
+            ScheduledFuture<?> task = heartbeat.schedule(() -> sendExecutor.execute(() -> pushExpired(board)),
+                    delayMillis, TimeUnit.MILLISECONDS);
+            return new ExpiryPush(at, task);
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Runs when the payload last sent to a location expires. Building the new one re-arms
+     * the push; a location nobody is connected to is left until a board subscribes.
+     */
+    private void pushExpired(BoardLocation board) {
+        if (registry.forBoard(board).isEmpty()) {
+            return;
+        }
+        try {
+            pushContentChanged(List.of(board));
+        } catch (RuntimeException e) {
+            log.warn("Could not push the expired payload for {}, retrying in {}: {}", board, EXPIRY_PUSH_RETRY,
+                    e.getMessage());
+            scheduleExpiryPush(board, Instant.now().plus(EXPIRY_PUSH_RETRY));
+        }
+    }
+
+    /**
+     * Ping every session and close the ones that have gone quiet for longer than the idle timeout.
+     */
+    private void heartbeat() {
+        try {
+            long idleNanos = idleTimeout.toNanos();
+            for (BoardSession session : registry.all()) {
+                if (session.idleNanos() > idleNanos) {
+                    evict(session, "no traffic for " + idleTimeout);
+                    closeQuietly(session, CloseStatus.SESSION_NOT_RELIABLE);
+                } else {
+                    enqueue(session, PING);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keep the schedule alive
+            log.warn("Signboard heartbeat failed", e);
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(BoardSession session, WebSocketMessage<?> message) {
+        try {
+            return session.enqueue(message, sendExecutor, m -> send(session, m));
+        } catch (SessionLimitExceededException e) {
+            evict(session, e.getMessage());
+            session.discardQueued();
+            // Closing can wait on the stalled send, so not on the caller's thread
+            sendExecutor.execute(() -> closeQuietly(session, e.getStatus()));
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void send(BoardSession session, WebSocketMessage<?> message) {
+        if (!session.getSession().isOpen()) {
+            registry.remove(session.getId());
+            return;
+        }
+        try {
+            session.getSession().sendMessage(message);
+        } catch (SessionLimitExceededException e) {
+            // The decorator has already closed the session
+            evict(session, e.getMessage());
+        } catch (IOException | IllegalStateException e) {
+            evict(session, e.getMessage());
+            closeQuietly(session, CloseStatus.SESSION_NOT_RELIABLE);
+        }
+    }
+
+    private void evict(BoardSession session, String reason) {
+        if (registry.remove(session.getId()) != null) {
+            evictions.increment();
+            log.warn("Evicted signboard session {} (board {}, device {}): {}", session.getId(),
+                    session.getBoard(), session.getDeviceId(), reason);
+        }
+    }
+
+    private static void closeQuietly(BoardSession session, CloseStatus status) {
+        try {
+            session.getSession().close(status);
+        } catch (IOException ignored) {
+            // already broken
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.ibrasoft.lensbridge.model.board;
 
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.Optional;
+import java.util.Set;
 
 public enum BoardLocation {
     BROTHERS_MUSALLAH("brothers", Audience.BROTHERS),
@@ -17,6 +19,18 @@ public enum BoardLocation {
 
     public Audience audience() { return audience; }
 
+    /**
+     * Boards that show content targeted at the given audience. BOTH (or null) means every board.
+     */
+    public static Set<BoardLocation> forAudience(Audience audience) {
+        if (audience == null || audience == Audience.BOTH) return EnumSet.allOf(BoardLocation.class);
+        EnumSet<BoardLocation> out = EnumSet.noneOf(BoardLocation.class);
+        for (BoardLocation b : values()) {
+            if (b.audience == audience) out.add(b);
+        }
+        return out;
+    }
+
     public static Optional<BoardLocation> from(String s) {
         if (s == null) return Optional.empty();
         return Arrays.stream(values())
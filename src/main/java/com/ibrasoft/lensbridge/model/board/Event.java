@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -13,7 +14,7 @@ import lombok.NoArgsConstructor;
 
 @Document(collection = "board_events")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Event {
@@ -36,4 +37,16 @@ public class Event {
     private Boolean allDay;
 
     private Audience audience;
+
+    /**
+     * Set for an event series; startTimestamp/endTimestamp are then its first occurrence.
+     */
+    private Recurrence recurrence;
+
+    /**
+     * Set only on an occurrence of a series: the series' id. The occurrence's own id is
+     * derived from the series id and its date, so it is the same on every expansion.
+     */
+    @Transient
+    private UUID seriesId;
 }
@@ -13,5 +13,9 @@ public class Location {
     private double latitude;
     private double longitude;
     private String timezone;
-    private int method;
+    /**
+     * Prayer calculation method, numbered as in CalculationMethod; unset means ISNA.
+     * Not a primitive: 0 is Jafari, so a missing value must stay distinguishable.
+     */
+    private Integer method;
 }
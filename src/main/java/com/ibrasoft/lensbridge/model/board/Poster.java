@@ -13,7 +13,7 @@ import lombok.NoArgsConstructor;
 
 @Document(collection = "posters")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Poster {
@@ -0,0 +1,67 @@
+package com.ibrasoft.lensbridge.model.board;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Repeat rule of an event series, a subset of iCalendar RRULE (FREQ=DAILY|WEEKLY, INTERVAL,
+ * BYDAY, UNTIL, COUNT, plus EXDATE-style exceptions). The series' own start and end are the
+ * first occurrence; later occurrences keep its wall-clock time in the given timezone.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class Recurrence {
+
+    public enum Frequency {
+        DAILY,
+        WEEKLY
+    }
+
+    @NotNull(message = "Recurrence frequency is required")
+    private Frequency frequency;
+
+    /**
+     * Repeat every n days or weeks; defaults to 1.
+     */
+    @Positive(message = "Recurrence interval must be positive")
+    private Integer interval;
+
+    /**
+     * WEEKLY only: the days of the week to repeat on; defaults to the first occurrence's day.
+     */
+    private Set<DayOfWeek> byDay;
+
+    /**
+     * Last date an occurrence may start on (inclusive). At most one of until and count.
+     */
+    private LocalDate until;
+
+    /**
+     * Total number of occurrences, exceptions included.
+     */
+    @Positive(message = "Recurrence count must be positive")
+    @Max(value = 1000, message = "Recurrence count must be at most 1000")
+    private Integer count;
+
+    /**
+     * Dates on which the occurrence is skipped.
+     */
+    private List<LocalDate> exceptions;
+
+    /**
+     * Timezone the wall-clock time is kept in across DST changes; defaults to the server's.
+     */
+    private String timezone;
+}
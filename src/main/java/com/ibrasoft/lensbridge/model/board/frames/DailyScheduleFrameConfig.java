@@ -18,4 +18,9 @@ public class DailyScheduleFrameConfig extends FrameConfig {
     private String heading;
 
     private List<EventListFrameConfig.EventView> events;
+
+    /**
+     * The day's prayer times; null if the board has no location configured.
+     */
+    private List<NextPrayerFrameConfig.PrayerSlot> prayers;
 }
@@ -1,10 +1,13 @@
 package com.ibrasoft.lensbridge.model.board.frames;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -37,4 +40,16 @@ public class FrameDefinition {
      * Higher = shown first within a slot; null = neutral.
      */
     private Integer priority;
+
+    /**
+     * When the frame starts applying; only set in timeline payloads.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Instant validFrom;
+
+    /**
+     * When the frame stops applying (exclusive); only set in timeline payloads.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Instant validUntil;
 }
@@ -6,6 +6,9 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+import java.util.List;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -16,4 +19,36 @@ public class NextPrayerFrameConfig extends FrameConfig {
     private String locationCity;
     private String timezone;
     private String calculationMethod;
+
+    /**
+     * Today's prayer times in order, sunrise included.
+     */
+    private List<PrayerSlot> prayers;
+
+    /**
+     * Tomorrow's Fajr, the next prayer once Isha has passed.
+     */
+    private PrayerSlot nextFajr;
+
+    /**
+     * When to switch to dark mode; null if darkModeAfterIsha is off.
+     */
+    private Instant darkModeAt;
+
+    /**
+     * When to reload board data (Isha + refreshAfterIshaaMinutes).
+     */
+    private Instant refreshAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PrayerSlot {
+        /** FAJR, SUNRISE, DHUHR, ASR, MAGHRIB or ISHA */
+        private String name;
+        private Instant time;
+        /** The same time in the board's timezone, e.g. "13:19" */
+        private String localTime;
+    }
 }
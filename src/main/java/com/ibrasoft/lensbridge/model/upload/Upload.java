@@ -1,6 +1,7 @@
 package com.ibrasoft.lensbridge.model.upload;
 
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
@@ -9,6 +10,7 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
+@Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "uploads")
@@ -32,4 +34,45 @@ public class Upload {
     private boolean isAnon;
 
     private UploadType contentType;
+
+    /**
+     * 64-bit dHash of the image, computed during thumbnail generation.
+     * Used to group near-duplicate uploads for moderation. Null for videos and
+     * images that have not been processed yet.
+     */
+    private Long perceptualHash;
+
+    /**
+     * Display dimensions in pixels (EXIF orientation already applied), read from the
+     * image header during ingestion. Null for videos and unprocessed images.
+     */
+    private Integer width;
+    private Integer height;
+
+    /**
+     * Set once the original's header has been read, whether or not it yielded dimensions,
+     * so an image whose header can't be parsed isn't decoded again on every backfill.
+     */
+    private boolean metadataExtracted;
+
+    /**
+     * EXIF orientation (1-8) of the original file, if present.
+     */
+    private Integer orientation;
+
+    /**
+     * EXIF capture time (camera-local wall clock), if present.
+     */
+    private LocalDateTime capturedAt;
+
+    /**
+     * BlurHash placeholder computed from the thumbnail, returned inline in listings.
+     */
+    private String blurHash;
+
+    /**
+     * Storage ETag of the thumbnail as last written. The thumbnail key never changes, so this
+     * is what tells a regenerated thumbnail apart (e.g. for contact sheet hashes).
+     */
+    private String thumbnailETag;
 }
\ No newline at end of file
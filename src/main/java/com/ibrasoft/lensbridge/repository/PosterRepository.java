@@ -20,13 +20,6 @@ public interface PosterRepository extends MongoRepository<Poster, UUID> {
     @Query("{ 'startDate': { $lte: ?0 }, 'endDate': { $gt: ?0 } }")
     List<Poster> findActivePostersAt(LocalDate date);
 
-    /**
-     * Find all posters for a specific audience or BOTH, active at a given date.
-     * Sorted by startDate descending (newest first).
-     */
-    @Query("{ 'startDate': { $lte: ?0 }, 'endDate': { $gt: ?0 }, 'audience': { $in: [?1, 'BOTH'] } }")
-    List<Poster> findActivePostersForAudienceAt(LocalDate date, Audience audience, Sort sort);
-
     /**
      * Find all posters for a specific audience or BOTH.
      */
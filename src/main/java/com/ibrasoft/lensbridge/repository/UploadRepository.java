@@ -37,4 +37,9 @@ public interface UploadRepository extends MongoRepository<Upload, UUID> {
     
     // Count uploads by user within date range for daily limits
     long countByUploadedByAndCreatedDateBetween(UUID uploadedBy, LocalDateTime start, LocalDateTime end);
+
+    // Near-duplicate index loading
+    List<Upload> findByEventIdAndPerceptualHashNotNull(UUID eventId);
+
+    List<Upload> findByEventIdIsNullAndPerceptualHashNotNull();
 }
@@ -85,6 +85,8 @@ public class WebSecurityConfig {
         .authorizeHttpRequests(auth -> auth.requestMatchers("/api/gallery/**").permitAll()
             .requestMatchers("/api/auth/**").permitAll()
             .requestMatchers("/api/events/**").permitAll()
+            .requestMatchers("/api/media/**").permitAll()
+            .requestMatchers("/api/storage/**").permitAll()
             .requestMatchers("/api/musallah/**").permitAll()
             .requestMatchers("/api/refresh-musallahboard").permitAll()
             .anyRequest().authenticated());
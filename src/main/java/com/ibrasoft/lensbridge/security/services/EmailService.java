@@ -1,11 +1,15 @@
 package com.ibrasoft.lensbridge.security.services;
 
+import com.ibrasoft.lensbridge.config.ResilienceProperties;
+import com.ibrasoft.lensbridge.service.resilience.CircuitBreakerOpenException;
+import com.ibrasoft.lensbridge.service.resilience.ResilienceRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
@@ -16,6 +20,7 @@ import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.mail.internet.MimeMessage;
 
 @Service
@@ -25,12 +30,34 @@ public class EmailService {
     @Autowired
     private JavaMailSender mailSender;
 
+    @Autowired
+    private ResilienceRegistry resilienceRegistry;
+
+    @Autowired
+    private ResilienceProperties resilienceProperties;
+
     @Value("${spring.mail.from:noreply@lensbridge.tech}")
     private String fromAddress;
 
     @Value("${spring.mail.from.name:LensBridge Mailer Service}")
     private String fromName;
 
+    /**
+     * JavaMail waits forever on a stalled SMTP server by default. Apply the smtp call
+     * timeout unless spring.mail.properties already sets one.
+     */
+    @PostConstruct
+    public void applySmtpTimeouts() {
+        if (mailSender instanceof JavaMailSenderImpl impl) {
+            String timeoutMillis = String.valueOf(resilienceProperties.getSmtp().getCallTimeout().toMillis());
+            for (String protocol : new String[]{"smtp", "smtps"}) {
+                impl.getJavaMailProperties().putIfAbsent("mail." + protocol + ".connectiontimeout", timeoutMillis);
+                impl.getJavaMailProperties().putIfAbsent("mail." + protocol + ".timeout", timeoutMillis);
+                impl.getJavaMailProperties().putIfAbsent("mail." + protocol + ".writetimeout", timeoutMillis);
+            }
+        }
+    }
+
     /**
      * Sends a simple email.
      * 
@@ -46,8 +73,12 @@ public class EmailService {
             message.setTo(to);
             message.setSubject(subject);
             message.setText(text);
-            mailSender.send(message);
+            resilienceRegistry.smtp().run(() -> mailSender.send(message));
             logger.info("Email sent successfully to: {}", to);
+        } catch (CircuitBreakerOpenException e) {
+            // Rethrown as is so the caller gets a 503 with Retry-After
+            logger.warn("Not sending email to: {} - {}", to, e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to send email to: {} - Error: {}", to, e.getMessage(), e);
             throw new RuntimeException("Failed to send email", e);
@@ -102,8 +133,12 @@ public class EmailService {
             helper.setSubject(subject);
             helper.setText(htmlContent, true);
 
-            mailSender.send(message);
+            resilienceRegistry.smtp().run(() -> mailSender.send(message));
             logger.info("HTML email sent successfully to: {}", to);
+        } catch (CircuitBreakerOpenException e) {
+            // The plain text fallback would be refused too
+            logger.warn("Not sending HTML email to: {} - {}", to, e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to send HTML email to: {} - Error: {}", to, e.getMessage(), e);
             logger.info("Attempting fallback to plain text email for: {}", to);
@@ -4,23 +4,31 @@ import com.ibrasoft.lensbridge.dto.request.UpdateBoardConfigRequest;
 import com.ibrasoft.lensbridge.dto.request.WeeklyContentRequest;
 import com.ibrasoft.lensbridge.dto.response.ErrorResponse;
 import com.ibrasoft.lensbridge.exception.ApiResponseException;
+import com.ibrasoft.lensbridge.model.board.Audience;
 import com.ibrasoft.lensbridge.model.board.BoardConfig;
 import com.ibrasoft.lensbridge.model.board.BoardLocation;
 import com.ibrasoft.lensbridge.model.board.Event;
+import com.ibrasoft.lensbridge.model.board.Recurrence;
 import com.ibrasoft.lensbridge.model.board.WeekId;
 import com.ibrasoft.lensbridge.model.board.WeeklyContent;
 import com.ibrasoft.lensbridge.repository.BoardConfigRepository;
 import com.ibrasoft.lensbridge.repository.EventRepository;
 import com.ibrasoft.lensbridge.repository.WeeklyContentRepository;
+import com.ibrasoft.lensbridge.service.board.BoardContentChangedEvent;
+import com.ibrasoft.lensbridge.service.board.BoardSource;
+import com.ibrasoft.lensbridge.service.board.index.EventIndex;
 import com.ibrasoft.lensbridge.util.Patch;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -32,7 +40,9 @@ public class BoardService {
 
     private final BoardConfigRepository boardConfigRepository;
     private final EventRepository eventRepository;
+    private final EventIndex eventIndex;
     private final WeeklyContentRepository weeklyContentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final Sort SORT_BY_START_TIMESTAMP_ASC = Sort.by(Sort.Direction.ASC, "startTimestamp");
 
@@ -61,6 +71,7 @@ public class BoardService {
     public BoardConfig saveBoardConfig(BoardConfig boardConfig) {
         BoardConfig saved = boardConfigRepository.save(boardConfig);
         log.info("Saved board config for location: {}", boardConfig.getBoardLocation());
+        eventPublisher.publishEvent(BoardContentChangedEvent.of(saved.getBoardLocation(), BoardSource.CONFIG));
         return saved;
     }
 
@@ -80,6 +91,7 @@ public class BoardService {
 
         BoardConfig saved = boardConfigRepository.save(existing);
         log.info("Updated board config for location: {}", boardLocation);
+        eventPublisher.publishEvent(BoardContentChangedEvent.of(boardLocation, BoardSource.CONFIG));
         return saved;
     }
 
@@ -154,6 +166,7 @@ public class BoardService {
 
         WeeklyContent saved = weeklyContentRepository.save(content);
         log.info("Saved weekly content for week {} of {}", request.getWeekNumber(), request.getYear());
+        eventPublisher.publishEvent(BoardContentChangedEvent.all(BoardSource.WEEKLY_CONTENT));
         return saved;
     }
 
@@ -169,6 +182,7 @@ public class BoardService {
         }
         weeklyContentRepository.deleteById(weekId);
         log.info("Deleted weekly content for week {} of {}", weekNumber, year);
+        eventPublisher.publishEvent(BoardContentChangedEvent.all(BoardSource.WEEKLY_CONTENT));
     }
 
     // ==================== Event Operations ====================
@@ -200,18 +214,19 @@ public class BoardService {
 
     /**
      * Get upcoming events for a specific board location.
-     * Returns events with startTimestamp >= now.
+     * Returns events with startTimestamp >= now. Served from the in-memory EventIndex.
      */
     public List<Event> getUpcomingEventsForBoard(BoardLocation boardLocation) {
         long nowTimestamp = Instant.now().toEpochMilli();
-        return eventRepository.findUpcomingByAudienceOrBoth(boardLocation.audience(), nowTimestamp, SORT_BY_START_TIMESTAMP_ASC);
+        return eventIndex.startingFrom(boardLocation.audience(), nowTimestamp);
     }
 
     /**
-     * Get events for a specific board within a time range.
+     * Get events for a specific board within a time range. Served from the in-memory EventIndex;
+     * recurring series come back as their occurrences within the range.
      */
     public List<Event> getEventsForBoardInRange(BoardLocation boardLocation, long rangeStart, long rangeEnd) {
-        return eventRepository.findOverlappingForAudienceOrBoth(boardLocation.audience(), rangeStart, rangeEnd, SORT_BY_START_TIMESTAMP_ASC);
+        return eventIndex.overlapping(boardLocation.audience(), rangeStart, rangeEnd);
     }
 
     /**
@@ -221,16 +236,26 @@ public class BoardService {
         if (event.getId() == null) {
             event.setId(UUID.randomUUID());
         }
+        validateRecurrence(event);
         Event saved = eventRepository.save(event);
+        eventIndex.put(saved);
         log.info("Created event: id={}, name={}", saved.getId(), saved.getName());
+        eventPublisher.publishEvent(BoardContentChangedEvent.forAudiences(BoardSource.EVENTS, saved.getAudience()));
         return saved;
     }
 
     /**
      * Update an existing event.
+     *
+     * @param clearRecurrence turn a series back into a single event at its first occurrence
      */
-    public Event updateEvent(UUID eventId, Event updates) {
+    public Event updateEvent(UUID eventId, Event updates, boolean clearRecurrence) {
+        if (clearRecurrence && updates.getRecurrence() != null) {
+            throw new ApiResponseException(HttpStatus.BAD_REQUEST,
+                    ErrorResponse.of("Give either a recurrence or clearRecurrence, not both"));
+        }
         Event existing = getEventById(eventId);
+        Audience previousAudience = existing.getAudience();
 
         Patch.apply(updates.getName(), existing::setName);
         Patch.apply(updates.getDescription(), existing::setDescription);
@@ -239,9 +264,16 @@ public class BoardService {
         Patch.apply(updates.getEndTimestamp(), existing::setEndTimestamp);
         Patch.apply(updates.getAllDay(), existing::setAllDay);
         Patch.apply(updates.getAudience(), existing::setAudience);
+        Patch.apply(updates.getRecurrence(), existing::setRecurrence);
+        if (clearRecurrence) {
+            existing.setRecurrence(null);
+        }
+        validateRecurrence(existing);
 
         Event saved = eventRepository.save(existing);
+        eventIndex.put(saved);
         log.info("Updated event: id={}", eventId);
+        eventPublisher.publishEvent(BoardContentChangedEvent.forAudiences(BoardSource.EVENTS, previousAudience, saved.getAudience()));
         return saved;
     }
 
@@ -251,7 +283,44 @@ public class BoardService {
     public void deleteEvent(UUID eventId) {
         Event event = getEventById(eventId);
         eventRepository.delete(event);
+        eventIndex.remove(eventId);
         log.info("Deleted event: id={}", eventId);
+        eventPublisher.publishEvent(BoardContentChangedEvent.forAudiences(BoardSource.EVENTS, event.getAudience()));
+    }
+
+    /**
+     * Checks the rules bean validation can't express on a single field.
+     */
+    private static void validateRecurrence(Event event) {
+        Recurrence recurrence = event.getRecurrence();
+        if (recurrence == null) {
+            return;
+        }
+        String problem = null;
+        if (recurrence.getFrequency() == null) {
+            problem = "Recurrence frequency is required";
+        } else if (event.getStartTimestamp() == null) {
+            problem = "A recurring event needs a start timestamp";
+        } else if (recurrence.getUntil() != null && recurrence.getCount() != null) {
+            problem = "Recurrence may have an until date or a count, not both";
+        } else if (recurrence.getByDay() != null && !recurrence.getByDay().isEmpty()
+                && recurrence.getFrequency() != Recurrence.Frequency.WEEKLY) {
+            problem = "Recurrence byDay only applies to WEEKLY events";
+        } else if (recurrence.getTimezone() != null && !isValidZone(recurrence.getTimezone())) {
+            problem = "Unknown recurrence timezone: " + recurrence.getTimezone();
+        }
+        if (problem != null) {
+            throw new ApiResponseException(HttpStatus.BAD_REQUEST, ErrorResponse.of(problem));
+        }
+    }
+
+    private static boolean isValidZone(String zone) {
+        try {
+            ZoneId.of(zone);
+            return true;
+        } catch (DateTimeException e) {
+            return false;
+        }
     }
 
 }
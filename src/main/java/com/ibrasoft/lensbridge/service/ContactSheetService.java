@@ -0,0 +1,362 @@
+package com.ibrasoft.lensbridge.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.ibrasoft.lensbridge.dto.response.ContactSheetDto;
+import com.ibrasoft.lensbridge.exception.ImageProcessingException;
+import com.ibrasoft.lensbridge.model.upload.Upload;
+import com.ibrasoft.lensbridge.model.upload.UploadType;
+import com.ibrasoft.lensbridge.repository.UploadRepository;
+import com.ibrasoft.lensbridge.service.media.DecodeBudget;
+import com.ibrasoft.lensbridge.service.storage.StorageBackend;
+import com.ibrasoft.lensbridge.service.storage.StorageObject;
+import com.ibrasoft.lensbridge.service.storage.StoredObjectInfo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.coobird.thumbnailator.Thumbnails;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Composes the thumbnails of a page of pending uploads into a single sprite-sheet JPEG,
+ * so the moderation grid needs one image fetch per page instead of one per upload.
+ *
+ * Sheets are keyed by a hash of the page content (upload IDs and thumbnail ETags, in order),
+ * stored under contact-sheets/ with their tile layout next to them as JSON, and built on the
+ * async task executor. Concurrent requests for the same page share one build, and a sheet
+ * already in storage (built before a restart, or by another instance) is reused rather than
+ * rebuilt. A sheet with tiles that couldn't be read is served once under a one-off key and
+ * not reused; those uploads are reported as missing.
+ *
+ * Sheets are reused until they are half of moderation.contact-sheet.retention old, and an
+ * hourly sweep deletes stored sheets older than the retention, so a presigned URL stays
+ * valid for at least half of it.
+ */
+@Service
+@Slf4j
+public class ContactSheetService {
+
+    private static final String SHEET_FOLDER = "contact-sheets/";
+    private static final Color BACKGROUND = new Color(0x20, 0x20, 0x20);
+    private static final Duration SWEEP_INTERVAL = Duration.ofHours(1);
+
+    private final UploadRepository uploadRepository;
+    private final StorageBackend storageBackend;
+    private final R2StorageService r2StorageService;
+    private final LazyThumbnailService lazyThumbnailService;
+    private final DecodeBudget decodeBudget;
+    private final Executor mediaExecutor;
+    private final ObjectMapper objectMapper;
+    private final AsyncCache<String, Sheet> sheets;
+    private final Duration retention;
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("contact-sheet-sweep").daemon().factory());
+
+    @Value("${moderation.contact-sheet.tile-size:160}")
+    private int tileSize;
+
+    @Value("${moderation.contact-sheet.columns:10}")
+    private int columns;
+
+    @Value("${moderation.contact-sheet.quality:0.8}")
+    private double quality;
+
+    @Value("${moderation.contact-sheet.build-timeout:60s}")
+    private Duration buildTimeout;
+
+    @Value("${thumbnail.width:400}")
+    private int thumbnailWidth;
+
+    @Value("${thumbnail.height:400}")
+    private int thumbnailHeight;
+
+    public ContactSheetService(UploadRepository uploadRepository,
+                               StorageBackend storageBackend,
+                               R2StorageService r2StorageService,
+                               LazyThumbnailService lazyThumbnailService,
+                               DecodeBudget decodeBudget,
+                               @Qualifier("applicationTaskExecutor") Executor mediaExecutor,
+                               ObjectMapper objectMapper,
+                               @Value("${moderation.contact-sheet.retention:24h}") Duration retention) {
+        this.uploadRepository = uploadRepository;
+        this.storageBackend = storageBackend;
+        this.r2StorageService = r2StorageService;
+        this.lazyThumbnailService = lazyThumbnailService;
+        this.decodeBudget = decodeBudget;
+        this.mediaExecutor = mediaExecutor;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        this.sheets = Caffeine.newBuilder()
+                .maximumSize(500)
+                .expireAfter(new Expiry<String, Sheet>() {
+                    // Until the sheet is half the retention old, however long ago it was stored
+                    @Override
+                    public long expireAfterCreate(String key, Sheet sheet, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), reusableUntil(sheet)).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Sheet sheet, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, sheet, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Sheet sheet, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .buildAsync();
+    }
+
+    @PostConstruct
+    public void scheduleSweep() {
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL.toMinutes(), SWEEP_INTERVAL.toMinutes(), TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stopSweep() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Delete stored sheets older than the retention. Pages change as uploads are moderated,
+     * so most sheets are never requested again.
+     */
+    void sweep() {
+        try {
+            Instant cutoff = Instant.now().minus(retention);
+            List<String> expired = new ArrayList<>();
+            for (StoredObjectInfo object : storageBackend.list(SHEET_FOLDER)) {
+                if (object.lastModified() != null && object.lastModified().isBefore(cutoff)) {
+                    expired.add(object.key());
+                }
+            }
+            if (!expired.isEmpty()) {
+                int deleted = storageBackend.deleteAll(expired);
+                log.info("Deleted {} expired contact sheets", deleted);
+            }
+        } catch (RuntimeException e) {
+            // Next sweep tries again
+            log.warn("Contact sheet sweep failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Build (or reuse) the contact sheet for a page of pending uploads.
+     */
+    public ContactSheetDto getPendingContactSheet(Pageable pageable) {
+        List<Upload> page = uploadRepository.findByApproved(false, pageable).getContent();
+
+        List<Upload> withThumbnails = new ArrayList<>();
+        List<UUID> missing = new ArrayList<>();
+        for (Upload upload : page) {
+            if (upload.getThumbnailUrl() != null && !upload.getThumbnailUrl().isBlank()) {
+                withThumbnails.add(upload);
+            } else {
+                missing.add(upload.getUuid());
+                if (upload.getContentType() == UploadType.IMAGE) {
+                    lazyThumbnailService.requestThumbnail(upload);
+                }
+            }
+        }
+
+        String hash = contentHash(withThumbnails);
+        if (withThumbnails.isEmpty()) {
+            return ContactSheetDto.builder()
+                    .hash(hash)
+                    .tileSize(tileSize)
+                    .tiles(List.of())
+                    .missing(missing)
+                    .build();
+        }
+
+        Sheet sheet;
+        CompletableFuture<Sheet> build = sheets.get(hash, (key, executor) -> CompletableFuture.supplyAsync(
+                () -> storedSheet(key).orElseGet(() -> buildSheet(key, withThumbnails)), mediaExecutor));
+        try {
+            sheet = build.get(buildTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            throw new ImageProcessingException("Failed to build contact sheet", e);
+        }
+        if (!sheet.failed().isEmpty()) {
+            // Don't reuse an incomplete sheet; the next request tries those tiles again
+            sheets.asMap().remove(hash, build);
+            missing.addAll(sheet.failed());
+        }
+
+        return ContactSheetDto.builder()
+                .url(r2StorageService.getSecureUrl(sheet.objectKey(), false, true))
+                .hash(hash)
+                .width(sheet.width())
+                .height(sheet.height())
+                .tileSize(tileSize)
+                .tiles(sheet.tiles())
+                .missing(missing)
+                .build();
+    }
+
+    /**
+     * The complete sheet for this hash already in storage, if it is young enough to reuse.
+     */
+    private Optional<Sheet> storedSheet(String hash) {
+        String objectKey = SHEET_FOLDER + hash + ".jpg";
+        String layoutKey = SHEET_FOLDER + hash + ".json";
+        try {
+            Optional<StoredObjectInfo> stored = storageBackend.head(objectKey);
+            if (stored.isEmpty() || stored.get().lastModified() == null
+                    || !Instant.now().isBefore(stored.get().lastModified().plus(retention.dividedBy(2)))) {
+                return Optional.empty();
+            }
+            Sheet layout = objectMapper.readValue(storageBackend.getBytes(layoutKey), Sheet.class);
+            log.debug("Reusing stored contact sheet {}", objectKey);
+            // Aged from the JPEG's stored time, which is what the sweep goes by
+            return Optional.of(new Sheet(objectKey, layout.width(), layout.height(), layout.tiles(), List.of(),
+                    stored.get().lastModified()));
+        } catch (Exception e) {
+            // Rebuilding is always correct
+            log.warn("Could not read stored contact sheet {}: {}", layoutKey, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Instant reusableUntil(Sheet sheet) {
+        return sheet.storedAt().plus(retention.dividedBy(2));
+    }
+
+    private Sheet buildSheet(String hash, List<Upload> uploads) {
+        int cols = Math.max(1, Math.min(columns, uploads.size()));
+        int rows = Math.max(1, (uploads.size() + cols - 1) / cols);
+        int width = cols * tileSize;
+        int height = rows * tileSize;
+
+        // Canvas plus one decoded thumbnail at a time
+        long budgetBytes = (long) width * height * 4 + (long) thumbnailWidth * thumbnailHeight * 4;
+        DecodeBudget.Reservation reservation = decodeBudget.reserve(budgetBytes);
+        try {
+            BufferedImage canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            List<ContactSheetDto.Tile> tiles = new ArrayList<>();
+            List<UUID> failed = new ArrayList<>();
+            Graphics2D g = canvas.createGraphics();
+            try {
+                g.setColor(BACKGROUND);
+                g.fillRect(0, 0, width, height);
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+
+                for (int i = 0; i < uploads.size(); i++) {
+                    Upload upload = uploads.get(i);
+                    BufferedImage thumbnail = readThumbnail(upload.getThumbnailUrl());
+                    if (thumbnail == null) {
+                        failed.add(upload.getUuid());
+                        continue;
+                    }
+
+                    double scale = Math.min((double) tileSize / thumbnail.getWidth(), (double) tileSize / thumbnail.getHeight());
+                    int w = Math.max(1, (int) Math.round(thumbnail.getWidth() * scale));
+                    int h = Math.max(1, (int) Math.round(thumbnail.getHeight() * scale));
+                    int x = (i % cols) * tileSize + (tileSize - w) / 2;
+                    int y = (i / cols) * tileSize + (tileSize - h) / 2;
+                    g.drawImage(thumbnail, x, y, w, h, null);
+                    tiles.add(new ContactSheetDto.Tile(upload.getUuid(), x, y, w, h));
+                }
+            } finally {
+                g.dispose();
+            }
+
+            // An incomplete sheet must not take the key a complete one would be reused under
+            String objectKey = failed.isEmpty()
+                    ? SHEET_FOLDER + hash + ".jpg"
+                    : SHEET_FOLDER + hash + "-partial-" + UUID.randomUUID() + ".jpg";
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Thumbnails.of(canvas)
+                    .scale(1.0)
+                    .outputQuality(quality)
+                    .outputFormat("jpg")
+                    .toOutputStream(out);
+            byte[] bytes = out.toByteArray();
+            StoredObjectInfo stored = storageBackend.put(objectKey, bytes, "image/jpeg");
+            Sheet sheet = new Sheet(objectKey, width, height, List.copyOf(tiles), List.copyOf(failed),
+                    stored.lastModified() != null ? stored.lastModified() : Instant.now());
+            if (failed.isEmpty()) {
+                storeLayout(hash, sheet);
+            }
+
+            log.info("Built contact sheet {} ({} tiles, {}x{}, {} bytes)", objectKey, tiles.size(), width, height, bytes.length);
+            return sheet;
+        } catch (ImageProcessingException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ImageProcessingException("Failed to build contact sheet " + hash, e);
+        } finally {
+            reservation.close();
+        }
+    }
+
+    /**
+     * Written after the JPEG, so a layout in storage always has its sheet.
+     */
+    private void storeLayout(String hash, Sheet sheet) {
+        try {
+            storageBackend.put(SHEET_FOLDER + hash + ".json", objectMapper.writeValueAsBytes(sheet), "application/json");
+        } catch (Exception e) {
+            // Only costs a rebuild elsewhere
+            log.warn("Could not store the layout of contact sheet {}: {}", sheet.objectKey(), e.getMessage());
+        }
+    }
+
+    private BufferedImage readThumbnail(String thumbnailKey) {
+        try (StorageObject object = storageBackend.get(thumbnailKey)) {
+            return ImageIO.read(object.body());
+        } catch (Exception e) {
+            log.warn("Skipping thumbnail {} in contact sheet: {}", thumbnailKey, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Hash of everything that affects the rendered sheet. Any approval, deletion or
+     * regenerated thumbnail on the page changes it (the thumbnail key is stable, its ETag
+     * is not), so stale sheets are never reused.
+     */
+    private String contentHash(List<Upload> uploads) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((tileSize + ":" + columns + ":" + quality).getBytes(StandardCharsets.UTF_8));
+            for (Upload upload : uploads) {
+                digest.update(('|' + upload.getUuid().toString() + '=' + upload.getThumbnailUrl()
+                        + '@' + upload.getThumbnailETag()).getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Sheet(String objectKey, int width, int height, List<ContactSheetDto.Tile> tiles, List<UUID> failed,
+                         Instant storedAt) {}
+}
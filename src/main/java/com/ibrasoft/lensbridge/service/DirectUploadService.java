@@ -25,7 +25,7 @@ public class DirectUploadService {
     private final R2StorageService r2StorageService;
     private final UploadProperties uploadProperties;
     private final EventsService eventsService;
-    private final ThumbnailService thumbnailService;
+    private final LazyThumbnailService lazyThumbnailService;
 
     public PresignedUploadResponse createPresignedUpload(
             UUID eventId,
@@ -136,8 +136,7 @@ public class DirectUploadService {
                 userId);
 
         if (contentType != null && contentType.startsWith("image")) {
-            thumbnailService.generateThumbnailAsync(upload.getUuid(), objectKey);
-            log.debug("Triggered async thumbnail generation for upload: {}", upload.getUuid());
+            lazyThumbnailService.generateForNewUpload(upload.getUuid(), objectKey);
         }
 
         UploadCompletionResponse response = UploadCompletionResponse.builder()
@@ -24,6 +24,8 @@ public class GalleryService {
     private final UserService userService;
     private final EventsRepository eventsRepository;
     private final R2StorageService r2StorageService;
+    private final LazyThumbnailService lazyThumbnailService;
+    private final MediaStreamService mediaStreamService;
 
     /**
      * Get all approved gallery items with secure URLs for public access.
@@ -82,19 +84,11 @@ public class GalleryService {
         
         // Basic info
         item.setId(upload.getUuid().toString());
-        
-        // Generate secure URL instead of using direct R2 URL
-        try {
-            String objectKey = r2StorageService.extractObjectKeyFromUrl(upload.getFileUrl());
-            String secureUrl = r2StorageService.getSecureUrl(objectKey, upload.isApproved(), isAdmin);
-            item.setSrc(secureUrl);
-        } catch (SecurityException e) {
-            log.warn("Access denied for upload {}: {}", upload.getUuid(), e.getMessage());
-            item.setSrc(null); // Don't provide URL if access is denied
-        } catch (Exception e) {
-            log.error("Failed to generate secure URL for upload {}: {}", upload.getUuid(), e.getMessage());
-            item.setSrc(null); // Don't provide URL if generation fails
-        }
+
+        // Reference mode: stable /api/media links, signed only when actually fetched.
+        // Unapproved items keep signed URLs since <img> requests can't carry the admin's token.
+        boolean useReferences = mediaStreamService.isReferenceMode() && upload.isApproved();
+        item.setSrc(useReferences ? mediaStreamService.srcReference(upload.getUuid()) : generateSecureSrc(upload, isAdmin));
         
         item.setTitle(upload.getUploadDescription() != null ? upload.getUploadDescription() : "Untitled");
         item.setFeatured(upload.isFeatured());
@@ -109,7 +103,7 @@ public class GalleryService {
         }
 
         // Generate secure thumbnail using the stored thumbnail key
-        String thumbnail = generateSecureThumbnail(upload, isAdmin);
+        String thumbnail = useReferences ? thumbnailReference(upload) : generateSecureThumbnail(upload, isAdmin);
         item.setThumbnail(thumbnail);
         
         String eventName = getEventName(upload.getEventId());
@@ -118,13 +112,32 @@ public class GalleryService {
         // Format date
         String date = formatDate(upload);
         item.setDate(date);
+
+        item.applyImageMetadata(upload);
         
         return item;
     }
 
+    /**
+     * Generate a secure time-limited URL for the original, or null if access is denied or signing fails.
+     */
+    private String generateSecureSrc(Upload upload, boolean isAdmin) {
+        try {
+            String objectKey = r2StorageService.extractObjectKeyFromUrl(upload.getFileUrl());
+            return r2StorageService.getSecureUrl(objectKey, upload.isApproved(), isAdmin);
+        } catch (SecurityException e) {
+            log.warn("Access denied for upload {}: {}", upload.getUuid(), e.getMessage());
+            return null; // Don't provide URL if access is denied
+        } catch (Exception e) {
+            log.error("Failed to generate secure URL for upload {}: {}", upload.getUuid(), e.getMessage());
+            return null; // Don't provide URL if generation fails
+        }
+    }
+
     /**
      * Generate secure thumbnail URL with access control.
-     * Uses the stored thumbnail key if available, otherwise falls back to original image.
+     * Uses the stored thumbnail key if available, otherwise queues generation and
+     * returns a placeholder. The original is never served as a thumbnail.
      */
     private String generateSecureThumbnail(Upload upload, boolean isAdmin) {
         if (upload == null || upload.getFileUrl() == null) return null;
@@ -136,9 +149,8 @@ public class GalleryService {
                 return r2StorageService.getSecureThumbnailUrl(thumbnailKey, upload.isApproved(), isAdmin);
             }
             
-            // Fallback: use original image URL as thumbnail
-            String objectKey = r2StorageService.extractObjectKeyFromUrl(upload.getFileUrl());
-            return r2StorageService.getSecureUrl(objectKey, upload.isApproved(), isAdmin);
+            lazyThumbnailService.requestThumbnail(upload);
+            return lazyThumbnailService.getPlaceholderUrl();
         } catch (SecurityException e) {
             log.warn("Access denied for thumbnail: {}", e.getMessage());
             return null;
@@ -148,6 +160,15 @@ public class GalleryService {
         }
     }
 
+    private String thumbnailReference(Upload upload) {
+        String thumbnailKey = upload.getThumbnailUrl();
+        if (thumbnailKey != null && !thumbnailKey.isBlank()) {
+            return mediaStreamService.thumbReference(upload.getUuid());
+        }
+        lazyThumbnailService.requestThumbnail(upload);
+        return lazyThumbnailService.getPlaceholderUrl();
+    }
+
     private String getEventName(UUID eventId) {
         if (eventId == null) return "General";
         
@@ -0,0 +1,118 @@
+package com.ibrasoft.lensbridge.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ibrasoft.lensbridge.model.upload.Upload;
+import com.ibrasoft.lensbridge.model.upload.UploadType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Repairs missing thumbnails at read time. When a gallery or admin listing hits an
+ * upload without a thumbnail (failed async job, legacy row), generation is queued
+ * here and a placeholder is served until it lands. Concurrent requests for the same
+ * upload share one job; uploads that just failed are not retried until the
+ * cool-down expires, so a corrupt file can't turn every page view into a decode.
+ *
+ * Fresh uploads queue their first thumbnail through here too, so a listing that sees the
+ * upload before that job finishes joins it instead of starting a second one.
+ */
+@Service
+@Slf4j
+public class LazyThumbnailService {
+
+    // 1x1 neutral grey GIF; clients draw the blurHash over it when they have one
+    private static final String DEFAULT_PLACEHOLDER =
+            "data:image/gif;base64,R0lGODlhAQABAIAAAMLCwgAAACH5BAAAAAAALAAAAAABAAEAAAICRAEAOw==";
+
+    private final ThumbnailService thumbnailService;
+    private final R2StorageService r2StorageService;
+    private final String placeholderUrl;
+
+    private final Map<UUID, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<UUID, Boolean> recentFailures;
+
+    public LazyThumbnailService(
+            ThumbnailService thumbnailService,
+            R2StorageService r2StorageService,
+            @Value("${thumbnail.placeholder-url:}") String placeholderUrl,
+            @Value("${thumbnail.lazy.retry-after:10m}") Duration retryAfter) {
+        this.thumbnailService = thumbnailService;
+        this.r2StorageService = r2StorageService;
+        this.placeholderUrl = placeholderUrl == null || placeholderUrl.isBlank() ? DEFAULT_PLACEHOLDER : placeholderUrl;
+        this.recentFailures = Caffeine.newBuilder()
+                .expireAfterWrite(retryAfter)
+                .maximumSize(10_000)
+                .build();
+    }
+
+    /**
+     * URL to show in place of a missing thumbnail. Never the original.
+     */
+    public String getPlaceholderUrl() {
+        return placeholderUrl;
+    }
+
+    /**
+     * Queue thumbnail generation for an upload that has none. No-op for non-images,
+     * uploads already being generated, and uploads that failed recently.
+     */
+    public void requestThumbnail(Upload upload) {
+        if (upload == null || upload.getContentType() != UploadType.IMAGE || upload.getFileUrl() == null) {
+            return;
+        }
+        UUID uploadId = upload.getUuid();
+        if (recentFailures.getIfPresent(uploadId) != null) {
+            return;
+        }
+        if (queue(uploadId, () -> r2StorageService.extractObjectKeyFromUrl(upload.getFileUrl()))) {
+            log.info("Thumbnail missing for upload {}, queued on-demand generation", uploadId);
+        }
+    }
+
+    /**
+     * Queue the first thumbnail of an image that was just uploaded.
+     */
+    public void generateForNewUpload(UUID uploadId, String objectKey) {
+        if (queue(uploadId, () -> objectKey)) {
+            log.debug("Queued thumbnail generation for new upload {}", uploadId);
+        }
+    }
+
+    /**
+     * @return false if a job for the upload was already running
+     */
+    private boolean queue(UUID uploadId, Supplier<String> objectKeySupplier) {
+        CompletableFuture<Void> marker = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(uploadId, marker) != null) {
+            return false; // someone else already queued it
+        }
+
+        try {
+            String objectKey = objectKeySupplier.get();
+            thumbnailService.generateThumbnailAsync(uploadId, objectKey)
+                    .whenComplete((ignored, error) -> finish(uploadId, marker, error));
+        } catch (Exception e) {
+            // Executor rejected the job or the key couldn't be resolved
+            finish(uploadId, marker, e);
+        }
+        return true;
+    }
+
+    private void finish(UUID uploadId, CompletableFuture<Void> marker, Throwable error) {
+        if (error != null) {
+            recentFailures.put(uploadId, Boolean.TRUE);
+            log.warn("On-demand thumbnail for upload {} failed; not retrying for a while", uploadId);
+        }
+        inFlight.remove(uploadId, marker);
+        marker.complete(null);
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.stereotype.Service;
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.*;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class MediaConversionService {
@@ -17,11 +19,38 @@ public class MediaConversionService {
 
     private static String magickExecutable;
 
+    private static Duration magickTimeout = Duration.ofMinutes(1);
+
+    @Value("${resilience.processes.ffmpeg:10m}")
+    private Duration ffmpegTimeout;
+
+    @Value("${resilience.processes.ffprobe:30s}")
+    private Duration ffprobeTimeout;
+
     @Value("${conversion.magick.executable:magick}")
     public void setMagickExecutable(String magickExecutable) {
         MediaConversionService.magickExecutable = magickExecutable;
     }
 
+    @Value("${resilience.processes.magick:1m}")
+    public void setMagickTimeout(Duration magickTimeout) {
+        MediaConversionService.magickTimeout = magickTimeout;
+    }
+
+    /**
+     * Wait for an external tool, killing it if it runs past the timeout.
+     *
+     * @return the exit code, or -1 if the process was killed
+     */
+    private static int waitFor(Process process, Duration timeout) throws InterruptedException {
+        if (process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            return process.exitValue();
+        }
+        process.destroyForcibly();
+        process.waitFor(5, TimeUnit.SECONDS);
+        return -1;
+    }
+
     /**
      * Converts a HEIC image to JPEG using ImageMagick.
      *
@@ -47,11 +76,16 @@ public class MediaConversionService {
         );
 
         pb.redirectErrorStream(true);
+        // Nobody reads the output; a full pipe would stall the process until the timeout
+        pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
         Process process = pb.start();
 
         // wait for da fork
         // For the CSC209 Students, this is the equivalent of waitpid ;P
-        int exitCode = process.waitFor();
+        int exitCode = waitFor(process, magickTimeout);
+        if (exitCode == -1) {
+            throw new ImageProcessingException("ImageMagick timed out after " + magickTimeout);
+        }
         if (exitCode != 0) {
             throw new ImageProcessingException("ImageMagick failed with exit code " + exitCode);
         }
@@ -88,10 +122,14 @@ public class MediaConversionService {
         );
 
         Process process = pb.inheritIO().start();
-        int exitCode = process.waitFor();
+        int exitCode = waitFor(process, ffmpegTimeout);
 
         inputFile.delete();
 
+        if (exitCode == -1) {
+            outputFile.delete();
+            throw new VideoProcessingException("FFmpeg timed out after " + ffmpegTimeout);
+        }
         if (exitCode != 0) {
             outputFile.delete();
             throw new VideoProcessingException("FFmpeg failed with exit code " + exitCode);
@@ -110,9 +148,10 @@ public class MediaConversionService {
         );
 
         Process process = pb.start();
+        // ffprobe prints a single line, so waiting before reading can't fill the pipe
+        int exitCode = waitFor(process, ffprobeTimeout);
         BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-        String line = reader.readLine();
-        int exitCode = process.waitFor();
+        String line = exitCode == 0 ? reader.readLine() : null;
 
         if (exitCode != 0 || line == null) {
             throw new VideoProcessingException("Failed to get video duration");
@@ -0,0 +1,174 @@
+package com.ibrasoft.lensbridge.service;
+
+import com.ibrasoft.lensbridge.dto.response.ErrorResponse;
+import com.ibrasoft.lensbridge.exception.ApiResponseException;
+import com.ibrasoft.lensbridge.exception.ImageProcessingException;
+import com.ibrasoft.lensbridge.model.upload.Upload;
+import com.ibrasoft.lensbridge.model.upload.UploadType;
+import com.ibrasoft.lensbridge.repository.UploadRepository;
+import com.ibrasoft.lensbridge.service.media.DerivativeSpec;
+import com.ibrasoft.lensbridge.service.media.ImageMetadata;
+import com.ibrasoft.lensbridge.service.storage.StorageBackend;
+import com.ibrasoft.lensbridge.service.storage.StorageObject;
+import com.ibrasoft.lensbridge.service.storage.StorageObjectNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import net.coobird.thumbnailator.Thumbnails;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Serves resized variants of uploads. Requested sizes are snapped to a fixed set
+ * (media.derivatives.sizes); each variant is computed once, written back to storage under
+ * derivatives/{uploadId}/ and read from there afterwards, so every size/upload pair is
+ * generated once across all instances. Concurrent misses on one instance share a single
+ * resize.
+ */
+@Service
+@Slf4j
+public class MediaDerivativeService {
+
+    private final UploadRepository uploadRepository;
+    private final ThumbnailService thumbnailService;
+    private final R2StorageService r2StorageService;
+    private final StorageBackend storageBackend;
+    private final List<Integer> allowedSizes;
+
+    private final Map<String, CompletableFuture<Derivative>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${media.derivatives.quality:0.85}")
+    private double quality;
+
+    public MediaDerivativeService(UploadRepository uploadRepository,
+                                  ThumbnailService thumbnailService,
+                                  R2StorageService r2StorageService,
+                                  StorageBackend storageBackend,
+                                  @Value("${media.derivatives.sizes:160,320,400,640,800,1280,1920}") int[] sizes) {
+        this.uploadRepository = uploadRepository;
+        this.thumbnailService = thumbnailService;
+        this.r2StorageService = r2StorageService;
+        this.storageBackend = storageBackend;
+        this.allowedSizes = Arrays.stream(sizes).sorted().boxed().toList();
+    }
+
+    /**
+     * Get a derivative of an upload, generating and storing it on first request.
+     *
+     * @param isAdmin admins may fetch derivatives of unapproved uploads
+     * @throws ApiResponseException 400 for bad parameters or non-image uploads, 403 / 404 on access
+     */
+    public Derivative getDerivative(UUID uploadId, Integer width, Integer height, String fit, boolean isAdmin) {
+        Upload upload = uploadRepository.findById(uploadId)
+                .orElseThrow(() -> new ApiResponseException(HttpStatus.NOT_FOUND, ErrorResponse.of("Upload not found"), "Upload not found"));
+        if (!upload.isApproved() && !isAdmin) {
+            throw new ApiResponseException(HttpStatus.FORBIDDEN, ErrorResponse.of("Access denied"), "Upload not approved");
+        }
+        if (upload.getContentType() != UploadType.IMAGE) {
+            throw new ApiResponseException(HttpStatus.BAD_REQUEST, ErrorResponse.of("Resizing is only supported for images"), "Not an image");
+        }
+
+        DerivativeSpec spec;
+        try {
+            spec = DerivativeSpec.snap(width, height, fit, allowedSizes);
+        } catch (IllegalArgumentException e) {
+            throw new ApiResponseException(HttpStatus.BAD_REQUEST, ErrorResponse.of("Invalid size parameters: " + e.getMessage()), e.getMessage());
+        }
+
+        String key = spec.objectKey(uploadId);
+        Derivative stored = readStored(key);
+        if (stored != null) {
+            return stored;
+        }
+
+        CompletableFuture<Derivative> mine = new CompletableFuture<>();
+        CompletableFuture<Derivative> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return await(existing, key);
+        }
+        try {
+            mine.complete(generate(upload, spec, key));
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, mine);
+        }
+        return await(mine, key);
+    }
+
+    private Derivative readStored(String key) {
+        try (StorageObject object = storageBackend.get(key)) {
+            return new Derivative(key, object.body().readAllBytes(), object.info().eTag());
+        } catch (StorageObjectNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read derivative " + key, e);
+        }
+    }
+
+    private Derivative generate(Upload upload, DerivativeSpec spec, String key) {
+        String originalKey = r2StorageService.extractObjectKeyFromUrl(upload.getFileUrl());
+        try {
+            byte[] originalBytes = storageBackend.getBytes(originalKey);
+            ImageMetadata metadata = ImageMetadata.extract(originalBytes);
+
+            int boxWidth = spec.width();
+            int boxHeight = spec.height();
+            boolean crop = spec.fit() == DerivativeSpec.Fit.COVER;
+            if (!crop && metadata.displayWidth() != null && metadata.displayHeight() != null
+                    && metadata.displayWidth() <= boxWidth && metadata.displayHeight() <= boxHeight) {
+                // Never upscale: the original already fits, re-encode at its own size
+                boxWidth = metadata.displayWidth();
+                boxHeight = metadata.displayHeight();
+            }
+
+            BufferedImage resized = thumbnailService.resize(originalBytes, metadata, boxWidth, boxHeight, crop);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Thumbnails.of(resized)
+                    .scale(1.0)
+                    .outputQuality(quality)
+                    .outputFormat("jpg")
+                    .toOutputStream(out);
+            byte[] bytes = out.toByteArray();
+
+            String eTag = storageBackend.put(key, bytes, "image/jpeg").eTag();
+
+            log.info("Generated derivative {} from {} ({} bytes)", key, originalKey, bytes.length);
+            return new Derivative(key, bytes, eTag);
+        } catch (ImageProcessingException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ImageProcessingException("Failed to generate derivative " + key, e);
+        }
+    }
+
+    private Derivative await(CompletableFuture<Derivative> future, String key) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImageProcessingException("Interrupted while generating derivative " + key, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new ImageProcessingException("Failed to generate derivative " + key, e.getCause());
+        }
+    }
+
+    /**
+     * An encoded JPEG derivative and its storage ETag.
+     */
+    public record Derivative(String objectKey, byte[] bytes, String eTag) {}
+}
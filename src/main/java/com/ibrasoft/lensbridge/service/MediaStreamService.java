@@ -0,0 +1,128 @@
+package com.ibrasoft.lensbridge.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ibrasoft.lensbridge.dto.response.ErrorResponse;
+import com.ibrasoft.lensbridge.exception.ApiResponseException;
+import com.ibrasoft.lensbridge.model.upload.Upload;
+import com.ibrasoft.lensbridge.repository.UploadRepository;
+import com.ibrasoft.lensbridge.service.media.LocalMediaCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Resolves an upload's original or thumbnail for direct serving, applying the same access
+ * rule as {@link R2StorageService#getSecureUrl}: approved content is public, unapproved
+ * content is admin-only.
+ *
+ * Also builds the stable media references (/api/media/{id}/src|thumb) that listings hand
+ * out when gallery.media-references is on, so URLs are only signed for media that is
+ * actually viewed. Presigned URLs are reused for half their lifetime.
+ */
+@Service
+public class MediaStreamService {
+
+    private final UploadRepository uploadRepository;
+    private final R2StorageService r2StorageService;
+    private final LazyThumbnailService lazyThumbnailService;
+    private final LocalMediaCache localMediaCache;
+    private final boolean referencesEnabled;
+    private final String referenceBaseUrl;
+    private final Duration presignReuse;
+    private final Cache<String, String> presignedUrls;
+
+    public MediaStreamService(UploadRepository uploadRepository,
+                              R2StorageService r2StorageService,
+                              LazyThumbnailService lazyThumbnailService,
+                              LocalMediaCache localMediaCache,
+                              @Value("${gallery.media-references:false}") boolean referencesEnabled,
+                              @Value("${gallery.media-base-url:}") String referenceBaseUrl,
+                              @Value("${cloudflare.r2.url-expiration-minutes:15}") long urlExpirationMinutes) {
+        this.uploadRepository = uploadRepository;
+        this.r2StorageService = r2StorageService;
+        this.lazyThumbnailService = lazyThumbnailService;
+        this.localMediaCache = localMediaCache;
+        this.referencesEnabled = referencesEnabled;
+        this.referenceBaseUrl = referenceBaseUrl.endsWith("/")
+                ? referenceBaseUrl.substring(0, referenceBaseUrl.length() - 1)
+                : referenceBaseUrl;
+        // A reused URL always has at least half of its validity left when handed out
+        this.presignReuse = Duration.ofMinutes(urlExpirationMinutes).dividedBy(2);
+        this.presignedUrls = Caffeine.newBuilder()
+                .expireAfterWrite(presignReuse)
+                .maximumSize(50_000)
+                .build();
+    }
+
+    /**
+     * Whether listings should carry media references instead of presigned URLs.
+     */
+    public boolean isReferenceMode() {
+        return referencesEnabled;
+    }
+
+    public String srcReference(UUID uploadId) {
+        return referenceBaseUrl + "/api/media/" + uploadId + "/src";
+    }
+
+    public String thumbReference(UUID uploadId) {
+        return referenceBaseUrl + "/api/media/" + uploadId + "/thumb";
+    }
+
+    /**
+     * How long clients may cache a redirect to a presigned URL from {@link #getSecureUrl}.
+     */
+    public Duration getRedirectMaxAge() {
+        return presignReuse.dividedBy(2);
+    }
+
+    public enum Variant { SRC, THUMB }
+
+    /**
+     * Look up the object key for a variant of an upload, enforcing access.
+     *
+     * @throws ApiResponseException 404 if the upload or its thumbnail doesn't exist, 403 if not visible
+     */
+    public ResolvedMedia resolve(UUID uploadId, Variant variant, boolean isAdmin) {
+        Upload upload = uploadRepository.findById(uploadId)
+                .orElseThrow(() -> new ApiResponseException(HttpStatus.NOT_FOUND, ErrorResponse.of("Upload not found"), "Upload not found"));
+        if (!upload.isApproved() && !isAdmin) {
+            throw new ApiResponseException(HttpStatus.FORBIDDEN, ErrorResponse.of("Access denied"), "Upload not approved");
+        }
+
+        String objectKey;
+        if (variant == Variant.THUMB) {
+            objectKey = upload.getThumbnailUrl();
+            if (objectKey == null || objectKey.isBlank()) {
+                lazyThumbnailService.requestThumbnail(upload);
+                throw new ApiResponseException(HttpStatus.NOT_FOUND, ErrorResponse.of("Thumbnail not generated yet"), "Thumbnail missing");
+            }
+        } else {
+            objectKey = r2StorageService.extractObjectKeyFromUrl(upload.getFileUrl());
+        }
+        return new ResolvedMedia(objectKey, upload.isApproved());
+    }
+
+    /**
+     * Lease on a local copy of the object, or null when the local cache is off or the object
+     * is too large. The caller closes the lease.
+     */
+    public LocalMediaCache.Lease getCached(ResolvedMedia media) {
+        return localMediaCache.get(media.objectKey());
+    }
+
+    /**
+     * Presigned URL for the object, for when it isn't served locally. Access was checked
+     * in {@link #resolve}, so the URL is cached per object key regardless of requester.
+     */
+    public String getSecureUrl(ResolvedMedia media, boolean isAdmin) {
+        return presignedUrls.get(media.objectKey(),
+                key -> r2StorageService.getSecureUrl(key, media.approved(), isAdmin));
+    }
+
+    public record ResolvedMedia(String objectKey, boolean approved) {}
+}
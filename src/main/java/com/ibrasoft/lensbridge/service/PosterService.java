@@ -6,13 +6,18 @@ import com.ibrasoft.lensbridge.dto.response.ErrorResponse;
 import com.ibrasoft.lensbridge.exception.ApiResponseException;
 import com.ibrasoft.lensbridge.model.board.BoardLocation;
 import com.ibrasoft.lensbridge.model.board.Poster;
+import com.ibrasoft.lensbridge.model.board.Audience;
+import com.ibrasoft.lensbridge.service.board.BoardContentChangedEvent;
 import com.ibrasoft.lensbridge.service.board.BoardContext;
+import com.ibrasoft.lensbridge.service.board.BoardSource;
+import com.ibrasoft.lensbridge.service.board.index.PosterIndex;
 import com.ibrasoft.lensbridge.service.board.transformer.PosterFrameTransformer;
 import com.ibrasoft.lensbridge.util.Patch;
 import com.ibrasoft.lensbridge.repository.PosterRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -30,8 +35,10 @@ import java.util.stream.Collectors;
 public class PosterService {
 
     private final PosterRepository posterRepository;
+    private final PosterIndex posterIndex;
     private final R2StorageService r2StorageService;
     private final PosterFrameTransformer posterFrameTransformer;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${cloudflare.r2.public-url}")
     private String publicUrl;
@@ -65,13 +72,19 @@ public class PosterService {
     }
 
     /**
-     * Get active posters for a specific board location as FrameDefinitions.
-     * Returns posters that are currently active (startDate <= today < endDate)
-     * and match the board's audience or BOTH.
+     * Get active posters for a specific board location.
+     * Returns posters that are active on the given date (startDate <= today < endDate),
+     * normally today in the board's timezone, and match the board's audience or BOTH.
      */
-    public List<Poster> getActivePosterFramesForBoard(BoardLocation boardLocation) {
-        LocalDate today = LocalDate.now();
-        return posterRepository.findActivePostersForAudienceAt(today, boardLocation.audience(), SORT_BY_START_DATE_DESC);
+    public List<Poster> getActivePosterFramesForBoard(BoardLocation boardLocation, LocalDate today) {
+        return posterIndex.activeAt(boardLocation.audience(), today);
+    }
+
+    /**
+     * Posters for a board that are active on at least one day from {@code from} to {@code to} inclusive.
+     */
+    public List<Poster> getPostersForBoardActiveBetween(BoardLocation boardLocation, LocalDate from, LocalDate to) {
+        return posterIndex.activeBetween(boardLocation.audience(), from, to);
     }
 
     /**
@@ -113,7 +126,9 @@ public class PosterService {
                 .build();
 
         poster = posterRepository.save(poster);
+        posterIndex.put(poster);
         log.info("Created poster: id={}, title={}", poster.getId(), poster.getTitle());
+        eventPublisher.publishEvent(BoardContentChangedEvent.forAudiences(BoardSource.POSTERS, poster.getAudience()));
 
         return poster;
     }
@@ -127,6 +142,8 @@ public class PosterService {
                         HttpStatus.NOT_FOUND,
                         ErrorResponse.of("Poster not found with id: " + posterId)));
 
+        Audience previousAudience = poster.getAudience();
+
         // Update only non-null fields
         Patch.apply(request.getTitle(), poster::setTitle);
         Patch.apply(request.getDuration(), poster::setDuration);
@@ -138,7 +155,9 @@ public class PosterService {
         validateDates(poster.getStartDate(), poster.getEndDate());
 
         poster = posterRepository.save(poster);
+        posterIndex.put(poster);
         log.info("Updated poster: id={}", posterId);
+        eventPublisher.publishEvent(BoardContentChangedEvent.forAudiences(BoardSource.POSTERS, previousAudience, poster.getAudience()));
 
         return poster;
     }
@@ -179,7 +198,9 @@ public class PosterService {
 
         poster.setImage(publicUrl + "/" + objectKey);
         poster = posterRepository.save(poster);
+        posterIndex.put(poster);
         log.info("Updated poster image: id={}", posterId);
+        eventPublisher.publishEvent(BoardContentChangedEvent.forAudiences(BoardSource.POSTERS, poster.getAudience()));
 
         return poster;
     }
@@ -204,21 +225,22 @@ public class PosterService {
         }
 
         posterRepository.delete(poster);
+        posterIndex.remove(posterId);
         log.info("Deleted poster: id={}", posterId);
+        eventPublisher.publishEvent(BoardContentChangedEvent.forAudiences(BoardSource.POSTERS, poster.getAudience()));
     }
 
     // ==================== Musallah Board Methods ====================
 
     /**
      * Get active posters as FrameDefinitions for display on the musallah board.
-     * Returns only posters that are currently active and match the board's audience.
+     * Returns only posters that are active today in the board's timezone and match the board's audience.
      * Sorted by startDate descending (newest first).
      */
-    public List<com.ibrasoft.lensbridge.model.board.frames.FrameDefinition> getActivePosterFrameDefinitions(BoardLocation boardLocation) {
-        LocalDate today = LocalDate.now();
-        return posterRepository.findActivePostersForAudienceAt(today, boardLocation.audience(), SORT_BY_START_DATE_DESC)
+    public List<com.ibrasoft.lensbridge.model.board.frames.FrameDefinition> getActivePosterFrameDefinitions(BoardContext ctx) {
+        return posterIndex.activeAt(ctx.getLocation().audience(), ctx.today())
                 .stream()
-                .map(this::toFrameDefinition)
+                .map(poster -> toFrameDefinition(poster, ctx))
                 .collect(Collectors.toList());
     }
 
@@ -226,8 +248,8 @@ public class PosterService {
      * Convert a Poster to a FrameDefinition for the musallah board.
      * Delegates to PosterFrameTransformer — single source of truth.
      */
-    private com.ibrasoft.lensbridge.model.board.frames.FrameDefinition toFrameDefinition(Poster poster) {
-        return posterFrameTransformer.transform(poster, null);
+    private com.ibrasoft.lensbridge.model.board.frames.FrameDefinition toFrameDefinition(Poster poster, BoardContext ctx) {
+        return posterFrameTransformer.transform(poster, ctx);
     }
 
     // ==================== Helper Methods ====================
@@ -1,117 +1,51 @@
 package com.ibrasoft.lensbridge.service;
 
 import com.ibrasoft.lensbridge.exception.ImageProcessingException;
+import com.ibrasoft.lensbridge.service.media.DecodeBudget;
+import com.ibrasoft.lensbridge.service.media.ImageMetadata;
+import com.ibrasoft.lensbridge.service.storage.StorageBackend;
+import com.ibrasoft.lensbridge.service.storage.StoredObjectInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
-import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.S3Configuration;
-import software.amazon.awssdk.services.s3.model.*;
-import software.amazon.awssdk.services.s3.presigner.S3Presigner;
-import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
-import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
 import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.time.Duration;
+import java.util.List;
 
+/**
+ * Upload-facing storage operations (HEIC conversion, key layout, access checks for
+ * presigned URLs) on top of the configured {@link StorageBackend}. The name predates
+ * the pluggable backends; R2 is still the default.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class R2StorageService {
 
-    private final S3Client s3Client;
-    private final S3Presigner presigner;
+    private final StorageBackend storageBackend;
     private final MediaConversionService mediaConversionService;
+    private final DecodeBudget decodeBudget;
 
-    @Value("${cloudflare.r2.access-key-id}")
-    private String accessKeyId;
-
-    @Value("${cloudflare.r2.secret-access-key}")
-    private String secretAccessKey;
-
-    @Value("${cloudflare.r2.endpoint}")
-    private String endpoint;
-
-    @Value("${cloudflare.r2.bucket-name}")
+    // Only used to strip the bucket from legacy path-style URLs stored on old uploads
+    @Value("${cloudflare.r2.bucket-name:}")
     private String bucketName;
 
-    @Value("${cloudflare.r2.public-url}")
-    private String publicUrl;
-
     @Value("${cloudflare.r2.url-expiration-minutes:15}")
     private long urlExpirationMinutes;
 
     @PostConstruct
     public void init() {
-        log.info("R2StorageService initialized (endpoint='{}', bucket='{}', publicUrl='{}')", endpoint, bucketName, publicUrl);
-    }
-
-    private String normalizeEndpoint(String ep) {
-        if (ep == null) return null;
-        String trimmed = ep.trim();
-        // Remove any trailing slash
-        while (trimmed.endsWith("/")) {
-            trimmed = trimmed.substring(0, trimmed.length() - 1);
-        }
-        return trimmed;
-    }
-
-    /**
-     * Replace the CloudFlare R2 endpoint in a presigned URL with our custom domain
-     */
-    private String replaceEndpointWithCustomDomain(String presignedUrl) {
-        if (publicUrl == null || publicUrl.isBlank()) {
-            return presignedUrl; // Return original URL if no custom domain configured
-        }
-        
-        try {
-            URI originalUri = URI.create(presignedUrl);
-            String originalHost = originalUri.getHost();
-            String originalPath = originalUri.getPath();
-            String queryString = originalUri.getQuery();
-            
-            // Extract the custom domain from publicUrl
-            URI customUri = URI.create(publicUrl);
-            String customHost = customUri.getHost();
-            String customScheme = customUri.getScheme();
-            
-            // Remove bucket name from path if it exists
-            String newPath = originalPath;
-            if (originalPath != null && originalPath.startsWith("/" + bucketName + "/")) {
-                newPath = originalPath.substring(bucketName.length() + 1); // Remove "/bucketName"
-            }
-            
-            // Construct the new URL with custom domain
-            StringBuilder customUrl = new StringBuilder();
-            customUrl.append(customScheme).append("://").append(customHost);
-            customUrl.append(newPath);
-            if (queryString != null && !queryString.isEmpty()) {
-                customUrl.append("?").append(queryString);
-            }
-            
-            String result = customUrl.toString();
-            log.debug("Replaced CloudFlare endpoint '{}' with custom domain '{}' and removed bucket from path: '{}' -> '{}'", 
-                     originalHost, customHost, originalPath, newPath);
-            return result;
-        } catch (Exception e) {
-            log.error("Failed to replace endpoint with custom domain in URL: {}", presignedUrl, e);
-            return presignedUrl; // Return original URL on error
-        }
+        log.info("R2StorageService initialized (backend='{}')", storageBackend.name());
     }
 
-
     /**
-     * Upload an image file to R2
+     * Upload an image file to storage
      */
     public String uploadImage(File imageFile, String fileName) throws IOException {
         String lowerName = fileName.toLowerCase();
@@ -119,7 +53,7 @@ public class R2StorageService {
             // Convert HEIC to JPG before uploading
             File jpgFile = File.createTempFile("converted-", ".jpg");
             try {
-                MediaConversionService.convertHeicToJpg(imageFile, jpgFile);
+                convertHeicWithinBudget(imageFile, jpgFile);
                 String jpgName = fileName.replaceAll("(?i)\\.heic$", ".jpg");
                 String result = uploadFile(jpgFile, jpgName, "images/");
                 jpgFile.delete();
@@ -134,7 +68,7 @@ public class R2StorageService {
     }
 
     /**
-     * Upload an image from bytes to R2
+     * Upload an image from bytes to storage
      */
     public String uploadImage(byte[] fileBytes, String fileName) throws IOException {
         String lowerName = fileName.toLowerCase();
@@ -144,7 +78,7 @@ public class R2StorageService {
             File jpgFile = File.createTempFile("converted-", ".jpg");
             try {
                 Files.write(tempHeicFile.toPath(), fileBytes);
-                MediaConversionService.convertHeicToJpg(tempHeicFile, jpgFile);
+                convertHeicWithinBudget(tempHeicFile, jpgFile);
                 String jpgName = fileName.replaceAll("(?i)\\.heic$", ".jpg");
                 String result = uploadFile(jpgFile, jpgName, "images/");
                 tempHeicFile.delete();
@@ -161,14 +95,29 @@ public class R2StorageService {
     }
 
     /**
-     * Upload a video file to R2
+     * Run the HEIC conversion while holding decode budget for the full raster, so a
+     * burst of large HEIC uploads queues instead of spawning unbounded decoders.
+     */
+    private void convertHeicWithinBudget(File heicFile, File jpgFile) throws IOException, InterruptedException {
+        byte[] heicBytes = Files.readAllBytes(heicFile.toPath());
+        long estimate = DecodeBudget.estimateDecodeBytes(ImageMetadata.extract(heicBytes), heicBytes.length);
+        DecodeBudget.Reservation reservation = decodeBudget.reserve(estimate);
+        try {
+            MediaConversionService.convertHeicToJpg(heicFile, jpgFile);
+        } finally {
+            reservation.close();
+        }
+    }
+
+    /**
+     * Upload a video file to storage
      */
     public String uploadVideo(File videoFile, String fileName) throws IOException {
         return uploadFile(videoFile, fileName, "videos/");
     }
 
     /**
-     * Upload a video from bytes to R2
+     * Upload a video from bytes to storage
      */
     public String uploadVideo(byte[] fileBytes, String fileName) throws IOException {
         return uploadFile(fileBytes, fileName, "videos/", detectContentType(fileName));
@@ -186,19 +135,13 @@ public class R2StorageService {
             contentType = detectContentType(fileName);
         }
 
-        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                .bucket(bucketName)
-                .key(key)
-                .contentType(contentType)
-                .build();
-
         try {
-            s3Client.putObject(putObjectRequest, RequestBody.fromFile(file));
-            log.info("Successfully uploaded file to R2: {}", key);
+            storageBackend.put(key, file.toPath(), contentType);
+            log.info("Successfully uploaded file to {}: {}", storageBackend.name(), key);
             // Return the object key instead of a URL - URLs will be generated on demand
             return key;
         } catch (Exception e) {
-            log.error("Failed to upload file to R2: {}", key, e);
+            log.error("Failed to upload file to {}: {}", storageBackend.name(), key, e);
             throw e;
         }
     }
@@ -210,25 +153,19 @@ public class R2StorageService {
     private String uploadFile(byte[] fileBytes, String fileName, String folder, String contentType) throws IOException {
         String key = folder + fileName;
 
-        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                .bucket(bucketName)
-                .key(key)
-                .contentType(contentType)
-                .build();
-
         try {
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(fileBytes));
-            log.info("Successfully uploaded file to R2: {}", key);
+            storageBackend.put(key, fileBytes, contentType);
+            log.info("Successfully uploaded file to {}: {}", storageBackend.name(), key);
             // Return the object key instead of a URL - URLs will be generated on demand
             return key;
         } catch (Exception e) {
-            log.error("Failed to upload file to R2: {}", key, e);
+            log.error("Failed to upload file to {}: {}", storageBackend.name(), key, e);
             throw e;
         }
     }
 
     /**
-     * Generate a secure time-limited URL for accessing content using S3 presigner.
+     * Generate a secure time-limited URL for accessing content through the storage backend.
      * @param objectKey The object key (without bucket name)
      * @param isApproved Whether the content is approved
      * @param isAdmin Whether the requester is an admin (admins can view unapproved)
@@ -241,19 +178,7 @@ public class R2StorageService {
             throw new SecurityException("Access denied: Content not approved for public viewing");
         }
         try {
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(objectKey)
-                    .build();
-            GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                    .signatureDuration(Duration.ofMinutes(urlExpirationMinutes))
-                    .getObjectRequest(getObjectRequest)
-                    .build();
-            String presignedUrl = presigner.presignGetObject(presignRequest).url().toString();
-            
-            // Replace the CloudFlare endpoint with our custom domain
-            String customUrl = replaceEndpointWithCustomDomain(presignedUrl);
-            
+            String customUrl = storageBackend.presignGet(objectKey, Duration.ofMinutes(urlExpirationMinutes));
             if (log.isDebugEnabled()) {
                 log.debug("Generated presigned URL (adminAccess={}): key='{}' -> '{}'", isAdmin, objectKey, customUrl.split("\\?",2)[0]);
             }
@@ -282,22 +207,9 @@ public class R2StorageService {
      */
     public String generatePresignedUploadUrl(String objectKey, String contentType, String sha256hash, long contentLength) {
         try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(objectKey)
-                    .contentType(contentType)
-                    .contentLength(contentLength)
-                    // .checksumSHA256(sha256hash)
-                    .build();
-            PutObjectPresignRequest presignRequest = PutObjectPresignRequest.builder()
-                    .signatureDuration(Duration.ofMinutes(urlExpirationMinutes))
-                    .putObjectRequest(putObjectRequest)
-                    .build();
-            String presignedUrl = presigner.presignPutObject(presignRequest).url().toString();
-            
-            // For upload URLs, we must return the original R2 endpoint, not the custom domain
-            // Custom domains only work for downloads, not authenticated uploads
-            return presignedUrl;
+            // sha256hash is accepted for API compatibility but not part of the signature
+            return storageBackend.presignPut(objectKey, contentType, contentLength,
+                    Duration.ofMinutes(urlExpirationMinutes));
         } catch (Exception e) {
             log.error("Failed to presign PUT URL for {}: {}", objectKey, e.getMessage());
             throw new RuntimeException("Failed to generate upload URL", e);
@@ -305,20 +217,31 @@ public class R2StorageService {
     }
 
     /**
-     * Delete an object from R2
+     * Delete an object from storage
      */
     public void deleteObject(String objectKey) {
         try {
-            DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(objectKey)
-                    .build();
+            storageBackend.delete(objectKey);
+            log.info("Successfully deleted object from {}: {}", storageBackend.name(), objectKey);
+        } catch (Exception e) {
+            log.error("Failed to delete object from storage: {}", objectKey, e);
+            throw new RuntimeException("Failed to delete object from storage", e);
+        }
+    }
 
-            s3Client.deleteObject(deleteObjectRequest);
-            log.info("Successfully deleted object from R2: {}", objectKey);
+    /**
+     * Delete every object under a key prefix (e.g. all derivatives of an upload).
+     */
+    public void deleteObjectsWithPrefix(String prefix) {
+        try {
+            List<String> keys = storageBackend.list(prefix).stream()
+                    .map(StoredObjectInfo::key)
+                    .toList();
+            int deleted = keys.isEmpty() ? 0 : storageBackend.deleteAll(keys);
+            log.info("Deleted {} objects under prefix {}", deleted, prefix);
         } catch (Exception e) {
-            log.error("Failed to delete object from R2: {}", objectKey, e);
-            throw new RuntimeException("Failed to delete object from R2", e);
+            log.error("Failed to delete objects under prefix: {}", prefix, e);
+            throw new RuntimeException("Failed to delete objects from storage", e);
         }
     }
 
@@ -345,7 +268,7 @@ public class R2StorageService {
                 path = path.substring(1);
             }
             // If path starts with bucketName/, strip it
-            if (path.startsWith(bucketName + "/")) {
+            if (!bucketName.isEmpty() && path.startsWith(bucketName + "/")) {
                 path = path.substring(bucketName.length() + 1);
             }
             return path;
@@ -396,19 +319,11 @@ public class R2StorageService {
     }
 
     /**
-     * Check if object exists in R2
+     * Check if object exists in storage
      */
     public boolean objectExists(String objectKey) {
         try {
-            HeadObjectRequest headObjectRequest = HeadObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(objectKey)
-                    .build();
-            
-            s3Client.headObject(headObjectRequest);
-            return true;
-        } catch (NoSuchKeyException e) {
-            return false;
+            return storageBackend.head(objectKey).isPresent();
         } catch (Exception e) {
             log.error("Error checking if object exists: {}", objectKey, e);
             return false;
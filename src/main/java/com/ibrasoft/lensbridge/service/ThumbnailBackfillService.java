@@ -36,10 +36,14 @@ public class ThumbnailBackfillService implements CommandLineRunner {
         log.info("THUMBNAIL BACKFILL: Starting thumbnail generation for existing uploads");
         log.info("=".repeat(60));
 
-        // Find all image uploads without thumbnails
+        // Find all image uploads without thumbnails (or without the hash/metadata derived in the same pass).
+        // Dimensions may legitimately stay null, so metadata is keyed on the extracted flag; uploads
+        // processed before the flag existed count as done if they have dimensions.
         List<Upload> uploadsWithoutThumbnails = uploadRepository.findAll().stream()
                 .filter(u -> u.getContentType() == UploadType.IMAGE)
-                .filter(u -> u.getThumbnailUrl() == null || u.getThumbnailUrl().isBlank())
+                .filter(u -> u.getThumbnailUrl() == null || u.getThumbnailUrl().isBlank()
+                        || u.getPerceptualHash() == null || u.getBlurHash() == null
+                        || (!u.isMetadataExtracted() && u.getWidth() == null))
                 .filter(u -> u.getFileUrl() != null && !u.getFileUrl().isBlank())
                 .toList();
 
@@ -63,14 +67,14 @@ public class ThumbnailBackfillService implements CommandLineRunner {
                         current, total, upload.getUuid(), upload.getFileUrl());
 
                 // Generate thumbnail synchronously (blocking)
-                String thumbnailKey = thumbnailService.generateThumbnail(upload.getFileUrl());
+                ThumbnailService.ThumbnailResult result = thumbnailService.generateThumbnail(upload.getFileUrl());
 
                 // Update the upload record
-                upload.setThumbnailUrl(thumbnailKey);
+                result.applyTo(upload);
                 uploadRepository.save(upload);
 
                 success.incrementAndGet();
-                log.info("[{}/{}] SUCCESS: Generated thumbnail: {}", current, total, thumbnailKey);
+                log.info("[{}/{}] SUCCESS: Generated thumbnail: {}", current, total, result.thumbnailKey());
 
             } catch (Exception e) {
                 failed.incrementAndGet();
@@ -1,39 +1,47 @@
 package com.ibrasoft.lensbridge.service;
 
+import com.ibrasoft.lensbridge.exception.ImageProcessingException;
 import com.ibrasoft.lensbridge.model.upload.Upload;
 import com.ibrasoft.lensbridge.repository.UploadRepository;
-import lombok.RequiredArgsConstructor;
+import com.ibrasoft.lensbridge.service.media.BlurHash;
+import com.ibrasoft.lensbridge.service.media.DecodeBudget;
+import com.ibrasoft.lensbridge.service.media.ImageMetadata;
+import com.ibrasoft.lensbridge.service.media.NearDuplicateIndex;
+import com.ibrasoft.lensbridge.service.media.PerceptualHash;
+import com.ibrasoft.lensbridge.service.storage.AsyncStorageService;
+import com.ibrasoft.lensbridge.service.storage.StorageBackend;
+import com.ibrasoft.lensbridge.service.storage.StoredObjectInfo;
 import lombok.extern.slf4j.Slf4j;
 import net.coobird.thumbnailator.Thumbnails;
+import net.coobird.thumbnailator.geometry.Positions;
+import net.coobird.thumbnailator.util.exif.ExifFilterUtils;
+import net.coobird.thumbnailator.util.exif.Orientation;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.core.ResponseInputStream;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectResponse;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Service for generating and managing image thumbnails.
  * Thumbnails are generated asynchronously after image uploads complete.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ThumbnailService {
 
-    private final S3Client s3Client;
+    private final StorageBackend storageBackend;
+    private final AsyncStorageService asyncStorageService;
     private final UploadRepository uploadRepository;
-
-    @Value("${cloudflare.r2.bucket-name}")
-    private String bucketName;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final DecodeBudget decodeBudget;
+    private final Executor mediaExecutor;
 
     @Value("${thumbnail.width:400}")
     private int thumbnailWidth;
@@ -47,83 +55,149 @@ public class ThumbnailService {
     @Value("${thumbnail.folder:thumbnails/}")
     private String thumbnailFolder;
 
+    public ThumbnailService(StorageBackend storageBackend,
+                            AsyncStorageService asyncStorageService,
+                            UploadRepository uploadRepository,
+                            NearDuplicateIndex nearDuplicateIndex,
+                            DecodeBudget decodeBudget,
+                            @Qualifier("applicationTaskExecutor") Executor mediaExecutor) {
+        this.storageBackend = storageBackend;
+        this.asyncStorageService = asyncStorageService;
+        this.uploadRepository = uploadRepository;
+        this.nearDuplicateIndex = nearDuplicateIndex;
+        this.decodeBudget = decodeBudget;
+        this.mediaExecutor = mediaExecutor;
+    }
+
     /**
      * Generate a thumbnail for an uploaded image asynchronously.
      * The thumbnail is stored in the thumbnails/ folder with the same filename.
      * Updates the Upload entity with the thumbnail URL after generation.
      *
+     * The original is fetched and the thumbnail written with non-blocking storage calls;
+     * only the decode and resize occupy a task-executor thread.
+     *
      * @param uploadId  The UUID of the upload to generate thumbnail for
-     * @param objectKey The R2 object key of the original image (e.g., "images/uuid")
+     * @param objectKey The storage key of the original image (e.g., "images/uuid")
+     * @return future that completes when the job finishes, exceptionally if generation failed
      */
-    @Async
-    public void generateThumbnailAsync(UUID uploadId, String objectKey) {
-        try {
-            log.info("Starting thumbnail generation for upload {} (key: {})", uploadId, objectKey);
-            String thumbnailKey = generateThumbnail(objectKey);
-            
-            // Update the upload entity with the thumbnail URL
-            Optional<Upload> uploadOpt = uploadRepository.findById(uploadId);
-            if (uploadOpt.isPresent()) {
-                Upload upload = uploadOpt.get();
-                upload.setThumbnailUrl(thumbnailKey);
-                uploadRepository.save(upload);
-                log.info("Successfully updated upload {} with thumbnail: {}", uploadId, thumbnailKey);
-            } else {
-                log.warn("Upload {} not found when trying to update thumbnail URL", uploadId);
-            }
-        } catch (Exception e) {
-            log.error("Failed to generate thumbnail for upload {} (key: {}): {}", 
-                uploadId, objectKey, e.getMessage(), e);
-        }
+    public CompletableFuture<Void> generateThumbnailAsync(UUID uploadId, String objectKey) {
+        log.info("Starting thumbnail generation for upload {} (key: {})", uploadId, objectKey);
+        return asyncStorageService.getBytes(objectKey)
+                .thenApplyAsync(originalBytes -> render(objectKey, originalBytes), mediaExecutor)
+                .thenCompose(rendered -> asyncStorageService
+                        .put(rendered.result().thumbnailKey(), rendered.bytes(), "image/jpeg")
+                        .thenApply(stored -> rendered.result().withThumbnailETag(stored.eTag())))
+                .thenAcceptAsync(result -> {
+                    // Update the upload entity with the thumbnail URL and perceptual hash.
+                    // Off the storage client's completion thread: these Mongo calls block.
+                    Optional<Upload> uploadOpt = uploadRepository.findById(uploadId);
+                    if (uploadOpt.isPresent()) {
+                        Upload upload = uploadOpt.get();
+                        result.applyTo(upload);
+                        uploadRepository.save(upload);
+                        nearDuplicateIndex.add(upload);
+                        log.info("Successfully updated upload {} with thumbnail: {}", uploadId, result.thumbnailKey());
+                    } else {
+                        log.warn("Upload {} not found when trying to update thumbnail URL", uploadId);
+                    }
+                }, mediaExecutor)
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        log.error("Failed to generate thumbnail for upload {} (key: {}): {}",
+                                uploadId, objectKey, error.getMessage(), error);
+                    }
+                });
     }
 
     /**
-     * Generate a thumbnail for an image stored in R2.
+     * Generate a thumbnail for an image in storage, blocking until it is written.
      *
-     * @param objectKey The R2 object key of the original image
-     * @return The R2 object key of the generated thumbnail
+     * @param objectKey The storage key of the original image
+     * @return The storage key of the generated thumbnail, plus the image's perceptual hash
+     */
+    public ThumbnailResult generateThumbnail(String objectKey) throws Exception {
+        RenderedThumbnail rendered = render(objectKey, storageBackend.getBytes(objectKey));
+        StoredObjectInfo stored = storageBackend.put(rendered.result().thumbnailKey(), rendered.bytes(), "image/jpeg");
+        return rendered.result().withThumbnailETag(stored.eTag());
+    }
+
+    /**
+     * Decode, resize, hash and encode a thumbnail. CPU only; no storage calls.
      */
-    public String generateThumbnail(String objectKey) throws Exception {
-        // Download the original image from R2
-        GetObjectRequest getRequest = GetObjectRequest.builder()
-                .bucket(bucketName)
-                .key(objectKey)
-                .build();
-
-        byte[] thumbnailBytes;
-        try (ResponseInputStream<GetObjectResponse> objectStream = s3Client.getObject(getRequest)) {
-            // Generate thumbnail using Thumbnailator
+    private RenderedThumbnail render(String objectKey, byte[] originalBytes) {
+        try {
+            // Header-only pass: dimensions, orientation, capture time
+            ImageMetadata metadata = ImageMetadata.extract(originalBytes);
+
+            BufferedImage thumbnail = resize(originalBytes, metadata, thumbnailWidth, thumbnailHeight, false);
+
+            // Hash the downscaled image rather than the original - much cheaper, same result
+            long perceptualHash = PerceptualHash.dHash(thumbnail);
+            String blurHash = BlurHash.encode(thumbnail);
+
             ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            
-            Thumbnails.of(objectStream)
-                    .size(thumbnailWidth, thumbnailHeight)
-                    .keepAspectRatio(true)
+            Thumbnails.of(thumbnail)
+                    .scale(1.0)
                     .outputQuality(thumbnailQuality)
                     .outputFormat("jpg")
                     .toOutputStream(outputStream);
-            
-            thumbnailBytes = outputStream.toByteArray();
+            byte[] thumbnailBytes = outputStream.toByteArray();
+
+            // Generate thumbnail key: thumbnails/<original-filename>
+            // e.g., images/uuid -> thumbnails/uuid
+            String thumbnailKey = thumbnailFolder + extractFilename(objectKey);
+
+            log.info("Generated thumbnail: {} -> {} ({}x{}, {} bytes)",
+                    objectKey, thumbnailKey, thumbnailWidth, thumbnailHeight, thumbnailBytes.length);
+            return new RenderedThumbnail(new ThumbnailResult(thumbnailKey, perceptualHash, blurHash, metadata, null), thumbnailBytes);
+        } catch (ImageProcessingException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ImageProcessingException("Failed to generate thumbnail for " + objectKey, e);
         }
+    }
 
-        // Generate thumbnail key: thumbnails/<original-filename>
-        // e.g., images/uuid -> thumbnails/uuid
-        String filename = extractFilename(objectKey);
-        String thumbnailKey = thumbnailFolder + filename;
+    private record RenderedThumbnail(ThumbnailResult result, byte[] bytes) {}
 
-        // Upload thumbnail to R2
-        PutObjectRequest putRequest = PutObjectRequest.builder()
-                .bucket(bucketName)
-                .key(thumbnailKey)
-                .contentType("image/jpeg")
-                .contentLength((long) thumbnailBytes.length)
-                .build();
+    /**
+     * Decode and downscale an original while holding decode budget for its full-size raster.
+     * Every in-JVM resize of an original should go through here.
+     *
+     * @param crop false to fit inside width x height, true to fill it and crop the centre
+     */
+    public BufferedImage resize(byte[] originalBytes, ImageMetadata metadata, int width, int height, boolean crop) throws Exception {
+        try (DecodeBudget.Reservation reservation = decodeBudget.reserveForImage(metadata, originalBytes.length)) {
+            return decodeAndResize(originalBytes, metadata, reservation.subsampling(), width, height, crop);
+        }
+    }
 
-        s3Client.putObject(putRequest, RequestBody.fromBytes(thumbnailBytes));
-        
-        log.info("Generated thumbnail: {} -> {} ({}x{}, {} bytes)", 
-                objectKey, thumbnailKey, thumbnailWidth, thumbnailHeight, thumbnailBytes.length);
-        
-        return thumbnailKey;
+    /**
+     * At subsampling 1 Thumbnailator reads the image itself (and applies EXIF orientation);
+     * otherwise we decode at reduced resolution and apply the orientation from the metadata ourselves.
+     */
+    private BufferedImage decodeAndResize(byte[] originalBytes, ImageMetadata metadata, int subsampling,
+                                          int width, int height, boolean crop) throws Exception {
+        Thumbnails.Builder<?> builder;
+        if (subsampling == 1) {
+            builder = Thumbnails.of(new ByteArrayInputStream(originalBytes));
+        } else {
+            BufferedImage reduced = DecodeBudget.decodeSubsampled(originalBytes, subsampling);
+            Integer orientation = metadata.orientation();
+            if (orientation != null && orientation > 1 && orientation <= 8) {
+                // Rotate before sizing so the target box applies to the displayed orientation
+                reduced = ExifFilterUtils.getFilterForOrientation(Orientation.typeOf(orientation)).apply(reduced);
+            }
+            builder = Thumbnails.of(reduced);
+        }
+
+        builder.size(width, height);
+        if (crop) {
+            builder.crop(Positions.CENTER);
+        } else {
+            builder.keepAspectRatio(true);
+        }
+        return builder.asBufferedImage();
     }
 
     /**
@@ -146,8 +220,7 @@ public class ThumbnailService {
         String thumbnailKey = thumbnailFolder + filename;
         
         try {
-            s3Client.headObject(builder -> builder.bucket(bucketName).key(thumbnailKey));
-            return true;
+            return storageBackend.head(thumbnailKey).isPresent();
         } catch (Exception e) {
             return false;
         }
@@ -160,4 +233,31 @@ public class ThumbnailService {
         String filename = extractFilename(objectKey);
         return thumbnailFolder + filename;
     }
+
+    /**
+     * Output of a thumbnail pass: the stored thumbnail key and everything derived
+     * from the decoded image along the way.
+     */
+    public record ThumbnailResult(String thumbnailKey, long perceptualHash, String blurHash, ImageMetadata metadata,
+                                  String thumbnailETag) {
+
+        ThumbnailResult withThumbnailETag(String eTag) {
+            return new ThumbnailResult(thumbnailKey, perceptualHash, blurHash, metadata, eTag);
+        }
+
+        /**
+         * Copy the derived fields onto the upload entity (caller saves it).
+         */
+        public void applyTo(Upload upload) {
+            upload.setThumbnailUrl(thumbnailKey);
+            upload.setPerceptualHash(perceptualHash);
+            upload.setBlurHash(blurHash);
+            upload.setThumbnailETag(thumbnailETag);
+            upload.setWidth(metadata.displayWidth());
+            upload.setHeight(metadata.displayHeight());
+            upload.setMetadataExtracted(true);
+            upload.setOrientation(metadata.orientation());
+            upload.setCapturedAt(metadata.capturedAt());
+        }
+    }
 }
@@ -9,6 +9,9 @@ import com.ibrasoft.lensbridge.model.event.Event;
 import com.ibrasoft.lensbridge.model.upload.Upload;
 import com.ibrasoft.lensbridge.model.upload.UploadType;
 import com.ibrasoft.lensbridge.repository.UploadRepository;
+import com.ibrasoft.lensbridge.service.media.DerivativeSpec;
+import com.ibrasoft.lensbridge.service.media.NearDuplicateIndex;
+import com.ibrasoft.lensbridge.service.storage.AsyncStorageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,6 +20,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -29,6 +34,9 @@ public class UploadService {
     private final UserService userService;
     private final EventsService eventsService;
     private final R2StorageService r2StorageService;
+    private final AsyncStorageService asyncStorageService;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final LazyThumbnailService lazyThumbnailService;
 
     @Value("${uploads.default-approved:false}")
     private boolean defaultApproved;
@@ -129,20 +137,21 @@ public class UploadService {
 
             // Create Upload entity
             UUID uuid = UUID.randomUUID();
-            Upload upload = new Upload(
-                    uuid,
-                    fileName,
-                    objectKey,
-                    null, // thumbnailUrl - will be set async by ThumbnailService
-                    description,
-                    instagramHandle,
-                    uploadedBy,
-                    eventId,
-                    LocalDateTime.now(),
-                    defaultApproved,
-                    defaultFeatured,
-                    anon,
-                    uploadType);
+            // Thumbnail, perceptual hash and image metadata are filled in by ThumbnailService
+            Upload upload = Upload.builder()
+                    .uuid(uuid)
+                    .fileName(fileName)
+                    .fileUrl(objectKey)
+                    .uploadDescription(description)
+                    .instagramHandle(instagramHandle)
+                    .uploadedBy(uploadedBy)
+                    .eventId(eventId)
+                    .createdDate(LocalDateTime.now())
+                    .approved(defaultApproved)
+                    .featured(defaultFeatured)
+                    .isAnon(anon)
+                    .contentType(uploadType)
+                    .build();
 
             uploadRepository.save(upload);
             log.info("Created direct upload record: {} for object: {}", uuid, objectKey);
@@ -174,25 +183,33 @@ public class UploadService {
         Optional<Upload> uploadOpt = uploadRepository.findById(id);
         if (uploadOpt.isPresent()) {
             Upload upload = uploadOpt.get();
-            try {
-                // Delete original file from R2 storage
-                String objectKey = r2StorageService.extractObjectKeyFromUrl(upload.getFileUrl());
-                if (objectKey != null) {
-                    r2StorageService.deleteObject(objectKey);
-                }
-                // Delete thumbnail from R2 storage if exists
-                String thumbnailKey = upload.getThumbnailUrl();
-                if (thumbnailKey != null && !thumbnailKey.isBlank()) {
-                    r2StorageService.deleteObject(thumbnailKey);
-                }
-            } catch (Exception e) {
-                log.warn("Failed to delete file from R2 storage for upload {}: {}", id, e.getMessage());
-                // Continue with database deletion even if R2 deletion fails
-            }
+            deleteStoredObjects(upload);
+            nearDuplicateIndex.invalidate(upload.getEventId());
         }
         uploadRepository.deleteById(id);
     }
 
+    /**
+     * Delete the original, thumbnail and all derivatives of an upload concurrently, without
+     * waiting for them. The database row is removed regardless; failures are only logged.
+     */
+    private void deleteStoredObjects(Upload upload) {
+        UUID uploadId = upload.getUuid();
+        try {
+            List<String> keys = new ArrayList<>();
+            keys.add(r2StorageService.extractObjectKeyFromUrl(upload.getFileUrl()));
+            keys.add(upload.getThumbnailUrl());
+            asyncStorageService.deleteObjectsAndPrefixes(keys, List.of(DerivativeSpec.prefix(uploadId)))
+                    .whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            log.warn("Failed to delete stored files for upload {}: {}", uploadId, error.getMessage());
+                        }
+                    });
+        } catch (Exception e) {
+            log.warn("Failed to delete stored files for upload {}: {}", uploadId, e.getMessage());
+        }
+    }
+
     /**
      * Delete user's own upload with ownership validation
      */
@@ -211,24 +228,11 @@ public class UploadService {
             throw new SecurityException("You can only delete your own uploads");
         }
 
-        try {
-            // Delete original file from R2 storage
-            String objectKey = r2StorageService.extractObjectKeyFromUrl(upload.getFileUrl());
-            if (objectKey != null) {
-                r2StorageService.deleteObject(objectKey);
-            }
-            // Delete thumbnail from R2 storage if exists
-            String thumbnailKey = upload.getThumbnailUrl();
-            if (thumbnailKey != null && !thumbnailKey.isBlank()) {
-                r2StorageService.deleteObject(thumbnailKey);
-            }
-        } catch (Exception e) {
-            log.warn("Failed to delete file from R2 storage for upload {}: {}", uploadId, e.getMessage());
-            // Continue with database deletion even if R2 deletion fails
-        }
+        deleteStoredObjects(upload);
 
         // Delete the upload from database
         uploadRepository.deleteById(uploadId);
+        nearDuplicateIndex.invalidate(upload.getEventId());
         log.info("Upload {} deleted successfully by user {}", uploadId, userId);
     }
 
@@ -246,7 +250,63 @@ public class UploadService {
      */
     public Page<AdminUploadDto> getUploadsByApprovalStatus(boolean approved, Pageable pageable) {
         Page<Upload> uploads = uploadRepository.findByApproved(approved, pageable);
-        return uploads.map(this::convertToAdminUploadDto);
+        if (approved) {
+            return uploads.map(this::convertToAdminUploadDto);
+        }
+        // Pending queue: flag near-duplicates so moderators can handle bursts as a group
+        return uploads.map(upload -> {
+            AdminUploadDto dto = convertToAdminUploadDto(upload);
+            dto.setNearDuplicateIds(nearDuplicateIndex.findNearDuplicates(upload));
+            return dto;
+        });
+    }
+
+    /**
+     * Resolve the near-duplicate group of an upload: the upload itself followed by
+     * every other upload in the same event within the configured hash distance.
+     */
+    public List<UUID> getNearDuplicateGroup(UUID uploadId) {
+        Upload upload = uploadRepository.findById(uploadId)
+                .orElseThrow(() -> new IllegalArgumentException("Upload not found"));
+        List<UUID> group = new ArrayList<>();
+        group.add(uploadId);
+        group.addAll(nearDuplicateIndex.findNearDuplicates(upload));
+        return group;
+    }
+
+    /**
+     * Approve an upload together with all of its pending near-duplicates.
+     *
+     * @return the IDs of the uploads that were approved
+     */
+    public List<UUID> approveNearDuplicateGroup(UUID uploadId) {
+        List<UUID> approvedIds = new ArrayList<>();
+        for (Upload upload : uploadRepository.findAllById(getNearDuplicateGroup(uploadId))) {
+            if (upload.isApproved()) continue;
+            upload.setApproved(true);
+            uploadRepository.save(upload);
+            approvedIds.add(upload.getUuid());
+        }
+        log.info("Approved near-duplicate group of upload {} ({} uploads)", uploadId, approvedIds.size());
+        return approvedIds;
+    }
+
+    /**
+     * Delete the pending near-duplicates of an upload, keeping the upload itself.
+     * Approved uploads are never removed this way.
+     *
+     * @return the IDs of the uploads that were deleted
+     */
+    public List<UUID> deletePendingNearDuplicates(UUID uploadId) {
+        List<UUID> group = getNearDuplicateGroup(uploadId);
+        List<UUID> deletedIds = new ArrayList<>();
+        for (Upload upload : uploadRepository.findAllById(group.subList(1, group.size()))) {
+            if (upload.isApproved()) continue;
+            deleteUpload(upload.getUuid());
+            deletedIds.add(upload.getUuid());
+        }
+        log.info("Deleted {} pending near-duplicates of upload {}", deletedIds.size(), uploadId);
+        return deletedIds;
     }
 
     /**
@@ -315,11 +375,15 @@ public class UploadService {
             item.setSrc(null);
         }
 
-        // Generate secure thumbnail
+        // Generate secure thumbnail from the stored thumbnail key
         try {
-            String objectKey = r2StorageService.extractObjectKeyFromUrl(upload.getFileUrl());
-            String thumbnailUrl = r2StorageService.getSecureThumbnailUrl(objectKey, true, false);
-            item.setThumbnail(thumbnailUrl);
+            String thumbnailKey = upload.getThumbnailUrl();
+            if (thumbnailKey != null && !thumbnailKey.isBlank()) {
+                item.setThumbnail(r2StorageService.getSecureThumbnailUrl(thumbnailKey, true, false));
+            } else {
+                lazyThumbnailService.requestThumbnail(upload);
+                item.setThumbnail(lazyThumbnailService.getPlaceholderUrl());
+            }
         } catch (Exception e) {
             log.error("Failed to generate thumbnail for user upload {}: {}", upload.getUuid(), e.getMessage());
             item.setThumbnail(null);
@@ -350,6 +414,8 @@ public class UploadService {
             item.setDate("Unknown");
         }
 
+        item.applyImageMetadata(upload);
+
         return item;
     }
 
@@ -374,6 +440,7 @@ public class UploadService {
         dto.setFeatured(upload.isFeatured());
         dto.setAnon(upload.isAnon());
         dto.setContentType(upload.getContentType());
+        dto.setBlurHash(upload.getBlurHash());
 
         // Generate secure URLs for admin access
         try {
@@ -388,8 +455,9 @@ public class UploadService {
                 String thumbnailUrl = r2StorageService.getSecureThumbnailUrl(thumbnailKey, upload.isApproved(), true);
                 dto.setThumbnailUrl(thumbnailUrl);
             } else {
-                // Fallback: use original image URL as thumbnail if no thumbnail generated yet
-                dto.setThumbnailUrl(secureUrl);
+                // Never fall back to the original: queue generation and show a placeholder
+                lazyThumbnailService.requestThumbnail(upload);
+                dto.setThumbnailUrl(lazyThumbnailService.getPlaceholderUrl());
             }
 
         } catch (Exception e) {
@@ -0,0 +1,84 @@
+package com.ibrasoft.lensbridge.service.board;
+
+import com.ibrasoft.lensbridge.model.board.BoardLocation;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces content changes per BoardLocation: a location is flushed once no further
+ * change for it has arrived for the debounce window, or once maxDelay has passed since its
+ * first pending change, whichever comes first. A burst of edits to one board therefore
+ * produces a single push, and a steady stream of edits still gets through. The flushed
+ * event carries every source changed while the location was pending.
+ *
+ * A zero window flushes every change straight away.
+ */
+@Slf4j
+public class BoardChangeDebouncer {
+
+    private final Duration window;
+    private final Duration maxDelay;
+    private final ScheduledExecutorService scheduler;
+    private final Consumer<BoardContentChangedEvent> flush;
+
+    private final Map<BoardLocation, Pending> pending = new EnumMap<>(BoardLocation.class);
+
+    private record Pending(long firstNanos, ScheduledFuture<?> timer, Set<BoardSource> sources) {
+    }
+
+    public BoardChangeDebouncer(Duration window, Duration maxDelay, ScheduledExecutorService scheduler,
+                                Consumer<BoardContentChangedEvent> flush) {
+        this.window = window;
+        this.maxDelay = maxDelay.compareTo(window) < 0 ? window : maxDelay;
+        this.scheduler = scheduler;
+        this.flush = flush;
+    }
+
+    public void submit(BoardContentChangedEvent event) {
+        if (window.isZero() || window.isNegative()) {
+            flush.accept(event);
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (pending) {
+            for (BoardLocation location : event.locations()) {
+                Pending previous = pending.get(location);
+                long firstNanos = previous == null ? now : previous.firstNanos();
+                Set<BoardSource> sources = EnumSet.noneOf(BoardSource.class);
+                sources.addAll(event.sources());
+                if (previous != null) {
+                    previous.timer().cancel(false);
+                    sources.addAll(previous.sources());
+                }
+                long untilMax = maxDelay.toNanos() - (now - firstNanos);
+                long delay = Math.max(0, Math.min(window.toNanos(), untilMax));
+                ScheduledFuture<?> timer = scheduler.schedule(() -> fire(location), delay, TimeUnit.NANOSECONDS);
+                pending.put(location, new Pending(firstNanos, timer, sources));
+            }
+        }
+    }
+
+    private void fire(BoardLocation location) {
+        Pending fired;
+        synchronized (pending) {
+            fired = pending.remove(location);
+            if (fired == null) {
+                return;
+            }
+        }
+        try {
+            flush.accept(new BoardContentChangedEvent(EnumSet.of(location), fired.sources()));
+        } catch (RuntimeException e) {
+            log.error("Failed to flush board change for {}", location, e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.ibrasoft.lensbridge.service.board;
+
+import com.ibrasoft.lensbridge.model.board.Audience;
+import com.ibrasoft.lensbridge.model.board.BoardLocation;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Published after a write that changes what one or more boards display
+ * (config, posters, events, weekly content).
+ *
+ * @param locations boards affected
+ * @param sources   what kind of data changed
+ */
+public record BoardContentChangedEvent(Set<BoardLocation> locations, Set<BoardSource> sources) {
+
+    public static BoardContentChangedEvent all(BoardSource source) {
+        return new BoardContentChangedEvent(EnumSet.allOf(BoardLocation.class), EnumSet.of(source));
+    }
+
+    public static BoardContentChangedEvent of(BoardLocation location, BoardSource source) {
+        return new BoardContentChangedEvent(EnumSet.of(location), EnumSet.of(source));
+    }
+
+    /**
+     * Boards showing content for any of the given audiences, e.g. before and after an update.
+     */
+    public static BoardContentChangedEvent forAudiences(BoardSource source, Audience... audiences) {
+        EnumSet<BoardLocation> locations = EnumSet.noneOf(BoardLocation.class);
+        for (Audience audience : audiences) {
+            locations.addAll(BoardLocation.forAudience(audience));
+        }
+        return new BoardContentChangedEvent(locations, EnumSet.of(source));
+    }
+}
@@ -0,0 +1,38 @@
+package com.ibrasoft.lensbridge.service.board;
+
+import com.ibrasoft.lensbridge.model.board.BoardLocation;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter per board and BoardSource, bumped by BoardPayloadCache.invalidate whenever that
+ * data changes. Frame producers are re-run only when a counter they depend on has moved.
+ */
+@Component
+public class BoardContentVersions {
+
+    private final Map<BoardLocation, AtomicLongArray> versions = new EnumMap<>(BoardLocation.class);
+
+    public BoardContentVersions() {
+        for (BoardLocation location : BoardLocation.values()) {
+            versions.put(location, new AtomicLongArray(BoardSource.values().length));
+        }
+    }
+
+    public long get(BoardLocation location, BoardSource source) {
+        return versions.get(location).get(source.ordinal());
+    }
+
+    public void bump(Collection<BoardLocation> locations, Collection<BoardSource> sources) {
+        for (BoardLocation location : locations) {
+            AtomicLongArray counters = versions.get(location);
+            for (BoardSource source : sources) {
+                counters.incrementAndGet(source.ordinal());
+            }
+        }
+    }
+}
@@ -7,6 +7,7 @@ import lombok.Value;
 
 import java.time.DayOfWeek;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -49,6 +50,31 @@ public class BoardContext {
         return now.with(LocalTime.MAX).toInstant();
     }
 
+    /**
+     * Today's date in the board's timezone.
+     */
+    public LocalDate today() {
+        return now.toLocalDate();
+    }
+
+    /**
+     * Start of tomorrow in the board's timezone. Day and week boundaries both fall here.
+     */
+    public Instant nextDayStart() {
+        return now.toLocalDate().plusDays(1).atStartOfDay(now.getZone()).toInstant();
+    }
+
+    /**
+     * The same board at another moment, e.g. a later day of a timeline.
+     */
+    public BoardContext at(ZonedDateTime when) {
+        return BoardContext.builder()
+                .location(location)
+                .config(config)
+                .now(when.withZoneSameInstant(now.getZone()))
+                .build();
+    }
+
     public static BoardContext of(BoardLocation location, BoardConfig config) {
         ZoneId zone = ZoneId.systemDefault();
         if (config != null && config.getLocation() != null && config.getLocation().getTimezone() != null) {
@@ -1,24 +1,64 @@
 package com.ibrasoft.lensbridge.service.board;
 
+import com.ibrasoft.lensbridge.dto.response.BoardTimeline;
 import com.ibrasoft.lensbridge.dto.response.MusallahBoardPayload;
 import com.ibrasoft.lensbridge.model.board.BoardConfig;
 import com.ibrasoft.lensbridge.model.board.BoardLocation;
 import com.ibrasoft.lensbridge.model.board.Event;
 import com.ibrasoft.lensbridge.model.board.Poster;
+import com.ibrasoft.lensbridge.model.board.WeekId;
 import com.ibrasoft.lensbridge.model.board.WeeklyContent;
 import com.ibrasoft.lensbridge.model.board.frames.FrameDefinition;
 import com.ibrasoft.lensbridge.service.BoardService;
 import com.ibrasoft.lensbridge.service.PosterService;
+import com.ibrasoft.lensbridge.service.board.prayer.PrayerTimeService;
+import com.ibrasoft.lensbridge.service.board.producer.EventFrameProducer;
+import com.ibrasoft.lensbridge.service.board.producer.FrameProducer;
+import com.ibrasoft.lensbridge.service.board.producer.FrameProducerRegistry;
+import com.ibrasoft.lensbridge.service.board.prayer.PrayerTimes;
+import com.ibrasoft.lensbridge.service.board.transformer.DailyScheduleFrameTransformer;
 import com.ibrasoft.lensbridge.service.board.transformer.EventListFrameTransformer;
+import com.ibrasoft.lensbridge.service.board.transformer.NextPrayerFrameTransformer;
 import com.ibrasoft.lensbridge.service.board.transformer.PosterFrameTransformer;
 import com.ibrasoft.lensbridge.service.board.transformer.WeeklyContentFrameTransformer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
+/**
+ * Builds board payloads from posters, events, weekly content and prayer times.
+ *
+ * assemble() runs the FrameProducers from FrameProducerRegistry. A producer whose cache key
+ * (source versions and time bucket) is unchanged since its last run for the board is not run
+ * again; its frames are reused. The others run concurrently on virtual threads, and the
+ * assembler waits at most board.assembler.source-timeout for them. A producer that fails or
+ * times out is replaced by the frames it last produced for that board, and the payload is
+ * marked degraded so it is not cached for long.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -28,40 +68,203 @@ public class BoardPayloadAssembler {
     private final PosterService posterService;
     private final PosterFrameTransformer posterTransformer;
     private final EventListFrameTransformer eventListTransformer;
+    private final DailyScheduleFrameTransformer dailyScheduleTransformer;
     private final WeeklyContentFrameTransformer weeklyContentTransformer;
+    private final NextPrayerFrameTransformer nextPrayerTransformer;
+    private final PrayerTimeService prayerTimeService;
+    private final MeterRegistry meterRegistry;
+    private final FrameProducerRegistry producerRegistry;
+
+    private final ExecutorService sourceExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("board-source-", 0).factory());
+    private final Map<SourceKey, Produced> lastProduced = new ConcurrentHashMap<>();
+
+    @Value("${board.assembler.source-timeout:3s}")
+    private Duration sourceTimeout;
+
+    private record SourceKey(BoardLocation location, String source) {
+    }
+
+    private record Produced(FrameProducerRegistry.CacheKey key, List<FrameDefinition> frames) {
+    }
+
+    private record Run(FrameProducer producer, SourceKey slot, FrameProducerRegistry.CacheKey key,
+                       List<FrameDefinition> reused, Future<List<FrameDefinition>> future) {
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sourceExecutor.shutdownNow();
+    }
 
     public MusallahBoardPayload assemble(BoardLocation location) {
         BoardConfig config = boardService.getBoardConfig(location).orElse(null);
-        BoardContext ctx = BoardContext.of(location, config);
+        return assemble(BoardContext.of(location, config));
+    }
 
+    /**
+     * Assemble the payload as of ctx.now. Dates (active posters, current week, prayer times)
+     * are taken in the board's timezone.
+     */
+    public MusallahBoardPayload assemble(BoardContext ctx) {
+        BoardConfig config = ctx.getConfig();
+        List<Run> runs = new ArrayList<>();
+        for (FrameProducer producer : producerRegistry.producers()) {
+            SourceKey slot = new SourceKey(ctx.getLocation(), producer.name());
+            FrameProducerRegistry.CacheKey key = producerRegistry.cacheKey(producer, ctx);
+            Produced previous = lastProduced.get(slot);
+            if (previous != null && previous.key().equals(key)) {
+                meterRegistry.counter("board.payload.source.reused", "source", producer.name()).increment();
+                runs.add(new Run(producer, slot, key, previous.frames(), null));
+            } else {
+                runs.add(new Run(producer, slot, key, null, fetch(producer.name(), () -> producer.produce(ctx))));
+            }
+        }
+
+        long deadline = System.nanoTime() + sourceTimeout.toNanos();
         List<FrameDefinition> frames = new ArrayList<>();
-        frames.addAll(posterFrames(ctx));
-        frames.addAll(eventFrames(ctx));
-        frames.addAll(weeklyContentFrames(ctx));
+        boolean degraded = false;
+        for (Run run : runs) {
+            if (run.reused() != null) {
+                frames.addAll(run.reused());
+                continue;
+            }
+            List<FrameDefinition> fetched = await(run.slot(), run.future(), deadline);
+            if (fetched == null) {
+                degraded = true;
+                Produced lastGood = lastProduced.get(run.slot());
+                fetched = lastGood == null ? List.of() : lastGood.frames();
+            } else {
+                fetched = List.copyOf(fetched);
+                lastProduced.put(run.slot(), new Produced(run.key(), fetched));
+            }
+            frames.addAll(fetched);
+        }
 
         return MusallahBoardPayload.builder()
                 .boardConfig(config)
                 .frames(frames)
+                .degraded(degraded)
                 .build();
     }
 
-    private List<FrameDefinition> posterFrames(BoardContext ctx) {
-        List<Poster> posters = posterService.getActivePosterFramesForBoard(ctx.getLocation());
-        List<FrameDefinition> out = new ArrayList<>(posters.size());
-        for (Poster p : posters) out.add(posterTransformer.transform(p, ctx));
-        return out;
+    /**
+     * Assemble every frame the board will show from ctx.now until ctx.now + horizon, each
+     * stamped with the window in which it applies: posters by their start/end dates,
+     * NEXT_PRAYER and DAILY_SCHEDULE frames per day, and event lists and weekly content per
+     * week. Day and week boundaries are taken in the board's timezone, and windows are
+     * clipped to the timeline. Isha + refreshAfterIshaaMinutes is added to the refresh hints.
+     */
+    public BoardTimeline assembleTimeline(BoardContext ctx, Duration horizon) {
+        ZoneId zone = ctx.getNow().getZone();
+        Instant from = ctx.getNow().toInstant();
+        Instant until = from.plus(horizon);
+        LocalDate firstDay = ctx.today();
+        LocalDate lastDay = LocalDate.ofInstant(until, zone);
+
+        List<FrameDefinition> frames = new ArrayList<>();
+        for (Poster p : posterService.getPostersForBoardActiveBetween(ctx.getLocation(), firstDay, lastDay)) {
+            frames.add(window(posterTransformer.transform(p, ctx),
+                    startOfDay(p.getStartDate(), zone), startOfDay(p.getEndDate(), zone), from, until));
+        }
+
+        // One query for every week the timeline touches, split per day and week below
+        BoardContext lastCtx = ctx.at(until.atZone(zone));
+        List<Event> events = boardService.getEventsForBoardInRange(ctx.getLocation(),
+                ctx.currentWeekStart().toEpochMilli(), lastCtx.currentWeekEnd().toEpochMilli());
+
+        Set<Instant> refreshAt = new TreeSet<>();
+        Set<Instant> eventWeeks = new HashSet<>();
+        Set<WeekId> contentWeeks = new HashSet<>();
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            BoardContext dayCtx = day.equals(firstDay) ? ctx : ctx.at(day.atStartOfDay(zone));
+            Instant dayStart = startOfDay(day, zone);
+            if (dayStart.isAfter(from)) {
+                refreshAt.add(dayStart);
+            }
+
+            Optional<PrayerTimes> prayerTimes = prayerTimeService.getPrayerTimes(dayCtx);
+            if (prayerTimes.isPresent()) {
+                frames.add(window(nextPrayerTransformer.transform(prayerTimes.get(), dayCtx),
+                        dayStart, dayCtx.nextDayStart(), from, until));
+                Instant afterIsha = prayerTimes.get().afterIsha(ctx.getConfig().getRefreshAfterIshaaMinutes());
+                if (afterIsha != null && afterIsha.isAfter(from) && afterIsha.isBefore(until)) {
+                    refreshAt.add(afterIsha);
+                }
+            }
+
+            List<Event> dayEvents = EventFrameProducer.overlapping(events, dayCtx.currentDayStart(), dayCtx.currentDayEnd());
+            if (!dayEvents.isEmpty() || prayerTimes.isPresent()) {
+                frames.add(window(dailyScheduleTransformer.transform(dayEvents, dayCtx),
+                        dayStart, dayCtx.nextDayStart(), from, until));
+            }
+
+            Instant weekStart = dayCtx.currentWeekStart();
+            if (eventWeeks.add(weekStart)) {
+                List<Event> weekEvents = EventFrameProducer.overlapping(events, weekStart, dayCtx.currentWeekEnd());
+                if (!weekEvents.isEmpty()) {
+                    Instant weekEnd = startOfDay(LocalDate.ofInstant(weekStart, zone).plusWeeks(1), zone);
+                    frames.add(window(eventListTransformer.transform(weekEvents, dayCtx), weekStart, weekEnd, from, until));
+                }
+            }
+
+            WeekId weekId = WeekId.fromDate(day);
+            if (contentWeeks.add(weekId)) {
+                WeeklyContent content = boardService.getWeeklyContent(weekId).orElse(null);
+                Instant contentStart = startOfDay(weekId.getWeekStart(), zone);
+                Instant contentEnd = startOfDay(weekId.getWeekEnd().plusDays(1), zone);
+                for (FrameDefinition frame : weeklyContentTransformer.transform(content, dayCtx)) {
+                    frames.add(window(frame, contentStart, contentEnd, from, until));
+                }
+            }
+        }
+        refreshAt.add(until);
+
+        return BoardTimeline.builder()
+                .boardConfig(ctx.getConfig())
+                .generatedAt(from)
+                .validUntil(until)
+                .refreshAt(new ArrayList<>(refreshAt))
+                .frames(frames)
+                .build();
+    }
+
+    private Future<List<FrameDefinition>> fetch(String source, Supplier<List<FrameDefinition>> producer) {
+        Timer timer = meterRegistry.timer("board.payload.source", "source", source);
+        return sourceExecutor.submit(() -> timer.record(producer));
+    }
+
+    /**
+     * The source's frames, or null if it failed or missed the deadline.
+     */
+    private List<FrameDefinition> await(SourceKey key, Future<List<FrameDefinition>> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Board source {} for {} took longer than {}; using its last good frames",
+                    key.source(), key.location(), sourceTimeout);
+        } catch (ExecutionException e) {
+            log.error("Board source {} for {} failed; using its last good frames",
+                    key.source(), key.location(), e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        meterRegistry.counter("board.payload.source.fallback", "source", key.source()).increment();
+        return null;
     }
 
-    private List<FrameDefinition> eventFrames(BoardContext ctx) {
-        long weekStart = ctx.currentWeekStart().toEpochMilli();
-        long weekEnd = ctx.currentWeekEnd().toEpochMilli();
-        List<Event> events = boardService.getEventsForBoardInRange(ctx.getLocation(), weekStart, weekEnd);
-        if (events.isEmpty()) return List.of();
-        return List.of(eventListTransformer.transform(events, ctx));
+    private static Instant startOfDay(LocalDate date, ZoneId zone) {
+        return date == null ? null : date.atStartOfDay(zone).toInstant();
     }
 
-    private List<FrameDefinition> weeklyContentFrames(BoardContext ctx) {
-        WeeklyContent content = boardService.getCurrentWeeklyContent().orElse(null);
-        return weeklyContentTransformer.transform(content, ctx);
+    /**
+     * Stamp the frame with [start, end) clipped to the timeline; a null bound means open.
+     */
+    private static FrameDefinition window(FrameDefinition frame, Instant start, Instant end, Instant from, Instant until) {
+        frame.setValidFrom(start == null || start.isBefore(from) ? from : start);
+        frame.setValidUntil(end == null || end.isAfter(until) ? until : end);
+        return frame;
     }
 }
@@ -0,0 +1,201 @@
+package com.ibrasoft.lensbridge.service.board;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibrasoft.lensbridge.dto.response.MusallahBoardPayload;
+import com.ibrasoft.lensbridge.model.board.BoardConfig;
+import com.ibrasoft.lensbridge.model.board.BoardLocation;
+import com.ibrasoft.lensbridge.service.BoardService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Per-BoardLocation cache of the serialised board payload (plain and gzipped), so polling
+ * screens are served from memory instead of four Mongo queries and a Jackson pass.
+ *
+ * An entry is dropped when BoardService or PosterService publishes a
+ * {@link BoardContentChangedEvent} for its board (on every instance, via the
+ * BoardBroadcastBus), and expires at the next midnight in the board's timezone (which is
+ * also where the week rolls over); SignboardHandler pushes the rebuilt payload to
+ * subscribed boards at that moment. If a broadcast is lost, an entry is at most
+ * board.payload-cache.max-age plus board.index.reload-interval (the poster and event indexes'
+ * full reload) stale, and board.payload-cache.degraded-max-age how long a payload
+ * the assembler had to patch up with fallback frames is kept.
+ *
+ * Each payload's version is derived from a hash of its content, so every instance gives
+ * the same content the same version and a board can move between instances. The last
+ * board.payload-cache.history versions per board are kept so SignboardHandler can send a
+ * JSON Patch from whatever version a board last acknowledged.
+ */
+@Service
+@Slf4j
+public class BoardPayloadCache {
+
+    private final BoardPayloadAssembler assembler;
+    private final BoardService boardService;
+    private final BoardContentVersions contentVersions;
+    private final ObjectMapper objectMapper;
+    private final Duration maxAge;
+    private final Duration degradedMaxAge;
+    private final int historySize;
+
+    private final Map<BoardLocation, CachedBoardPayload> entries = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a build that raced with a write isn't stored. Both the
+    // bump and the store happen inside entries.compute, so they can't interleave.
+    private final Map<BoardLocation, AtomicLong> generations = new EnumMap<>(BoardLocation.class);
+    // Recent distinct payloads per board, oldest first; guarded by the board's generation lock
+    private final Map<BoardLocation, Deque<CachedBoardPayload>> history = new EnumMap<>(BoardLocation.class);
+
+    public BoardPayloadCache(BoardPayloadAssembler assembler,
+                             BoardService boardService,
+                             BoardContentVersions contentVersions,
+                             ObjectMapper objectMapper,
+                             @Value("${board.payload-cache.max-age:10m}") Duration maxAge,
+                             @Value("${board.payload-cache.history:16}") int historySize,
+                             @Value("${board.payload-cache.degraded-max-age:30s}") Duration degradedMaxAge) {
+        this.assembler = assembler;
+        this.boardService = boardService;
+        this.contentVersions = contentVersions;
+        this.objectMapper = objectMapper;
+        this.maxAge = maxAge;
+        this.degradedMaxAge = degradedMaxAge;
+        this.historySize = Math.max(1, historySize);
+        for (BoardLocation location : BoardLocation.values()) {
+            generations.put(location, new AtomicLong());
+            history.put(location, new ArrayDeque<>());
+        }
+    }
+
+    public CachedBoardPayload get(BoardLocation location) {
+        CachedBoardPayload cached = entries.get(location);
+        if (cached != null && Instant.now().isBefore(cached.validUntil())) {
+            return cached;
+        }
+        AtomicLong generation = generations.get(location);
+        synchronized (generation) {
+            cached = entries.get(location);
+            if (cached != null && Instant.now().isBefore(cached.validUntil())) {
+                return cached;
+            }
+            long startedAt = generation.get();
+            CachedBoardPayload built = record(location, build(location));
+            entries.compute(location, (key, current) -> generation.get() == startedAt ? built : current);
+            return built;
+        }
+    }
+
+    /**
+     * A recent payload by version, if it is still in the history.
+     */
+    public Optional<CachedBoardPayload> getVersion(BoardLocation location, long version) {
+        synchronized (generations.get(location)) {
+            for (CachedBoardPayload payload : history.get(location)) {
+                if (payload.version() == version) {
+                    return Optional.of(payload);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Drop the cached payloads for these boards; the next request rebuilds them, re-running
+     * only the frame producers that read one of the changed sources.
+     */
+    public void invalidate(Collection<BoardLocation> locations, Collection<BoardSource> sources) {
+        contentVersions.bump(locations, sources);
+        for (BoardLocation location : locations) {
+            entries.compute(location, (key, current) -> {
+                generations.get(location).incrementAndGet();
+                return null;
+            });
+        }
+        log.debug("Invalidated board payload cache for {} ({})", locations, sources);
+    }
+
+    /**
+     * Remember a freshly built payload in the history, replacing an older entry with the
+     * same content.
+     */
+    private CachedBoardPayload record(BoardLocation location, CachedBoardPayload built) {
+        Deque<CachedBoardPayload> versions = history.get(location);
+        versions.removeIf(previous -> previous.version() == built.version());
+        versions.addLast(built);
+        while (versions.size() > historySize) {
+            versions.pollFirst();
+        }
+        return built;
+    }
+
+    private CachedBoardPayload build(BoardLocation location) {
+        BoardConfig config = boardService.getBoardConfig(location).orElse(null);
+        BoardContext ctx = BoardContext.of(location, config);
+        MusallahBoardPayload payload = assembler.assemble(ctx);
+
+        JsonNode tree = objectMapper.valueToTree(payload);
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(tree);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialise board payload for " + location, e);
+        }
+        // A payload built from fallback frames is retried soon
+        Instant maxAgeLimit = ctx.getNow().toInstant().plus(payload.isDegraded() ? degradedMaxAge : maxAge);
+        Instant nextDay = ctx.nextDayStart();
+        Instant validUntil = nextDay.isBefore(maxAgeLimit) ? nextDay : maxAgeLimit;
+        log.debug("Built board payload for {}: {} bytes, valid until {}", location, json.length, validUntil);
+        byte[] digest = sha256(json);
+        return new CachedBoardPayload(version(digest), tree, json, gzip(json),
+                "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"", validUntil);
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * First 53 bits of the digest, so the version survives a round trip through a
+     * JavaScript number.
+     */
+    private static long version(byte[] digest) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (digest[i] & 0xff);
+        }
+        return value >>> 11;
+    }
+}
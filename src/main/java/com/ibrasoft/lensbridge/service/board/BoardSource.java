@@ -0,0 +1,12 @@
+package com.ibrasoft.lensbridge.service.board;
+
+/**
+ * The kinds of data a board payload is built from. Writes say which one they changed, so
+ * only the frames built from it are rebuilt.
+ */
+public enum BoardSource {
+    CONFIG,
+    POSTERS,
+    EVENTS,
+    WEEKLY_CONTENT
+}
@@ -0,0 +1,27 @@
+package com.ibrasoft.lensbridge.service.board;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Instant;
+
+/**
+ * A board payload serialised once and shared by every poll until it expires or is invalidated.
+ *
+ * @param version    derived from the content, the same on every instance; pushed to boards
+ *                   over the signboard socket so they can acknowledge what they hold
+ * @param tree       the payload as a JSON tree, used to compute deltas; must not be modified
+ * @param json       the payload as UTF-8 JSON
+ * @param gzip       json, gzip-compressed
+ * @param eTag       strong ETag of the uncompressed JSON, quoted; see {@link #gzipETag()}
+ * @param validUntil when the payload must be rebuilt even without writes (next day boundary)
+ */
+public record CachedBoardPayload(long version, JsonNode tree, byte[] json, byte[] gzip, String eTag,
+                                 Instant validUntil) {
+
+    /**
+     * Strong ETag of the gzip body. The bytes differ from json's, so the ETag must too.
+     */
+    public String gzipETag() {
+        return eTag.substring(0, eTag.length() - 1) + "-gzip\"";
+    }
+}
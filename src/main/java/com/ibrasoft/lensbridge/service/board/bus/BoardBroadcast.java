@@ -0,0 +1,32 @@
+package com.ibrasoft.lensbridge.service.board.bus;
+
+import com.ibrasoft.lensbridge.model.board.BoardLocation;
+import com.ibrasoft.lensbridge.service.board.BoardSource;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A message every instance relays to the boards connected to it.
+ *
+ * @param type      CONTENT_CHANGED after a write (instances drop their cached payload and
+ *                  push the new one), or REFRESH when an admin asks boards to reload
+ * @param locations boards affected; for REFRESH an empty set means every board
+ * @param deviceId  for REFRESH, a single device to target, or null
+ * @param sources   for CONTENT_CHANGED, what kind of data changed
+ * @param remote    true if the message was published by another instance
+ */
+public record BoardBroadcast(Type type, Set<BoardLocation> locations, String deviceId, Set<BoardSource> sources,
+                             boolean remote) {
+
+    public enum Type { CONTENT_CHANGED, REFRESH }
+
+    public static BoardBroadcast contentChanged(Set<BoardLocation> locations, Set<BoardSource> sources) {
+        return new BoardBroadcast(Type.CONTENT_CHANGED, EnumSet.copyOf(locations), null, EnumSet.copyOf(sources), false);
+    }
+
+    public static BoardBroadcast refresh(BoardLocation board, String deviceId) {
+        Set<BoardLocation> locations = board == null ? EnumSet.noneOf(BoardLocation.class) : EnumSet.of(board);
+        return new BoardBroadcast(Type.REFRESH, locations, deviceId, EnumSet.noneOf(BoardSource.class), false);
+    }
+}
@@ -0,0 +1,19 @@
+package com.ibrasoft.lensbridge.service.board.bus;
+
+import java.util.function.Consumer;
+
+/**
+ * Fans board messages out to every backend instance, so boards hear about a change
+ * whichever instance they are connected to. Chosen with board.bus.type: local (default,
+ * single instance) or mongo.
+ *
+ * Implementations deliver a published message to this instance's subscribers
+ * synchronously before returning, and to other instances' subscribers as soon as they can.
+ * publish() throws if other instances can't be reached; local delivery has happened by then.
+ */
+public interface BoardBroadcastBus {
+
+    void publish(BoardBroadcast message);
+
+    void subscribe(Consumer<BoardBroadcast> subscriber);
+}
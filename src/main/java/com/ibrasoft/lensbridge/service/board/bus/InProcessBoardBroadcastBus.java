@@ -0,0 +1,41 @@
+package com.ibrasoft.lensbridge.service.board.bus;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers messages within this instance only. The default, for single-instance
+ * deployments and tests.
+ */
+@Component
+@ConditionalOnProperty(name = "board.bus.type", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class InProcessBoardBroadcastBus implements BoardBroadcastBus {
+
+    private final List<Consumer<BoardBroadcast>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(BoardBroadcast message) {
+        deliver(subscribers, message);
+    }
+
+    @Override
+    public void subscribe(Consumer<BoardBroadcast> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    static void deliver(List<Consumer<BoardBroadcast>> subscribers, BoardBroadcast message) {
+        for (Consumer<BoardBroadcast> subscriber : subscribers) {
+            try {
+                subscriber.accept(message);
+            } catch (RuntimeException e) {
+                log.error("Board broadcast subscriber failed for {}", message, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.ibrasoft.lensbridge.service.board.bus;
+
+import com.ibrasoft.lensbridge.dto.response.ErrorResponse;
+import com.ibrasoft.lensbridge.exception.ApiResponseException;
+import com.ibrasoft.lensbridge.model.board.BoardLocation;
+import com.ibrasoft.lensbridge.service.board.BoardSource;
+import com.mongodb.CursorType;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Cluster bus over a Mongo capped collection. publish() delivers locally, then inserts the
+ * message; every instance tails the collection with a tailable cursor and delivers what
+ * other instances inserted.
+ *
+ * If the cursor dies (failover, collection dropped) it is reopened after the last _id it
+ * delivered, so nothing written in the same millisecond is skipped or repeated. A failed
+ * insert is retried a few times; if it still fails publish() throws, once local
+ * subscribers have the message, and board.bus.publish.failures is incremented.
+ */
+@Component
+@ConditionalOnProperty(name = "board.bus.type", havingValue = "mongo")
+@Slf4j
+public class MongoBoardBroadcastBus implements BoardBroadcastBus {
+
+    private static final int SEEN_IDS = 256;
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+    private static final int PUBLISH_ATTEMPTS = 3;
+    private static final long PUBLISH_RETRY_DELAY_MILLIS = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final String collectionName;
+    private final DataSize cappedSize;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Consumer<BoardBroadcast>> subscribers = new CopyOnWriteArrayList<>();
+    private final Set<ObjectId> recentlySeen = new LinkedHashSet<>();
+    private final Counter publishFailures;
+
+    private volatile boolean running;
+    private volatile MongoCursor<Document> cursor;
+    private Thread tailer;
+
+    public MongoBoardBroadcastBus(MongoTemplate mongoTemplate,
+                                  @Value("${board.bus.collection:board_broadcasts}") String collectionName,
+                                  @Value("${board.bus.capped-size:1MB}") DataSize cappedSize,
+                                  MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.collectionName = collectionName;
+        this.cappedSize = cappedSize;
+        this.publishFailures = Counter.builder("board.bus.publish.failures")
+                .description("Board broadcasts that other instances never received")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!mongoTemplate.collectionExists(collectionName)) {
+            try {
+                mongoTemplate.createCollection(collectionName,
+                        CollectionOptions.empty().capped().size(cappedSize.toBytes()));
+            } catch (RuntimeException e) {
+                // Another instance created it first
+                log.debug("Could not create {}: {}", collectionName, e.getMessage());
+            }
+        }
+        running = true;
+        tailer = Thread.ofPlatform().name("board-bus-tailer").daemon().start(this::tail);
+        log.info("Board broadcast bus on Mongo collection {} (node {})", collectionName, nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        MongoCursor<Document> current = cursor;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (RuntimeException ignored) {
+                // closing a cursor that is already dead
+            }
+        }
+        if (tailer != null) {
+            tailer.interrupt();
+        }
+    }
+
+    @Override
+    public void publish(BoardBroadcast message) {
+        InProcessBoardBroadcastBus.deliver(subscribers, message);
+        // The driver sets _id on the first attempt and retries reuse it, so an insert that
+        // landed but wasn't acknowledged can't be delivered twice
+        Document document = toDocument(message);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                mongoTemplate.getCollection(collectionName).insertOne(document);
+                return;
+            } catch (RuntimeException e) {
+                if (e instanceof MongoWriteException write
+                        && ErrorCategory.fromErrorCode(write.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                    return;
+                }
+                if (attempt >= PUBLISH_ATTEMPTS || !pauseBeforeRetry(attempt)) {
+                    throw publishFailed(message, e);
+                }
+                log.warn("Publishing board broadcast failed (attempt {}), retrying: {}", attempt, e.getMessage());
+            }
+        }
+    }
+
+    private ApiResponseException publishFailed(BoardBroadcast message, RuntimeException cause) {
+        publishFailures.increment();
+        log.error("Failed to publish board broadcast {}; other instances won't see it", message, cause);
+        return new ApiResponseException(HttpStatus.SERVICE_UNAVAILABLE,
+                ErrorResponse.of("Boards connected to other instances could not be reached"));
+    }
+
+    private static boolean pauseBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(PUBLISH_RETRY_DELAY_MILLIS * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<BoardBroadcast> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    private void tail() {
+        // Only messages published from now on
+        ObjectId lastSeen = new ObjectId();
+        while (running) {
+            try (MongoCursor<Document> tailing = mongoTemplate.getCollection(collectionName)
+                    .find(Filters.gt("_id", lastSeen))
+                    .cursorType(CursorType.TailableAwait)
+                    .noCursorTimeout(true)
+                    .iterator()) {
+                cursor = tailing;
+                while (running && tailing.hasNext()) {
+                    Document document = tailing.next();
+                    ObjectId id = document.getObjectId("_id");
+                    if (id != null && id.compareTo(lastSeen) > 0) {
+                        lastSeen = id;
+                    }
+                    if (markSeen(id) && !nodeId.equals(document.getString("node"))) {
+                        BoardBroadcast message = fromDocument(document);
+                        if (message != null) {
+                            InProcessBoardBroadcastBus.deliver(subscribers, message);
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (running) {
+                    log.warn("Board broadcast cursor on {} failed, reopening: {}", collectionName, e.getMessage());
+                }
+            }
+            // A tailable cursor on an empty capped collection closes straight away
+            sleepBeforeReconnect();
+        }
+    }
+
+    /**
+     * @return false if this id was already delivered
+     */
+    private boolean markSeen(ObjectId id) {
+        if (id == null) {
+            return true;
+        }
+        if (!recentlySeen.add(id)) {
+            return false;
+        }
+        if (recentlySeen.size() > SEEN_IDS) {
+            recentlySeen.remove(recentlySeen.iterator().next());
+        }
+        return true;
+    }
+
+    private void sleepBeforeReconnect() {
+        if (!running) {
+            return;
+        }
+        try {
+            Thread.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private Document toDocument(BoardBroadcast message) {
+        List<String> locations = new ArrayList<>();
+        for (BoardLocation location : message.locations()) {
+            locations.add(location.name());
+        }
+        List<String> sources = new ArrayList<>();
+        for (BoardSource source : message.sources()) {
+            sources.add(source.name());
+        }
+        return new Document("node", nodeId)
+                .append("ts", new Date())
+                .append("type", message.type().name())
+                .append("locations", locations)
+                .append("device", message.deviceId())
+                .append("sources", sources);
+    }
+
+    private static BoardBroadcast fromDocument(Document document) {
+        try {
+            BoardBroadcast.Type type = BoardBroadcast.Type.valueOf(document.getString("type"));
+            EnumSet<BoardLocation> locations = EnumSet.noneOf(BoardLocation.class);
+            for (String name : document.getList("locations", String.class, List.of())) {
+                locations.add(BoardLocation.valueOf(name));
+            }
+            // Messages from older instances don't say what changed
+            EnumSet<BoardSource> sources = EnumSet.allOf(BoardSource.class);
+            List<String> sourceNames = document.getList("sources", String.class);
+            if (sourceNames != null) {
+                sources.clear();
+                for (String name : sourceNames) {
+                    sources.add(BoardSource.valueOf(name));
+                }
+            }
+            return new BoardBroadcast(type, locations, document.getString("device"), sources, true);
+        } catch (IllegalArgumentException e) {
+            // Written by a newer version of the application
+            log.warn("Ignoring unreadable board broadcast {}", document.toJson());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.ibrasoft.lensbridge.service.board.index;
+
+import com.ibrasoft.lensbridge.model.board.Audience;
+import com.ibrasoft.lensbridge.util.IntervalTree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Board items (posters, events) in one IntervalTree per Audience, so "active at" and
+ * "overlaps" lookups don't go to Mongo. A lookup for an audience also returns BOTH items,
+ * like the {@code $in: [audience, 'BOTH']} repository queries it replaces.
+ *
+ * Writes rebuild the trees of the audiences they touch (a few hundred items at most);
+ * lookups read an immutable snapshot and never block. Returned items are the indexed
+ * instances; callers that hand them out copy them first.
+ *
+ * A reload reads its snapshot outside the lock, so writes made while it runs are recorded
+ * and replayed on top of the snapshot before it is swapped in.
+ */
+public class AudienceIntervalIndex<T> {
+
+    private final Function<T, UUID> id;
+    private final Function<T, Audience> audience;
+    private final Function<T, IntervalTree.Interval<T>> interval;
+    private final Comparator<T> order;
+
+    // Guarded by this
+    private final Map<UUID, T> items = new HashMap<>();
+    private volatile Map<Audience, IntervalTree<T>> trees = Map.of();
+    private volatile boolean loaded;
+    // Writes since the oldest reload in flight started, null for a removal; guarded by this
+    private final Map<UUID, T> writesDuringReload = new HashMap<>();
+    private int reloadsInFlight;
+
+    /**
+     * @param interval the item's closed interval, or null if it can never match a lookup
+     * @param order    order of lookup results
+     */
+    public AudienceIntervalIndex(Function<T, UUID> id, Function<T, Audience> audience,
+                                 Function<T, IntervalTree.Interval<T>> interval, Comparator<T> order) {
+        this.id = id;
+        this.audience = audience;
+        this.interval = interval;
+        this.order = order;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Replace the whole index with what {@code source} returns.
+     */
+    public void reload(Supplier<? extends Collection<T>> source) {
+        synchronized (this) {
+            reloadsInFlight++;
+        }
+        Collection<T> all = null;
+        try {
+            all = source.get();
+        } finally {
+            synchronized (this) {
+                if (all != null) {
+                    items.clear();
+                    for (T item : all) {
+                        items.put(id.apply(item), item);
+                    }
+                    for (Map.Entry<UUID, T> write : writesDuringReload.entrySet()) {
+                        if (write.getValue() == null) {
+                            items.remove(write.getKey());
+                        } else {
+                            items.put(write.getKey(), write.getValue());
+                        }
+                    }
+                    rebuild(EnumSet.allOf(Audience.class));
+                    loaded = true;
+                }
+                if (--reloadsInFlight == 0) {
+                    writesDuringReload.clear();
+                }
+            }
+        }
+    }
+
+    public synchronized void put(T item) {
+        if (reloadsInFlight > 0) {
+            writesDuringReload.put(id.apply(item), item);
+        }
+        T previous = items.put(id.apply(item), item);
+        Set<Audience> touched = EnumSet.noneOf(Audience.class);
+        addAudience(touched, item);
+        if (previous != null) {
+            addAudience(touched, previous);
+        }
+        rebuild(touched);
+    }
+
+    public synchronized void remove(UUID itemId) {
+        if (reloadsInFlight > 0) {
+            writesDuringReload.put(itemId, null);
+        }
+        T previous = items.remove(itemId);
+        if (previous != null) {
+            Set<Audience> touched = EnumSet.noneOf(Audience.class);
+            addAudience(touched, previous);
+            rebuild(touched);
+        }
+    }
+
+    /**
+     * Items for the audience (and BOTH) whose interval shares a point with [from, to].
+     */
+    public List<T> overlapping(Audience forAudience, long from, long to) {
+        Map<Audience, IntervalTree<T>> snapshot = trees;
+        List<T> out = new ArrayList<>();
+        IntervalTree<T> own = snapshot.get(forAudience);
+        if (own != null) {
+            out.addAll(own.overlapping(from, to));
+        }
+        IntervalTree<T> both = snapshot.get(Audience.BOTH);
+        if (both != null && forAudience != Audience.BOTH) {
+            out.addAll(both.overlapping(from, to));
+        }
+        out.sort(order);
+        return out;
+    }
+
+    private void rebuild(Set<Audience> audiences) {
+        Map<Audience, IntervalTree<T>> next = new EnumMap<>(Audience.class);
+        next.putAll(trees);
+        for (Audience a : audiences) {
+            List<IntervalTree.Interval<T>> intervals = new ArrayList<>();
+            for (T item : items.values()) {
+                IntervalTree.Interval<T> i = interval.apply(item);
+                if (i != null && audience.apply(item) == a) {
+                    intervals.add(i);
+                }
+            }
+            next.put(a, IntervalTree.of(intervals));
+        }
+        trees = next;
+    }
+
+    /**
+     * Items without an audience match no lookup, as in the repository queries.
+     */
+    private void addAudience(Set<Audience> audiences, T item) {
+        Audience a = audience.apply(item);
+        if (a != null) {
+            audiences.add(a);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.ibrasoft.lensbridge.service.board.index;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ibrasoft.lensbridge.model.board.Audience;
+import com.ibrasoft.lensbridge.model.board.Event;
+import com.ibrasoft.lensbridge.model.board.Recurrence;
+import com.ibrasoft.lensbridge.repository.EventRepository;
+import com.ibrasoft.lensbridge.service.board.BoardSource;
+import com.ibrasoft.lensbridge.service.board.bus.BoardBroadcast;
+import com.ibrasoft.lensbridge.service.board.bus.BoardBroadcastBus;
+import com.ibrasoft.lensbridge.util.IntervalTree;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory index of board events by [startTimestamp, endTimestamp], per Audience.
+ * BoardService updates it on every write; it is reloaded from Mongo when another instance
+ * reports an event change, and every board.index.reload-interval in case such a broadcast
+ * was lost.
+ *
+ * A recurring series is indexed once, from its first start to the end of its last
+ * occurrence (open-ended without until or count), and expanded only within the window
+ * being looked up. Expansions are memoized per series and window, widened to whole UTC
+ * days so nearby windows share one, and filtered to the window asked for: the payload
+ * assembler asks for the same day and week windows on every rebuild.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventIndex {
+
+    private final EventRepository eventRepository;
+    private final BoardBroadcastBus bus;
+
+    @Value("${board.index.reload-interval:5m}")
+    private Duration reloadInterval;
+
+    private final ScheduledExecutorService reloader = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("event-index-reload").daemon().factory());
+
+    private final AudienceIntervalIndex<Event> index = new AudienceIntervalIndex<>(
+            Event::getId,
+            Event::getAudience,
+            EventIndex::interval,
+            Comparator.comparing(Event::getStartTimestamp));
+
+    private static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+
+    // Dropped for a series when it is written; the hash covers edits that arrive by reload
+    private final Cache<ExpansionKey, List<Event>> expansions = Caffeine.newBuilder()
+            .maximumSize(1024)
+            .build();
+
+    private record ExpansionKey(UUID seriesId, int seriesHash, long from, long to) {
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        bus.subscribe(this::onBroadcast);
+        if (reloadInterval.isPositive()) {
+            reloader.scheduleWithFixedDelay(this::load, reloadInterval.toMillis(), reloadInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        reloader.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            index.reload(eventRepository::findAll);
+            expansions.invalidateAll();
+            log.debug("Reloaded the board event index");
+        } catch (RuntimeException e) {
+            // Retried on first lookup or at the next reload
+            log.warn("Could not load the board event index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Events, and occurrences of series, for the audience (or BOTH) overlapping
+     * [rangeStart, rangeEnd], by start time.
+     */
+    public List<Event> overlapping(Audience audience, long rangeStart, long rangeEnd) {
+        ensureLoaded();
+        List<Event> hits = index.overlapping(audience, rangeStart, rangeEnd);
+        List<Event> out = new ArrayList<>(hits.size());
+        boolean expanded = false;
+        for (Event event : hits) {
+            if (event.getRecurrence() == null) {
+                out.add(event);
+            } else {
+                for (Event occurrence : expand(event, rangeStart, rangeEnd)) {
+                    long end = occurrence.getEndTimestamp() != null
+                            ? occurrence.getEndTimestamp() : occurrence.getStartTimestamp();
+                    if (occurrence.getStartTimestamp() <= rangeEnd && end >= rangeStart) {
+                        out.add(occurrence);
+                    }
+                }
+                expanded = true;
+            }
+        }
+        if (expanded) {
+            out.sort(Comparator.comparing(Event::getStartTimestamp));
+        }
+        return out.stream().map(EventIndex::copy).toList();
+    }
+
+    /**
+     * Events for the audience (or BOTH) starting at or after the timestamp, by start time.
+     * A series contributes only its next occurrence.
+     */
+    public List<Event> startingFrom(Audience audience, long timestamp) {
+        ensureLoaded();
+        List<Event> out = new ArrayList<>();
+        for (Event event : index.overlapping(audience, timestamp, Long.MAX_VALUE)) {
+            if (event.getRecurrence() == null) {
+                if (event.getStartTimestamp() >= timestamp) {
+                    out.add(event);
+                }
+            } else {
+                RecurrenceExpander.next(event, timestamp).ifPresent(out::add);
+            }
+        }
+        out.sort(Comparator.comparing(Event::getStartTimestamp));
+        return out.stream().map(EventIndex::copy).toList();
+    }
+
+    public void put(Event event) {
+        index.put(copy(event));
+        forgetExpansions(event.getId());
+    }
+
+    public void remove(UUID eventId) {
+        index.remove(eventId);
+        forgetExpansions(eventId);
+    }
+
+    /**
+     * Occurrences of the series over the whole UTC days covering [from, to].
+     */
+    private List<Event> expand(Event series, long from, long to) {
+        long alignedFrom = Math.floorDiv(from, DAY_MILLIS) * DAY_MILLIS;
+        long alignedTo = to > Long.MAX_VALUE - DAY_MILLIS
+                ? Long.MAX_VALUE
+                : Math.floorDiv(to, DAY_MILLIS) * DAY_MILLIS + DAY_MILLIS - 1;
+        return expansions.get(new ExpansionKey(series.getId(), series.hashCode(), alignedFrom, alignedTo),
+                key -> RecurrenceExpander.expand(series, key.from(), key.to()));
+    }
+
+    private void forgetExpansions(UUID seriesId) {
+        expansions.asMap().keySet().removeIf(key -> key.seriesId().equals(seriesId));
+    }
+
+    private void ensureLoaded() {
+        if (!index.isLoaded()) {
+            index.reload(eventRepository::findAll);
+            expansions.invalidateAll();
+        }
+    }
+
+    private void onBroadcast(BoardBroadcast message) {
+        if (message.remote() && message.type() == BoardBroadcast.Type.CONTENT_CHANGED
+                && message.sources().contains(BoardSource.EVENTS)) {
+            load();
+        }
+    }
+
+    /**
+     * Indexed events and memoized occurrences are shared, so callers get their own copy.
+     */
+    private static Event copy(Event event) {
+        Recurrence recurrence = event.getRecurrence();
+        if (recurrence == null) {
+            return event.toBuilder().build();
+        }
+        return event.toBuilder()
+                .recurrence(recurrence.toBuilder()
+                        .byDay(recurrence.getByDay() != null ? new HashSet<>(recurrence.getByDay()) : null)
+                        .exceptions(recurrence.getExceptions() != null ? new ArrayList<>(recurrence.getExceptions()) : null)
+                        .build())
+                .build();
+    }
+
+    /**
+     * An event without an end is treated as instantaneous; a series spans all its occurrences.
+     */
+    private static IntervalTree.Interval<Event> interval(Event event) {
+        if (event.getStartTimestamp() == null) {
+            return null;
+        }
+        long end;
+        if (event.getRecurrence() != null) {
+            end = RecurrenceExpander.lastEnd(event);
+        } else {
+            end = event.getEndTimestamp() != null ? event.getEndTimestamp() : event.getStartTimestamp();
+        }
+        return new IntervalTree.Interval<>(event.getStartTimestamp(), end, event);
+    }
+}
@@ -0,0 +1,126 @@
+package com.ibrasoft.lensbridge.service.board.index;
+
+import com.ibrasoft.lensbridge.model.board.Audience;
+import com.ibrasoft.lensbridge.model.board.Poster;
+import com.ibrasoft.lensbridge.repository.PosterRepository;
+import com.ibrasoft.lensbridge.service.board.BoardSource;
+import com.ibrasoft.lensbridge.service.board.bus.BoardBroadcast;
+import com.ibrasoft.lensbridge.service.board.bus.BoardBroadcastBus;
+import com.ibrasoft.lensbridge.util.IntervalTree;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory index of posters by active date range, per Audience. PosterService updates it
+ * on every write; it is reloaded from Mongo when another instance reports a poster change,
+ * and every board.index.reload-interval in case such a broadcast was lost.
+ *
+ * A poster is active from startDate (inclusive) to endDate (exclusive), stored as the closed
+ * epoch-day interval [startDate, endDate - 1].
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PosterIndex {
+
+    private final PosterRepository posterRepository;
+    private final BoardBroadcastBus bus;
+
+    @Value("${board.index.reload-interval:5m}")
+    private Duration reloadInterval;
+
+    private final ScheduledExecutorService reloader = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("poster-index-reload").daemon().factory());
+
+    private final AudienceIntervalIndex<Poster> index = new AudienceIntervalIndex<>(
+            Poster::getId,
+            Poster::getAudience,
+            PosterIndex::interval,
+            Comparator.comparing(Poster::getStartDate).reversed());
+
+    @PostConstruct
+    public void subscribe() {
+        bus.subscribe(this::onBroadcast);
+        if (reloadInterval.isPositive()) {
+            reloader.scheduleWithFixedDelay(this::load, reloadInterval.toMillis(), reloadInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        reloader.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            index.reload(posterRepository::findAll);
+            log.debug("Reloaded the poster index");
+        } catch (RuntimeException e) {
+            // Retried on first lookup or at the next reload
+            log.warn("Could not load the poster index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Posters for the audience (or BOTH) active on the date, newest start first.
+     */
+    public List<Poster> activeAt(Audience audience, LocalDate date) {
+        return activeBetween(audience, date, date);
+    }
+
+    /**
+     * Posters for the audience (or BOTH) active on any day from {@code from} to {@code to}
+     * inclusive, newest start first.
+     */
+    public List<Poster> activeBetween(Audience audience, LocalDate from, LocalDate to) {
+        ensureLoaded();
+        return index.overlapping(audience, from.toEpochDay(), to.toEpochDay()).stream()
+                .map(poster -> poster.toBuilder().build())
+                .toList();
+    }
+
+    public void put(Poster poster) {
+        index.put(poster.toBuilder().build());
+    }
+
+    public void remove(UUID posterId) {
+        index.remove(posterId);
+    }
+
+    private void ensureLoaded() {
+        if (!index.isLoaded()) {
+            index.reload(posterRepository::findAll);
+        }
+    }
+
+    private void onBroadcast(BoardBroadcast message) {
+        if (message.remote() && message.type() == BoardBroadcast.Type.CONTENT_CHANGED
+                && message.sources().contains(BoardSource.POSTERS)) {
+            load();
+        }
+    }
+
+    private static IntervalTree.Interval<Poster> interval(Poster poster) {
+        if (poster.getStartDate() == null || poster.getEndDate() == null) {
+            return null;
+        }
+        return new IntervalTree.Interval<>(poster.getStartDate().toEpochDay(), poster.getEndDate().toEpochDay() - 1, poster);
+    }
+}
@@ -0,0 +1,205 @@
+package com.ibrasoft.lensbridge.service.board.index;
+
+import com.ibrasoft.lensbridge.model.board.Event;
+import com.ibrasoft.lensbridge.model.board.Recurrence;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Expands an event series into its occurrences. Only the occurrences near the requested
+ * window are generated: without a count, whole periods before the window are skipped
+ * arithmetically, so the cost depends on the window and not on how long the series has run.
+ *
+ * An occurrence is a copy of the series with its own start and end and an id derived from
+ * the series id and its date; it carries the series' id as seriesId, and its recurrence, so
+ * clients can tell occurrences apart from each other and from single events.
+ */
+@Slf4j
+public final class RecurrenceExpander {
+
+    /**
+     * Upper bound on the occurrences returned by one expansion.
+     */
+    static final int MAX_OCCURRENCES = 1000;
+
+    private RecurrenceExpander() {
+    }
+
+    @FunctionalInterface
+    private interface OccurrenceVisitor {
+        /**
+         * @return false to stop the walk
+         */
+        boolean visit(long start, long end);
+    }
+
+    /**
+     * Occurrences of the series that share a point with [from, to], by start time.
+     */
+    public static List<Event> expand(Event series, long from, long to) {
+        List<Event> out = new ArrayList<>();
+        walk(series, from, (start, end) -> {
+            if (start > to) {
+                return false;
+            }
+            if (end >= from) {
+                out.add(occurrence(series, start, end));
+            }
+            if (out.size() >= MAX_OCCURRENCES) {
+                log.debug("Expansion of series {} truncated at {} occurrences", series.getId(), MAX_OCCURRENCES);
+                return false;
+            }
+            return true;
+        });
+        return out;
+    }
+
+    /**
+     * The first occurrence starting at or after the timestamp.
+     */
+    public static Optional<Event> next(Event series, long timestamp) {
+        Event[] found = new Event[1];
+        walk(series, timestamp, (start, end) -> {
+            if (start >= timestamp) {
+                found[0] = occurrence(series, start, end);
+                return false;
+            }
+            return true;
+        });
+        return Optional.ofNullable(found[0]);
+    }
+
+    /**
+     * End of the series' last occurrence, or Long.MAX_VALUE for a series without until or count.
+     */
+    public static long lastEnd(Event series) {
+        Recurrence recurrence = series.getRecurrence();
+        if (recurrence.getUntil() == null && recurrence.getCount() == null) {
+            return Long.MAX_VALUE;
+        }
+        long[] last = {series.getStartTimestamp()};
+        walk(series, Long.MIN_VALUE, (start, end) -> {
+            last[0] = end;
+            return true;
+        });
+        return last[0];
+    }
+
+    /**
+     * Visits the occurrences in order, skipping exceptions. Occurrences ending before
+     * notBefore may be skipped.
+     */
+    private static void walk(Event series, long notBefore, OccurrenceVisitor visitor) {
+        Recurrence recurrence = series.getRecurrence();
+        long firstStart = series.getStartTimestamp();
+        long duration = series.getEndTimestamp() != null ? Math.max(0, series.getEndTimestamp() - firstStart) : 0;
+        ZoneId zone = zone(recurrence);
+        ZonedDateTime first = Instant.ofEpochMilli(firstStart).atZone(zone);
+        LocalDate firstDate = first.toLocalDate();
+        LocalTime time = first.toLocalTime();
+
+        boolean weekly = recurrence.getFrequency() == Recurrence.Frequency.WEEKLY;
+        int interval = recurrence.getInterval() != null ? Math.max(1, recurrence.getInterval()) : 1;
+        long periodDays = weekly ? 7L * interval : interval;
+        LocalDate periodStart = weekly ? firstDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : firstDate;
+        Set<DayOfWeek> days = new TreeSet<>();
+        if (weekly) {
+            if (recurrence.getByDay() != null) {
+                days.addAll(recurrence.getByDay());
+            }
+            if (days.isEmpty()) {
+                days.add(firstDate.getDayOfWeek());
+            }
+        }
+        Set<LocalDate> exceptions = recurrence.getExceptions() != null ? new HashSet<>(recurrence.getExceptions()) : Set.of();
+        LocalDate until = recurrence.getUntil();
+        Integer count = recurrence.getCount();
+
+        long period = 0;
+        if (count == null && notBefore > firstStart + duration) {
+            // A day of slack either side of the window covers DST and timezone offsets
+            LocalDate earliest = Instant.ofEpochMilli(notBefore - duration).atZone(zone).toLocalDate().minusDays(1);
+            period = Math.max(0, ChronoUnit.DAYS.between(periodStart, earliest) / periodDays - 1);
+        }
+
+        int generated = 0;
+        for (; ; period++) {
+            LocalDate base = periodStart.plusDays(period * periodDays);
+            List<LocalDate> dates = new ArrayList<>(weekly ? days.size() : 1);
+            if (weekly) {
+                for (DayOfWeek day : days) {
+                    dates.add(base.plusDays(day.ordinal()));
+                }
+            } else {
+                dates.add(base);
+            }
+            for (LocalDate date : dates) {
+                if (date.isBefore(firstDate)) {
+                    continue;
+                }
+                if ((until != null && date.isAfter(until)) || (count != null && generated >= count)) {
+                    return;
+                }
+                generated++;
+                if (exceptions.contains(date)) {
+                    continue;
+                }
+                long start = ZonedDateTime.of(date, time, zone).toInstant().toEpochMilli();
+                if (!visitor.visit(start, start + duration)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stable id of the series' occurrence on the given date, in the series' timezone.
+     */
+    public static UUID occurrenceId(UUID seriesId, LocalDate date) {
+        return UUID.nameUUIDFromBytes((seriesId + "/" + date).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Event occurrence(Event series, long start, long end) {
+        LocalDate date = Instant.ofEpochMilli(start).atZone(zone(series.getRecurrence())).toLocalDate();
+        return Event.builder()
+                .id(occurrenceId(series.getId(), date))
+                .seriesId(series.getId())
+                .name(series.getName())
+                .description(series.getDescription())
+                .location(series.getLocation())
+                .startTimestamp(start)
+                .endTimestamp(series.getEndTimestamp() != null ? end : null)
+                .allDay(series.getAllDay())
+                .audience(series.getAudience())
+                .recurrence(series.getRecurrence())
+                .build();
+    }
+
+    private static ZoneId zone(Recurrence recurrence) {
+        if (recurrence.getTimezone() != null) {
+            try {
+                return ZoneId.of(recurrence.getTimezone());
+            } catch (DateTimeException ignored) {
+                // validated on write; fall back for documents written before that
+            }
+        }
+        return ZoneId.systemDefault();
+    }
+}
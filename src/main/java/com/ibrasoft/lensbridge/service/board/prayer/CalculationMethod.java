@@ -0,0 +1,91 @@
+package com.ibrasoft.lensbridge.service.board.prayer;
+
+/**
+ * Prayer time calculation methods, numbered as in BoardConfig.location.method (the same
+ * numbering Aladhan and Adhan.js use). Fajr and Isha are the sun's depression below the
+ * horizon in degrees; methods with a fixed Isha use ishaMinutes after Maghrib instead.
+ */
+public enum CalculationMethod {
+    JAFARI(0, 16, 14, 0, 4),
+    KARACHI(1, 18, 18),
+    ISNA(2, 15, 15),
+    MWL(3, 18, 17),
+    UMM_AL_QURA(4, 18.5, 0, 90, 0),
+    EGYPTIAN(5, 19.5, 17.5),
+    TEHRAN(7, 17.7, 14, 0, 4.5),
+    GULF(8, 19.5, 0, 90, 0),
+    KUWAIT(9, 18, 17.5),
+    QATAR(10, 18, 0, 90, 0),
+    SINGAPORE(11, 20, 18),
+    FRANCE(12, 12, 12),
+    TURKEY(13, 18, 17),
+    RUSSIA(14, 16, 15),
+    MOONSIGHTING(15, 18, 18),
+    DUBAI(16, 18.2, 18.2),
+    MALAYSIA(17, 20, 18),
+    TUNISIA(18, 18, 18),
+    ALGERIA(19, 18, 17),
+    INDONESIA(20, 20, 18),
+    MOROCCO(21, 19, 17),
+    PORTUGAL(22, 18, 0, 77, 0),
+    JORDAN(23, 18, 18);
+
+    private final int id;
+    private final double fajrAngle;
+    private final double ishaAngle;
+    private final int ishaMinutes;
+    private final double maghribAngle;
+
+    CalculationMethod(int id, double fajrAngle, double ishaAngle) {
+        this(id, fajrAngle, ishaAngle, 0, 0);
+    }
+
+    CalculationMethod(int id, double fajrAngle, double ishaAngle, int ishaMinutes, double maghribAngle) {
+        this.id = id;
+        this.fajrAngle = fajrAngle;
+        this.ishaAngle = ishaAngle;
+        this.ishaMinutes = ishaMinutes;
+        this.maghribAngle = maghribAngle;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public double fajrAngle() {
+        return fajrAngle;
+    }
+
+    public double ishaAngle() {
+        return ishaAngle;
+    }
+
+    /**
+     * Minutes after Maghrib for methods with a fixed Isha, otherwise 0.
+     */
+    public int ishaMinutes() {
+        return ishaMinutes;
+    }
+
+    /**
+     * Depression angle for Maghrib, or 0 when Maghrib is at sunset.
+     */
+    public double maghribAngle() {
+        return maghribAngle;
+    }
+
+    /**
+     * The method with this number, or ISNA if it is unset or unknown.
+     */
+    public static CalculationMethod fromId(Integer id) {
+        if (id == null) {
+            return ISNA;
+        }
+        for (CalculationMethod method : values()) {
+            if (method.id == id) {
+                return method;
+            }
+        }
+        return ISNA;
+    }
+}
@@ -0,0 +1,149 @@
+package com.ibrasoft.lensbridge.service.board.prayer;
+
+import com.ibrasoft.lensbridge.service.board.prayer.PrayerTimes.Prayer;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Astronomical prayer times for a date and position, following the PrayTimes.org
+ * algorithm: the sun's declination and equation of time give solar noon, and each prayer is
+ * the moment the sun reaches its method's angle. Asr uses the standard (shadow factor 1)
+ * juristic method.
+ *
+ * Where the sun never gets low enough for Fajr or Isha (summer at high latitudes), the
+ * angle-based rule applies: the time is capped at angle/60 of the night from sunrise or
+ * sunset.
+ */
+public final class PrayerTimeCalculator {
+
+    private static final double RISE_SET_ANGLE = 0.833;
+    private static final double JULIAN_EPOCH_DAY = 2440587.5;
+
+    private PrayerTimeCalculator() {
+    }
+
+    public static PrayerTimes compute(LocalDate date, double latitude, double longitude, CalculationMethod method) {
+        double jd = date.toEpochDay() + JULIAN_EPOCH_DAY - longitude / (15 * 24.0);
+
+        double fajr = sunAngleTime(jd, latitude, method.fajrAngle(), 5, true);
+        double sunrise = sunAngleTime(jd, latitude, RISE_SET_ANGLE, 6, true);
+        double dhuhr = midDay(jd, 12);
+        double asr = asrTime(jd, latitude, 1, 13);
+        double sunset = sunAngleTime(jd, latitude, RISE_SET_ANGLE, 18, false);
+        double maghrib = method.maghribAngle() > 0
+                ? sunAngleTime(jd, latitude, method.maghribAngle(), 18, false)
+                : sunset;
+        double isha = method.ishaMinutes() > 0
+                ? maghrib + method.ishaMinutes() / 60.0
+                : sunAngleTime(jd, latitude, method.ishaAngle(), 18, false);
+
+        double night = 24 - (sunset - sunrise);
+        fajr = capToNight(fajr, sunrise, method.fajrAngle() / 60 * night, true);
+        if (method.ishaMinutes() == 0) {
+            isha = capToNight(isha, sunset, method.ishaAngle() / 60 * night, false);
+        }
+        if (method.maghribAngle() > 0) {
+            maghrib = capToNight(maghrib, sunset, method.maghribAngle() / 60 * night, false);
+        }
+
+        Instant utcMidnight = date.atStartOfDay(ZoneOffset.UTC).toInstant();
+        double offset = longitude / 15;
+        Map<Prayer, Instant> times = new EnumMap<>(Prayer.class);
+        times.put(Prayer.FAJR, toInstant(utcMidnight, fajr - offset));
+        times.put(Prayer.SUNRISE, toInstant(utcMidnight, sunrise - offset));
+        times.put(Prayer.DHUHR, toInstant(utcMidnight, dhuhr - offset));
+        times.put(Prayer.ASR, toInstant(utcMidnight, asr - offset));
+        times.put(Prayer.MAGHRIB, toInstant(utcMidnight, maghrib - offset));
+        times.put(Prayer.ISHA, toInstant(utcMidnight, isha - offset));
+        return new PrayerTimes(date, times);
+    }
+
+    /**
+     * Declination of the sun and the equation of time (hours) at a Julian date.
+     */
+    private record SunPosition(double declination, double equation) {
+    }
+
+    private static SunPosition sunPosition(double jd) {
+        double d = jd - 2451545.0;
+        double g = fixAngle(357.529 + 0.98560028 * d);
+        double q = fixAngle(280.459 + 0.98564736 * d);
+        double l = fixAngle(q + 1.915 * sin(g) + 0.020 * sin(2 * g));
+        double e = 23.439 - 0.00000036 * d;
+        double ra = Math.toDegrees(Math.atan2(cos(e) * sin(l), cos(l))) / 15;
+        return new SunPosition(Math.toDegrees(Math.asin(sin(e) * sin(l))), q / 15 - fixHour(ra));
+    }
+
+    /**
+     * Solar noon in hours (local solar time), refined from a first guess in hours.
+     */
+    private static double midDay(double jd, double guess) {
+        return fixHour(12 - sunPosition(jd + guess / 24).equation());
+    }
+
+    /**
+     * When the sun is {@code angle} degrees below the horizon, before noon if {@code beforeNoon}.
+     * NaN if it never gets there that day.
+     */
+    private static double sunAngleTime(double jd, double latitude, double angle, double guess, boolean beforeNoon) {
+        double declination = sunPosition(jd + guess / 24).declination();
+        double noon = midDay(jd, guess);
+        double cosHourAngle = (-sin(angle) - sin(declination) * sin(latitude)) / (cos(declination) * cos(latitude));
+        if (cosHourAngle < -1 || cosHourAngle > 1) {
+            return Double.NaN;
+        }
+        double t = Math.toDegrees(Math.acos(cosHourAngle)) / 15;
+        return noon + (beforeNoon ? -t : t);
+    }
+
+    private static double asrTime(double jd, double latitude, int shadowFactor, double guess) {
+        double declination = sunPosition(jd + guess / 24).declination();
+        double altitude = Math.toDegrees(Math.atan(1 / (shadowFactor + Math.tan(Math.toRadians(Math.abs(latitude - declination))))));
+        return sunAngleTime(jd, latitude, -altitude, guess, false);
+    }
+
+    /**
+     * Keep a Fajr/Isha time within {@code portion} hours of sunrise/sunset.
+     */
+    private static double capToNight(double time, double base, double portion, boolean beforeBase) {
+        if (Double.isNaN(portion)) {
+            return time;
+        }
+        double distance = beforeBase ? base - time : time - base;
+        if (Double.isNaN(time) || distance > portion) {
+            return beforeBase ? base - portion : base + portion;
+        }
+        return time;
+    }
+
+    private static Instant toInstant(Instant utcMidnight, double hours) {
+        if (Double.isNaN(hours)) {
+            return null;
+        }
+        // Rounded to the minute, as boards display them
+        long minutes = Math.round(hours * 60);
+        return utcMidnight.plusSeconds(minutes * 60);
+    }
+
+    private static double sin(double degrees) {
+        return Math.sin(Math.toRadians(degrees));
+    }
+
+    private static double cos(double degrees) {
+        return Math.cos(Math.toRadians(degrees));
+    }
+
+    private static double fixAngle(double a) {
+        a = a - 360 * Math.floor(a / 360);
+        return a < 0 ? a + 360 : a;
+    }
+
+    private static double fixHour(double h) {
+        h = h - 24 * Math.floor(h / 24);
+        return h < 0 ? h + 24 : h;
+    }
+}
@@ -0,0 +1,83 @@
+package com.ibrasoft.lensbridge.service.board.prayer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ibrasoft.lensbridge.model.board.BoardConfig;
+import com.ibrasoft.lensbridge.model.board.Location;
+import com.ibrasoft.lensbridge.service.BoardService;
+import com.ibrasoft.lensbridge.service.board.BoardContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Prayer times for a board's BoardConfig.location. A whole year is computed the first time
+ * a position and method is asked for (and for every configured board at startup), so payload
+ * builds only look up a table entry.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PrayerTimeService {
+
+    private final BoardService boardService;
+
+    private final Cache<TableKey, PrayerTimes[]> tables = Caffeine.newBuilder()
+            .maximumSize(16)
+            .build();
+
+    private record TableKey(double latitude, double longitude, CalculationMethod method, int year) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void precompute() {
+        try {
+            for (BoardConfig config : boardService.getAllBoardConfigs()) {
+                BoardContext ctx = BoardContext.of(config.getBoardLocation(), config);
+                getPrayerTimes(config.getLocation(), ctx.today());
+            }
+        } catch (RuntimeException e) {
+            // Tables are built on first use instead
+            log.warn("Could not precompute prayer times: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Prayer times on a date (in the board's timezone) at this location, or empty if the
+     * location has no coordinates.
+     */
+    public Optional<PrayerTimes> getPrayerTimes(Location location, LocalDate date) {
+        if (location == null || (location.getLatitude() == 0 && location.getLongitude() == 0)) {
+            return Optional.empty();
+        }
+        TableKey key = new TableKey(location.getLatitude(), location.getLongitude(),
+                CalculationMethod.fromId(location.getMethod()), date.getYear());
+        PrayerTimes[] table = tables.get(key, PrayerTimeService::computeYear);
+        return Optional.of(table[date.getDayOfYear() - 1]);
+    }
+
+    /**
+     * Today's prayer times for the board, or empty if it has no location configured.
+     */
+    public Optional<PrayerTimes> getPrayerTimes(BoardContext ctx) {
+        if (ctx.getConfig() == null) {
+            return Optional.empty();
+        }
+        return getPrayerTimes(ctx.getConfig().getLocation(), ctx.today());
+    }
+
+    private static PrayerTimes[] computeYear(TableKey key) {
+        LocalDate first = LocalDate.ofYearDay(key.year(), 1);
+        PrayerTimes[] table = new PrayerTimes[first.lengthOfYear()];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = PrayerTimeCalculator.compute(first.plusDays(i), key.latitude(), key.longitude(), key.method());
+        }
+        log.info("Computed {} prayer times for ({}, {}) using {}", key.year(), key.latitude(), key.longitude(), key.method());
+        return table;
+    }
+}
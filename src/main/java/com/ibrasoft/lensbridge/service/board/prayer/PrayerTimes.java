@@ -0,0 +1,49 @@
+package com.ibrasoft.lensbridge.service.board.prayer;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One day's prayer times. A time is null when the sun never reaches the required angle
+ * and no high-latitude fallback applies (polar day or night).
+ */
+public record PrayerTimes(LocalDate date, Map<Prayer, Instant> times) {
+
+    public enum Prayer {
+        FAJR, SUNRISE, DHUHR, ASR, MAGHRIB, ISHA
+    }
+
+    public PrayerTimes {
+        EnumMap<Prayer, Instant> copy = new EnumMap<>(Prayer.class);
+        copy.putAll(times);
+        times = Collections.unmodifiableMap(copy);
+    }
+
+    public Instant get(Prayer prayer) {
+        return times.get(prayer);
+    }
+
+    /**
+     * The first prayer (sunrise excluded) at or after the given instant, if any is left today.
+     */
+    public Prayer next(Instant after) {
+        for (Prayer prayer : Prayer.values()) {
+            Instant time = times.get(prayer);
+            if (prayer != Prayer.SUNRISE && time != null && !time.isBefore(after)) {
+                return prayer;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Isha plus some minutes, e.g. for the refresh and dark mode settings in BoardConfig.
+     */
+    public Instant afterIsha(int minutes) {
+        Instant isha = times.get(Prayer.ISHA);
+        return isha == null ? null : isha.plusSeconds(minutes * 60L);
+    }
+}
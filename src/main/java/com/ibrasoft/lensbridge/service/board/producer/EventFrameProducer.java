@@ -0,0 +1,84 @@
+package com.ibrasoft.lensbridge.service.board.producer;
+
+import com.ibrasoft.lensbridge.model.board.Event;
+import com.ibrasoft.lensbridge.model.board.frames.FrameDefinition;
+import com.ibrasoft.lensbridge.model.board.frames.FrameType;
+import com.ibrasoft.lensbridge.service.BoardService;
+import com.ibrasoft.lensbridge.service.board.BoardContext;
+import com.ibrasoft.lensbridge.service.board.BoardSource;
+import com.ibrasoft.lensbridge.service.board.prayer.PrayerTimeService;
+import com.ibrasoft.lensbridge.service.board.transformer.DailyScheduleFrameTransformer;
+import com.ibrasoft.lensbridge.service.board.transformer.EventListFrameTransformer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The week's EVENT_LIST frame and today's DAILY_SCHEDULE (events plus prayer times), from a
+ * single query for the current week.
+ */
+@Component
+@Order(300)
+@RequiredArgsConstructor
+public class EventFrameProducer implements FrameProducer {
+
+    private final BoardService boardService;
+    private final PrayerTimeService prayerTimeService;
+    private final EventListFrameTransformer eventListTransformer;
+    private final DailyScheduleFrameTransformer dailyScheduleTransformer;
+
+    @Override
+    public String name() {
+        return "events";
+    }
+
+    @Override
+    public Set<FrameType> frameTypes() {
+        return Set.of(FrameType.EVENT_LIST, FrameType.DAILY_SCHEDULE);
+    }
+
+    @Override
+    public Set<BoardSource> sources() {
+        return Set.of(BoardSource.EVENTS);
+    }
+
+    @Override
+    public Object timeBucket(BoardContext ctx) {
+        return ctx.today();
+    }
+
+    @Override
+    public List<FrameDefinition> produce(BoardContext ctx) {
+        long weekStart = ctx.currentWeekStart().toEpochMilli();
+        long weekEnd = ctx.currentWeekEnd().toEpochMilli();
+        List<Event> events = boardService.getEventsForBoardInRange(ctx.getLocation(), weekStart, weekEnd);
+        List<FrameDefinition> out = new ArrayList<>(2);
+        if (!events.isEmpty()) out.add(eventListTransformer.transform(events, ctx));
+        List<Event> today = overlapping(events, ctx.currentDayStart(), ctx.currentDayEnd());
+        if (!today.isEmpty() || prayerTimeService.getPrayerTimes(ctx).isPresent()) {
+            out.add(dailyScheduleTransformer.transform(today, ctx));
+        }
+        return out;
+    }
+
+    /**
+     * The events (from a wider query) that overlap [start, end].
+     */
+    public static List<Event> overlapping(List<Event> events, Instant start, Instant end) {
+        long startMillis = start.toEpochMilli();
+        long endMillis = end.toEpochMilli();
+        List<Event> out = new ArrayList<>();
+        for (Event e : events) {
+            if (e.getStartTimestamp() != null && e.getEndTimestamp() != null
+                    && e.getStartTimestamp() <= endMillis && e.getEndTimestamp() >= startMillis) {
+                out.add(e);
+            }
+        }
+        return out;
+    }
+}
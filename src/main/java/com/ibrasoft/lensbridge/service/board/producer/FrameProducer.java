@@ -0,0 +1,35 @@
+package com.ibrasoft.lensbridge.service.board.producer;
+
+import com.ibrasoft.lensbridge.model.board.frames.FrameDefinition;
+import com.ibrasoft.lensbridge.model.board.frames.FrameType;
+import com.ibrasoft.lensbridge.service.board.BoardContext;
+import com.ibrasoft.lensbridge.service.board.BoardSource;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fetches one kind of board data and turns it into frames. Producer beans are picked up by
+ * FrameProducerRegistry and run by BoardPayloadAssembler in {@code @Order} order.
+ *
+ * The assembler keeps each producer's frames per board and reuses them until the version of
+ * one of its sources (BoardSource.CONFIG is always included) or its time bucket changes.
+ */
+public interface FrameProducer {
+
+    /**
+     * Short name for metrics and logs, e.g. "posters".
+     */
+    String name();
+
+    Set<FrameType> frameTypes();
+
+    Set<BoardSource> sources();
+
+    /**
+     * The period the frames are valid for, e.g. the board's current date.
+     */
+    Object timeBucket(BoardContext ctx);
+
+    List<FrameDefinition> produce(BoardContext ctx);
+}
@@ -0,0 +1,74 @@
+package com.ibrasoft.lensbridge.service.board.producer;
+
+import com.ibrasoft.lensbridge.model.board.frames.FrameType;
+import com.ibrasoft.lensbridge.service.board.BoardContentVersions;
+import com.ibrasoft.lensbridge.service.board.BoardContext;
+import com.ibrasoft.lensbridge.service.board.BoardSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Discovers the FrameProducer beans and indexes them by FrameType, failing at startup if
+ * two of them claim the same type.
+ */
+@Component
+@Slf4j
+public class FrameProducerRegistry {
+
+    private final List<FrameProducer> producers;
+    private final BoardContentVersions contentVersions;
+    private final Map<FrameType, FrameProducer> producersByType = new EnumMap<>(FrameType.class);
+
+    /**
+     * What a producer's frames were built from; equal keys mean the frames can be reused.
+     */
+    public record CacheKey(List<Long> sourceVersions, Object timeBucket) {
+    }
+
+    public FrameProducerRegistry(List<FrameProducer> producers, BoardContentVersions contentVersions) {
+        this.producers = List.copyOf(producers);
+        this.contentVersions = contentVersions;
+        for (FrameProducer producer : producers) {
+            for (FrameType type : producer.frameTypes()) {
+                FrameProducer previous = producersByType.putIfAbsent(type, producer);
+                if (previous != null) {
+                    throw new IllegalStateException("Frame type " + type + " is produced by both "
+                            + previous.name() + " and " + producer.name());
+                }
+            }
+        }
+        EnumSet<FrameType> unproduced = EnumSet.allOf(FrameType.class);
+        unproduced.removeAll(producersByType.keySet());
+        log.info("Board frame producers: {}; frame types with no producer: {}",
+                producers.stream().map(FrameProducer::name).toList(), unproduced);
+    }
+
+    /**
+     * Every producer, in payload order.
+     */
+    public List<FrameProducer> producers() {
+        return producers;
+    }
+
+    public Optional<FrameProducer> producerFor(FrameType type) {
+        return Optional.ofNullable(producersByType.get(type));
+    }
+
+    public CacheKey cacheKey(FrameProducer producer, BoardContext ctx) {
+        Set<BoardSource> sources = EnumSet.of(BoardSource.CONFIG);
+        sources.addAll(producer.sources());
+        List<Long> versions = new ArrayList<>(sources.size());
+        for (BoardSource source : sources) {
+            versions.add(contentVersions.get(ctx.getLocation(), source));
+        }
+        return new CacheKey(versions, producer.timeBucket(ctx));
+    }
+}
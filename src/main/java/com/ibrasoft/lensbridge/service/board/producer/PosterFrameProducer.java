@@ -0,0 +1,56 @@
+package com.ibrasoft.lensbridge.service.board.producer;
+
+import com.ibrasoft.lensbridge.model.board.Poster;
+import com.ibrasoft.lensbridge.model.board.frames.FrameDefinition;
+import com.ibrasoft.lensbridge.model.board.frames.FrameType;
+import com.ibrasoft.lensbridge.service.PosterService;
+import com.ibrasoft.lensbridge.service.board.BoardContext;
+import com.ibrasoft.lensbridge.service.board.BoardSource;
+import com.ibrasoft.lensbridge.service.board.transformer.PosterFrameTransformer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A POSTER frame for each poster active today.
+ */
+@Component
+@Order(200)
+@RequiredArgsConstructor
+public class PosterFrameProducer implements FrameProducer {
+
+    private final PosterService posterService;
+    private final PosterFrameTransformer posterTransformer;
+
+    @Override
+    public String name() {
+        return "posters";
+    }
+
+    @Override
+    public Set<FrameType> frameTypes() {
+        return Set.of(FrameType.POSTER);
+    }
+
+    @Override
+    public Set<BoardSource> sources() {
+        return Set.of(BoardSource.POSTERS);
+    }
+
+    @Override
+    public Object timeBucket(BoardContext ctx) {
+        return ctx.today();
+    }
+
+    @Override
+    public List<FrameDefinition> produce(BoardContext ctx) {
+        List<Poster> posters = posterService.getActivePosterFramesForBoard(ctx.getLocation(), ctx.today());
+        List<FrameDefinition> out = new ArrayList<>(posters.size());
+        for (Poster p : posters) out.add(posterTransformer.transform(p, ctx));
+        return out;
+    }
+}
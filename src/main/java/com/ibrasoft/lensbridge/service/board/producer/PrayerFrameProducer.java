@@ -0,0 +1,53 @@
+package com.ibrasoft.lensbridge.service.board.producer;
+
+import com.ibrasoft.lensbridge.model.board.frames.FrameDefinition;
+import com.ibrasoft.lensbridge.model.board.frames.FrameType;
+import com.ibrasoft.lensbridge.service.board.BoardContext;
+import com.ibrasoft.lensbridge.service.board.BoardSource;
+import com.ibrasoft.lensbridge.service.board.prayer.PrayerTimeService;
+import com.ibrasoft.lensbridge.service.board.transformer.NextPrayerFrameTransformer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Today's NEXT_PRAYER frame, when the board has a location.
+ */
+@Component
+@Order(100)
+@RequiredArgsConstructor
+public class PrayerFrameProducer implements FrameProducer {
+
+    private final PrayerTimeService prayerTimeService;
+    private final NextPrayerFrameTransformer nextPrayerTransformer;
+
+    @Override
+    public String name() {
+        return "prayer";
+    }
+
+    @Override
+    public Set<FrameType> frameTypes() {
+        return Set.of(FrameType.NEXT_PRAYER);
+    }
+
+    @Override
+    public Set<BoardSource> sources() {
+        return Set.of(BoardSource.CONFIG);
+    }
+
+    @Override
+    public Object timeBucket(BoardContext ctx) {
+        return ctx.today();
+    }
+
+    @Override
+    public List<FrameDefinition> produce(BoardContext ctx) {
+        return prayerTimeService.getPrayerTimes(ctx)
+                .map(times -> List.of(nextPrayerTransformer.transform(times, ctx)))
+                .orElse(List.of());
+    }
+}
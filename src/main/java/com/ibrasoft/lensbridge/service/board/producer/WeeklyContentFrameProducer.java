@@ -0,0 +1,54 @@
+package com.ibrasoft.lensbridge.service.board.producer;
+
+import com.ibrasoft.lensbridge.model.board.WeekId;
+import com.ibrasoft.lensbridge.model.board.WeeklyContent;
+import com.ibrasoft.lensbridge.model.board.frames.FrameDefinition;
+import com.ibrasoft.lensbridge.model.board.frames.FrameType;
+import com.ibrasoft.lensbridge.service.BoardService;
+import com.ibrasoft.lensbridge.service.board.BoardContext;
+import com.ibrasoft.lensbridge.service.board.BoardSource;
+import com.ibrasoft.lensbridge.service.board.transformer.WeeklyContentFrameTransformer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The verse, hadith and jummah frames for the board's current (ISO) week.
+ */
+@Component
+@Order(400)
+@RequiredArgsConstructor
+public class WeeklyContentFrameProducer implements FrameProducer {
+
+    private final BoardService boardService;
+    private final WeeklyContentFrameTransformer weeklyContentTransformer;
+
+    @Override
+    public String name() {
+        return "weekly-content";
+    }
+
+    @Override
+    public Set<FrameType> frameTypes() {
+        return Set.of(FrameType.ISLAMIC_QUOTE, FrameType.JUMMAH);
+    }
+
+    @Override
+    public Set<BoardSource> sources() {
+        return Set.of(BoardSource.WEEKLY_CONTENT);
+    }
+
+    @Override
+    public Object timeBucket(BoardContext ctx) {
+        return WeekId.fromDate(ctx.today());
+    }
+
+    @Override
+    public List<FrameDefinition> produce(BoardContext ctx) {
+        WeeklyContent content = boardService.getWeeklyContent(WeekId.fromDate(ctx.today())).orElse(null);
+        return weeklyContentTransformer.transform(content, ctx);
+    }
+}
@@ -7,6 +7,8 @@ import com.ibrasoft.lensbridge.model.board.frames.FrameDefinition;
 import com.ibrasoft.lensbridge.model.board.frames.FrameSlot;
 import com.ibrasoft.lensbridge.model.board.frames.FrameType;
 import com.ibrasoft.lensbridge.service.board.BoardContext;
+import com.ibrasoft.lensbridge.service.board.prayer.PrayerTimeService;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -14,11 +16,15 @@ import java.util.stream.Collectors;
 
 /**
  * Transforms a list of Events into a single DAILY_SCHEDULE FrameDefinition
- * representing events for the current day.
+ * representing events for the current day, alongside the day's prayer times when the
+ * board has a location.
  */
 @Component
+@RequiredArgsConstructor
 public class DailyScheduleFrameTransformer implements FrameTransformer<List<Event>> {
 
+    private final PrayerTimeService prayerTimeService;
+
     @Override
     public FrameType supports() {
         return FrameType.DAILY_SCHEDULE;
@@ -33,6 +39,10 @@ public class DailyScheduleFrameTransformer implements FrameTransformer<List<Even
         DailyScheduleFrameConfig config = DailyScheduleFrameConfig.builder()
                 .heading("Today")
                 .events(eventViews)
+                .prayers(ctx.getConfig() == null ? null : prayerTimeService
+                        .getPrayerTimes(ctx.getConfig().getLocation(), ctx.today())
+                        .map(times -> NextPrayerFrameTransformer.slots(times, ctx.zone()))
+                        .orElse(null))
                 .build();
 
         return FrameDefinition.builder()
@@ -0,0 +1,81 @@
+package com.ibrasoft.lensbridge.service.board.transformer;
+
+import com.ibrasoft.lensbridge.model.board.BoardConfig;
+import com.ibrasoft.lensbridge.model.board.Location;
+import com.ibrasoft.lensbridge.model.board.frames.FrameDefinition;
+import com.ibrasoft.lensbridge.model.board.frames.FrameSlot;
+import com.ibrasoft.lensbridge.model.board.frames.FrameType;
+import com.ibrasoft.lensbridge.model.board.frames.NextPrayerFrameConfig;
+import com.ibrasoft.lensbridge.service.board.BoardContext;
+import com.ibrasoft.lensbridge.service.board.prayer.CalculationMethod;
+import com.ibrasoft.lensbridge.service.board.prayer.PrayerTimeService;
+import com.ibrasoft.lensbridge.service.board.prayer.PrayerTimes;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transforms a day's PrayerTimes into a NEXT_PRAYER FrameDefinition. The board works out
+ * which prayer is next from the times; tomorrow's Fajr covers the hours after Isha.
+ */
+@Component
+@RequiredArgsConstructor
+public class NextPrayerFrameTransformer implements FrameTransformer<PrayerTimes> {
+
+    private static final DateTimeFormatter LOCAL_TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final PrayerTimeService prayerTimeService;
+
+    @Override
+    public FrameType supports() {
+        return FrameType.NEXT_PRAYER;
+    }
+
+    @Override
+    public FrameDefinition transform(PrayerTimes times, BoardContext ctx) {
+        BoardConfig boardConfig = ctx.getConfig();
+        Location location = boardConfig.getLocation();
+        ZoneId zone = ctx.zone();
+
+        NextPrayerFrameConfig config = NextPrayerFrameConfig.builder()
+                .locationCity(location.getCity())
+                .timezone(zone.getId())
+                .calculationMethod(CalculationMethod.fromId(location.getMethod()).name())
+                .prayers(slots(times, zone))
+                .nextFajr(prayerTimeService.getPrayerTimes(location, times.date().plusDays(1))
+                        .map(tomorrow -> slot(PrayerTimes.Prayer.FAJR, tomorrow.get(PrayerTimes.Prayer.FAJR), zone))
+                        .orElse(null))
+                .darkModeAt(boardConfig.isDarkModeAfterIsha() ? times.afterIsha(boardConfig.getDarkModeMinutesAfterIsha()) : null)
+                .refreshAt(times.afterIsha(boardConfig.getRefreshAfterIshaaMinutes()))
+                .build();
+
+        return FrameDefinition.builder()
+                .frameType(FrameType.NEXT_PRAYER)
+                .durationInSeconds(null)
+                .frameConfig(config)
+                .slot(FrameSlot.PRIMARY)
+                .priority(null)
+                .build();
+    }
+
+    static List<NextPrayerFrameConfig.PrayerSlot> slots(PrayerTimes times, ZoneId zone) {
+        List<NextPrayerFrameConfig.PrayerSlot> out = new ArrayList<>();
+        for (PrayerTimes.Prayer prayer : PrayerTimes.Prayer.values()) {
+            out.add(slot(prayer, times.get(prayer), zone));
+        }
+        return out;
+    }
+
+    private static NextPrayerFrameConfig.PrayerSlot slot(PrayerTimes.Prayer prayer, Instant time, ZoneId zone) {
+        return NextPrayerFrameConfig.PrayerSlot.builder()
+                .name(prayer.name())
+                .time(time)
+                .localTime(time == null ? null : LOCAL_TIME.format(time.atZone(zone)))
+                .build();
+    }
+}
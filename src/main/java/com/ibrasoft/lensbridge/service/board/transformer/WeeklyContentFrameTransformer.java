@@ -20,8 +20,8 @@ import java.util.stream.Collectors;
  * one for the verse, one for the hadith, and one for jummah prayer info.
  *
  * This transformer intentionally does NOT implement FrameTransformer<T> because
- * one source expands to multiple frames. The assembler (Phase 4) will inject it
- * by concrete class.
+ * one source expands to multiple frames. WeeklyContentFrameProducer wraps it for
+ * the assembler.
  */
 @Component
 public class WeeklyContentFrameTransformer {
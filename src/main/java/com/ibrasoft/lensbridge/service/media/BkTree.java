@@ -0,0 +1,81 @@
+package com.ibrasoft.lensbridge.service.media;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Burkhard-Keller tree over 64-bit hashes using Hamming distance.
+ * Range lookups only descend into children whose edge distance lies within
+ * [d - maxDistance, d + maxDistance], so small-radius searches visit a fraction of the tree.
+ *
+ * Not thread-safe; callers synchronize externally.
+ */
+public class BkTree<T> {
+
+    private Node<T> root;
+    private int size;
+
+    public void add(long hash, T value) {
+        size++;
+        if (root == null) {
+            root = new Node<>(hash, value);
+            return;
+        }
+        Node<T> node = root;
+        while (true) {
+            int d = PerceptualHash.distance(node.hash, hash);
+            Node<T> child = node.children.get(d);
+            if (child == null) {
+                node.children.put(d, new Node<>(hash, value));
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Find all values whose hash is within {@code maxDistance} bits of the given hash.
+     */
+    public List<Match<T>> search(long hash, int maxDistance) {
+        List<Match<T>> out = new ArrayList<>();
+        if (root == null) return out;
+
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node<T> node = stack.pop();
+            int d = PerceptualHash.distance(node.hash, hash);
+            if (d <= maxDistance) {
+                out.add(new Match<>(node.value, d));
+            }
+            for (Map.Entry<Integer, Node<T>> e : node.children.entrySet()) {
+                int edge = e.getKey();
+                if (edge >= d - maxDistance && edge <= d + maxDistance) {
+                    stack.push(e.getValue());
+                }
+            }
+        }
+        return out;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public record Match<T>(T value, int distance) {}
+
+    private static final class Node<T> {
+        final long hash;
+        final T value;
+        final Map<Integer, Node<T>> children = new HashMap<>(4);
+
+        Node(long hash, T value) {
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+}
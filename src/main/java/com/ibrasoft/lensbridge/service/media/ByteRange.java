@@ -0,0 +1,62 @@
+package com.ibrasoft.lensbridge.service.media;
+
+/**
+ * A single resolved HTTP byte range (RFC 9110 section 14.1.2), inclusive on both ends.
+ */
+public record ByteRange(long start, long end) {
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    public String contentRange(long totalLength) {
+        return "bytes " + start + "-" + end + "/" + totalLength;
+    }
+
+    /**
+     * Resolve a Range header against a representation length.
+     *
+     * @return the range, or null to serve the full representation (no header,
+     *         malformed header, or multiple ranges, which we don't do multipart for)
+     * @throws UnsatisfiableRangeException if the range lies entirely beyond the end
+     */
+    public static ByteRange parse(String header, long totalLength) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        if (spec.isEmpty() || spec.contains(",")) {
+            return null;
+        }
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                if (last.isEmpty()) return null;
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || totalLength == 0) throw new UnsatisfiableRangeException();
+                return new ByteRange(Math.max(0, totalLength - suffix), totalLength - 1);
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? totalLength - 1 : Long.parseLong(last);
+            if (start >= totalLength) throw new UnsatisfiableRangeException();
+            if (end < start) return null;
+            return new ByteRange(start, Math.min(end, totalLength - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static class UnsatisfiableRangeException extends RuntimeException {
+        public UnsatisfiableRangeException() {
+            super("Requested range not satisfiable");
+        }
+    }
+}
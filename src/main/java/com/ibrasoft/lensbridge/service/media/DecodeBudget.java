@@ -0,0 +1,192 @@
+package com.ibrasoft.lensbridge.service.media;
+
+import com.ibrasoft.lensbridge.exception.ImageProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Global admission control for image decoding. Every decode reserves its estimated
+ * raster size (width x height x 4 bytes, taken from the header) from a shared budget
+ * before any pixels are touched, so a burst of large photos queues up instead of
+ * exhausting the heap. Images that would not fit in the whole budget on their own
+ * are decoded with source subsampling.
+ *
+ * Exposed metrics: media.decode.budget.{max,in_use,waiting} gauges, the
+ * media.decode.budget.wait timer and downscaled/rejected counters.
+ */
+@Component
+@Slf4j
+public class DecodeBudget {
+
+    private static final long BYTES_PER_PIXEL = 4;
+    private static final long BYTES_PER_PERMIT = 1024;
+
+    /** Compressed photos expand roughly 10-15x when decoded; used when the header gives no dimensions. */
+    private static final long UNKNOWN_DIMENSIONS_EXPANSION = 16;
+
+    private final long maxBytes;
+    private final Duration waitTimeout;
+    private final int maxPermits;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final Timer waitTimer;
+    private final Counter downscaledCounter;
+    private final Counter rejectedCounter;
+
+    public DecodeBudget(
+            @Value("${media.decode-budget.max-bytes:512MB}") DataSize maxBytes,
+            @Value("${media.decode-budget.wait-timeout:30s}") Duration waitTimeout,
+            MeterRegistry meterRegistry) {
+        this.maxBytes = maxBytes.toBytes();
+        this.waitTimeout = waitTimeout;
+        this.maxPermits = (int) Math.min(Integer.MAX_VALUE, this.maxBytes / BYTES_PER_PERMIT);
+        this.permits = new Semaphore(maxPermits, true);
+
+        Gauge.builder("media.decode.budget.max", () -> this.maxBytes)
+                .baseUnit("bytes")
+                .description("Total decode memory budget")
+                .register(meterRegistry);
+        Gauge.builder("media.decode.budget.in_use", () -> (maxPermits - permits.availablePermits()) * BYTES_PER_PERMIT)
+                .baseUnit("bytes")
+                .description("Decode memory currently reserved")
+                .register(meterRegistry);
+        Gauge.builder("media.decode.budget.waiting", waiting, AtomicInteger::get)
+                .description("Jobs waiting for decode budget")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("media.decode.budget.wait")
+                .description("Time spent waiting for decode budget")
+                .register(meterRegistry);
+        this.downscaledCounter = Counter.builder("media.decode.budget.downscaled")
+                .description("Images decoded with subsampling because they exceed the whole budget")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("media.decode.budget.rejected")
+                .description("Jobs that timed out waiting for decode budget")
+                .register(meterRegistry);
+
+        log.info("Image decode budget: {} MB (wait timeout {})", this.maxBytes / (1024 * 1024), waitTimeout);
+    }
+
+    /**
+     * Estimate the decoded raster size of an image from its header metadata.
+     */
+    public static long estimateDecodeBytes(ImageMetadata metadata, long encodedLength) {
+        if (metadata != null && metadata.width() != null && metadata.height() != null) {
+            return (long) metadata.width() * metadata.height() * BYTES_PER_PIXEL;
+        }
+        return encodedLength * UNKNOWN_DIMENSIONS_EXPANSION;
+    }
+
+    /**
+     * Reserve budget for decoding an image, choosing a subsampling factor so that
+     * the decoded raster fits within the whole budget. Blocks until enough budget is free.
+     *
+     * @throws ImageProcessingException if the budget does not free up within the wait timeout
+     */
+    public Reservation reserveForImage(ImageMetadata metadata, long encodedLength) {
+        long estimate = estimateDecodeBytes(metadata, encodedLength);
+        int subsampling = 1;
+        if (estimate > maxBytes) {
+            subsampling = (int) Math.ceil(Math.sqrt((double) estimate / maxBytes));
+            downscaledCounter.increment();
+            log.info("Image needs ~{} MB to decode, over the {} MB budget; decoding at 1/{} resolution",
+                    estimate / (1024 * 1024), maxBytes / (1024 * 1024), subsampling);
+        }
+        return acquire(estimate / ((long) subsampling * subsampling), subsampling);
+    }
+
+    /**
+     * Reserve a fixed number of bytes (clamped to the whole budget), e.g. for
+     * external conversions where the decoder cannot subsample.
+     */
+    public Reservation reserve(long bytes) {
+        return acquire(bytes, 1);
+    }
+
+    private Reservation acquire(long bytes, int subsampling) {
+        int needed = (int) Math.max(1, Math.min(maxPermits, (bytes + BYTES_PER_PERMIT - 1) / BYTES_PER_PERMIT));
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(needed, waitTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                rejectedCounter.increment();
+                throw new ImageProcessingException("Image processing is busy, decode budget exhausted");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImageProcessingException("Interrupted while waiting for decode budget", e);
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return new Reservation(needed, subsampling);
+    }
+
+    /**
+     * Decode an image at 1/subsampling resolution in each dimension. EXIF orientation
+     * is NOT applied; callers rotate using the orientation from {@link ImageMetadata}.
+     */
+    public static BufferedImage decodeSubsampled(byte[] imageBytes, int subsampling) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(imageBytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new ImageProcessingException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * A held slice of the decode budget; release it by closing.
+     */
+    public final class Reservation implements AutoCloseable {
+        private final int heldPermits;
+        private final int subsampling;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Reservation(int heldPermits, int subsampling) {
+            this.heldPermits = heldPermits;
+            this.subsampling = subsampling;
+        }
+
+        /** Subsampling factor to decode with (1 = full resolution). */
+        public int subsampling() {
+            return subsampling;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                permits.release(heldPermits);
+            }
+        }
+    }
+}
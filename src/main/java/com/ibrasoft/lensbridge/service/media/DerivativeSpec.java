@@ -0,0 +1,77 @@
+package com.ibrasoft.lensbridge.service.media;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * A resized variant of an upload, snapped to one of a fixed set of sizes so that the
+ * number of distinct derivatives per upload stays small and every one is cacheable.
+ *
+ * @param width  bounding box width, always one of the allowed sizes
+ * @param height bounding box height, always one of the allowed sizes
+ * @param fit    how the image is fitted into the box
+ */
+public record DerivativeSpec(int width, int height, Fit fit) {
+
+    public static final String FOLDER = "derivatives/";
+
+    public enum Fit {
+        /** Scale to fit inside the box, keeping aspect ratio. Never upscales. */
+        CONTAIN,
+        /** Scale to fill the box and crop the overflow around the centre. */
+        COVER;
+
+        public static Fit parse(String value) {
+            if (value == null || value.isBlank()) {
+                return CONTAIN;
+            }
+            return Fit.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Snap a requested size to the allowed set. A missing dimension means "unbounded"
+     * for CONTAIN (largest allowed size) and "square" for COVER.
+     *
+     * @param allowedSizes ascending, non-empty
+     * @throws IllegalArgumentException if neither dimension is given or fit is unknown
+     */
+    public static DerivativeSpec snap(Integer width, Integer height, String fit, List<Integer> allowedSizes) {
+        if (width == null && height == null) {
+            throw new IllegalArgumentException("At least one of w or h is required");
+        }
+        Fit parsedFit = Fit.parse(fit);
+        int largest = allowedSizes.get(allowedSizes.size() - 1);
+
+        Integer w = width != null ? snap(width, allowedSizes) : null;
+        Integer h = height != null ? snap(height, allowedSizes) : null;
+        if (w == null) w = parsedFit == Fit.COVER ? h : largest;
+        if (h == null) h = parsedFit == Fit.COVER ? w : largest;
+        return new DerivativeSpec(w, h, parsedFit);
+    }
+
+    /**
+     * Smallest allowed size that is at least the requested one, or the largest allowed size.
+     */
+    static int snap(int requested, List<Integer> allowedSizes) {
+        for (int size : allowedSizes) {
+            if (size >= requested) return size;
+        }
+        return allowedSizes.get(allowedSizes.size() - 1);
+    }
+
+    /**
+     * Storage key of this derivative, e.g. derivatives/{uploadId}/640x640-contain.jpg
+     */
+    public String objectKey(UUID uploadId) {
+        return prefix(uploadId) + width + "x" + height + "-" + fit.name().toLowerCase(Locale.ROOT) + ".jpg";
+    }
+
+    /**
+     * Key prefix shared by all derivatives of an upload.
+     */
+    public static String prefix(UUID uploadId) {
+        return FOLDER + uploadId + "/";
+    }
+}
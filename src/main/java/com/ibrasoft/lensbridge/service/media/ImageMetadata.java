@@ -0,0 +1,134 @@
+package com.ibrasoft.lensbridge.service.media;
+
+import com.drew.imaging.ImageMetadataReader;
+import com.drew.metadata.Directory;
+import com.drew.metadata.Metadata;
+import com.drew.metadata.exif.ExifIFD0Directory;
+import com.drew.metadata.exif.ExifSubIFDDirectory;
+import com.drew.metadata.heif.HeifDirectory;
+import com.drew.metadata.jpeg.JpegDirectory;
+import com.drew.metadata.png.PngDirectory;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.ByteArrayInputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.TimeZone;
+
+/**
+ * Header-level facts about an image: stored pixel dimensions, EXIF orientation and capture time.
+ * Extraction only parses metadata segments, it never decodes pixels.
+ *
+ * @param width       stored width in pixels (before applying orientation), or null if unknown
+ * @param height      stored height in pixels (before applying orientation), or null if unknown
+ * @param orientation EXIF orientation 1-8, or null if absent
+ * @param capturedAt  EXIF DateTimeOriginal as camera-local wall-clock time, or null if absent
+ */
+@Slf4j
+public record ImageMetadata(Integer width, Integer height, Integer orientation, LocalDateTime capturedAt) {
+
+    private static final ImageMetadata EMPTY = new ImageMetadata(null, null, null, null);
+
+    /**
+     * Orientations 5-8 rotate the image by 90 degrees, swapping width and height on display.
+     */
+    public boolean isRotated() {
+        return orientation != null && orientation >= 5 && orientation <= 8;
+    }
+
+    public Integer displayWidth() {
+        return isRotated() ? height : width;
+    }
+
+    public Integer displayHeight() {
+        return isRotated() ? width : height;
+    }
+
+    /**
+     * Extract metadata from an encoded image. Never throws; unknown fields are left null.
+     */
+    public static ImageMetadata extract(byte[] imageBytes) {
+        Integer width = null;
+        Integer height = null;
+        Integer orientation = null;
+        LocalDateTime capturedAt = null;
+
+        try {
+            Metadata metadata = ImageMetadataReader.readMetadata(new ByteArrayInputStream(imageBytes), imageBytes.length);
+
+            JpegDirectory jpeg = metadata.getFirstDirectoryOfType(JpegDirectory.class);
+            PngDirectory png = metadata.getFirstDirectoryOfType(PngDirectory.class);
+            HeifDirectory heif = metadata.getFirstDirectoryOfType(HeifDirectory.class);
+            if (jpeg != null) {
+                width = intOrNull(jpeg, JpegDirectory.TAG_IMAGE_WIDTH);
+                height = intOrNull(jpeg, JpegDirectory.TAG_IMAGE_HEIGHT);
+            } else if (png != null) {
+                width = intOrNull(png, PngDirectory.TAG_IMAGE_WIDTH);
+                height = intOrNull(png, PngDirectory.TAG_IMAGE_HEIGHT);
+            } else if (heif != null) {
+                width = intOrNull(heif, HeifDirectory.TAG_IMAGE_WIDTH);
+                height = intOrNull(heif, HeifDirectory.TAG_IMAGE_HEIGHT);
+            }
+
+            ExifIFD0Directory ifd0 = metadata.getFirstDirectoryOfType(ExifIFD0Directory.class);
+            if (ifd0 != null) {
+                orientation = intOrNull(ifd0, ExifIFD0Directory.TAG_ORIENTATION);
+            }
+
+            ExifSubIFDDirectory subIfd = metadata.getFirstDirectoryOfType(ExifSubIFDDirectory.class);
+            if (subIfd != null) {
+                // EXIF timestamps carry no zone; read them as UTC so the wall-clock value is preserved
+                Date original = subIfd.getDateOriginal(TimeZone.getTimeZone(ZoneOffset.UTC));
+                if (original != null) {
+                    capturedAt = LocalDateTime.ofInstant(original.toInstant(), ZoneOffset.UTC);
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Could not read image metadata: {}", e.getMessage());
+        }
+
+        if (width == null || height == null) {
+            int[] dims = readDimensions(imageBytes);
+            if (dims != null) {
+                width = dims[0];
+                height = dims[1];
+            }
+        }
+
+        if (width == null && orientation == null && capturedAt == null) {
+            return EMPTY;
+        }
+        return new ImageMetadata(width, height, orientation, capturedAt);
+    }
+
+    /**
+     * Read the pixel dimensions from the image header via ImageIO, without decoding.
+     *
+     * @return {width, height}, or null if no reader understands the format
+     */
+    public static int[] readDimensions(byte[] imageBytes) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(imageBytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return new int[] { reader.getWidth(0), reader.getHeight(0) };
+            } finally {
+                reader.dispose();
+            }
+        } catch (Exception e) {
+            log.debug("Could not read image dimensions: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static Integer intOrNull(Directory directory, int tag) {
+        return directory.containsTag(tag) ? directory.getInteger(tag) : null;
+    }
+}
@@ -0,0 +1,369 @@
+package com.ibrasoft.lensbridge.service.media;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ibrasoft.lensbridge.service.storage.StorageBackend;
+import com.ibrasoft.lensbridge.service.storage.StorageObject;
+import com.ibrasoft.lensbridge.service.storage.StorageObjectNotFoundException;
+import com.ibrasoft.lensbridge.service.storage.StoredObjectInfo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional disk-backed LRU of stored objects, keyed by object key and ETag, so hot media
+ * can be served from local disk (zero-copy) instead of re-fetched through presigned URLs.
+ * When the storage backend already keeps objects as local files they are served in place.
+ *
+ * Entries are revalidated with a HEAD request once they are older than
+ * media.local-cache.revalidate-after; a changed ETag drops the entry and refetches.
+ * The index is in memory only, so previously cached files are cleared on startup.
+ *
+ * get() hands out a Lease that pins the file: an entry evicted or replaced while leased
+ * leaves the index straight away, but its file is deleted only once the last lease is closed.
+ *
+ * Enable with media.local-cache.enabled=true.
+ */
+@Component
+@Slf4j
+public class LocalMediaCache {
+
+    // sendfile opens the file by name after the handler returns; once open, deleting it is harmless
+    private static final long HANDOFF_GRACE_SECONDS = 30;
+
+    private final StorageBackend storageBackend;
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+    private final long maxObjectBytes;
+    private final long revalidateAfterMillis;
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    private final AtomicLong fetches = new AtomicLong();
+
+    private final Map<String, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> uncacheable;
+    private final ScheduledExecutorService releaser = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("media-cache-release").daemon().factory());
+
+    public LocalMediaCache(StorageBackend storageBackend,
+                           @Value("${media.local-cache.enabled:false}") boolean enabled,
+                           @Value("${media.local-cache.dir:${java.io.tmpdir}/lensbridge-media}") String directory,
+                           @Value("${media.local-cache.max-size:2GB}") DataSize maxSize,
+                           @Value("${media.local-cache.max-object-size:256MB}") DataSize maxObjectSize,
+                           @Value("${media.local-cache.revalidate-after:5m}") Duration revalidateAfter) {
+        this.storageBackend = storageBackend;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.maxBytes = maxSize.toBytes();
+        this.maxObjectBytes = Math.min(maxObjectSize.toBytes(), maxBytes);
+        this.revalidateAfterMillis = revalidateAfter.toMillis();
+        this.uncacheable = Caffeine.newBuilder()
+                .expireAfterWrite(revalidateAfter)
+                .maximumSize(10_000)
+                .build();
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        // Only remove files this cache wrote; the directory may be shared
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, "*.{bin,tmp}")) {
+            for (Path path : stale) {
+                deleteQuietly(path);
+            }
+        }
+        log.info("Local media cache enabled at {} (max {} MB)", directory, maxBytes / (1024 * 1024));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        releaser.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get an object from the local cache, fetching it from storage on a miss. The caller
+     * must close the lease once the file has been served.
+     *
+     * @return a lease on the cached file, or null if the cache is disabled or the object is
+     *         too large to cache (callers should fall back to a presigned URL)
+     * @throws StorageObjectNotFoundException if the object does not exist
+     */
+    public Lease get(String objectKey) {
+        if (!enabled) {
+            return null;
+        }
+
+        Optional<Path> localFile = storageBackend.localFile(objectKey);
+        if (localFile.isPresent()) {
+            // Already on local disk: no copy, no revalidation, nothing to pin
+            StoredObjectInfo info = storageBackend.head(objectKey)
+                    .orElseThrow(() -> new StorageObjectNotFoundException(objectKey));
+            return new Lease(new CachedObject(localFile.get(), info.size(), info.eTag(), info.contentType()), null);
+        }
+
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(objectKey);
+            if (entry != null) {
+                entry.pins++;
+            }
+        }
+        if (entry != null) {
+            boolean valid;
+            try {
+                valid = isStillValid(objectKey, entry);
+            } catch (RuntimeException e) {
+                unpin(entry);
+                throw e;
+            }
+            if (valid) {
+                return new Lease(entry.object, entry);
+            }
+            log.debug("Local media cache: {} changed in storage, refetching", objectKey);
+            remove(objectKey, entry);
+            unpin(entry);
+        }
+
+        if (uncacheable.getIfPresent(objectKey) != null) {
+            return null;
+        }
+
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = loading.putIfAbsent(objectKey, mine);
+        if (existing != null) {
+            Entry loaded = await(existing);
+            // Evicted again before we got to it: serve this request from storage instead
+            return loaded != null && tryPin(loaded) ? new Lease(loaded.object, loaded) : null;
+        }
+        try {
+            // Comes back pinned for this caller
+            Entry loaded = load(objectKey);
+            mine.complete(loaded);
+            return loaded != null ? new Lease(loaded.object, loaded) : null;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(objectKey, mine);
+        }
+    }
+
+    private boolean isStillValid(String objectKey, Entry entry) {
+        if (System.currentTimeMillis() - entry.validatedAt < revalidateAfterMillis) {
+            return true;
+        }
+        StoredObjectInfo head = storageBackend.head(objectKey)
+                .orElseThrow(() -> new StorageObjectNotFoundException(objectKey));
+        if (entry.object.eTag().equals(head.eTag())) {
+            entry.validatedAt = System.currentTimeMillis();
+            return true;
+        }
+        return false;
+    }
+
+    private Entry load(String objectKey) {
+        StoredObjectInfo head = storageBackend.head(objectKey)
+                .orElseThrow(() -> new StorageObjectNotFoundException(objectKey));
+        if (head.size() > maxObjectBytes) {
+            uncacheable.put(objectKey, Boolean.TRUE);
+            return null;
+        }
+        try (StorageObject in = storageBackend.get(objectKey)) {
+            StoredObjectInfo response = in.info();
+            // A fresh name per fetch, so deleting a retired copy never hits its replacement
+            Path target = directory.resolve(fileName(objectKey, response.eTag()) + "-" + fetches.incrementAndGet() + ".bin");
+            Path temp = Files.createTempFile(directory, "fetch-", ".tmp");
+            try {
+                Files.copy(in.body(), temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+
+            CachedObject object = new CachedObject(target, Files.size(target), response.eTag(), response.contentType());
+            Entry entry = new Entry(object);
+            synchronized (this) {
+                entry.pins = 1;
+                Entry previous = entries.put(objectKey, entry);
+                if (previous != null) {
+                    totalBytes -= previous.object.length();
+                    retire(previous);
+                }
+                totalBytes += object.length();
+                evictIfNeeded();
+            }
+            log.debug("Local media cache: fetched {} ({} bytes)", objectKey, object.length());
+            return entry;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to cache " + objectKey, e);
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Entry eldest = it.next();
+            it.remove();
+            totalBytes -= eldest.object.length();
+            retire(eldest);
+        }
+    }
+
+    private synchronized void remove(String objectKey, Entry entry) {
+        if (entries.remove(objectKey, entry)) {
+            totalBytes -= entry.object.length();
+            retire(entry);
+        }
+    }
+
+    /**
+     * Deletes the file of an entry that has left the index, or leaves that to the last lease.
+     * Guarded by this.
+     */
+    private void retire(Entry entry) {
+        entry.retired = true;
+        if (entry.pins == 0) {
+            deleteQuietly(entry.object.path());
+        }
+    }
+
+    private synchronized boolean tryPin(Entry entry) {
+        if (entry.retired) {
+            return false;
+        }
+        entry.pins++;
+        return true;
+    }
+
+    private synchronized void unpin(Entry entry) {
+        entry.pins--;
+        if (entry.pins == 0 && entry.retired) {
+            deleteQuietly(entry.object.path());
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete cached media file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private Entry await(CompletableFuture<Entry> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for media fetch", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static String fileName(String objectKey, String eTag) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((objectKey + "\n" + eTag).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * A locally cached copy of an R2 object.
+     */
+    public record CachedObject(Path path, long length, String eTag, String contentType) {}
+
+    /**
+     * Keeps a cached file on disk while a response is using it. Closing twice is harmless.
+     */
+    public final class Lease implements AutoCloseable {
+        private final CachedObject object;
+        private final Entry entry;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Lease(CachedObject object, Entry entry) {
+            this.object = object;
+            this.entry = entry;
+        }
+
+        public CachedObject object() {
+            return object;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true) && entry != null) {
+                unpin(entry);
+            }
+        }
+
+        /**
+         * Close once the connector has had time to open the file, for bodies handed to sendfile.
+         */
+        public void closeAfterHandoff() {
+            if (entry == null) {
+                close();
+                return;
+            }
+            try {
+                releaser.schedule(this::close, HANDOFF_GRACE_SECONDS, TimeUnit.SECONDS);
+            } catch (RuntimeException e) {
+                // Shutting down
+                close();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final CachedObject object;
+        private volatile long validatedAt = System.currentTimeMillis();
+        // Guarded by LocalMediaCache.this
+        private int pins;
+        private boolean retired;
+
+        private Entry(CachedObject object) {
+            this.object = object;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.ibrasoft.lensbridge.service.media;
+
+import com.ibrasoft.lensbridge.model.upload.Upload;
+import com.ibrasoft.lensbridge.repository.UploadRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory near-duplicate index over upload perceptual hashes, one BK-tree per event.
+ * Trees are loaded lazily from Mongo on first lookup for an event and kept up to date
+ * as thumbnails (and therefore hashes) are generated. Each upload is in a tree once:
+ * re-adding it with the same hash is a no-op, and a changed hash (a regenerated
+ * thumbnail) or a deletion drops the event's tree so it is rebuilt on the next lookup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NearDuplicateIndex {
+
+    /** Key for uploads that are not attached to an event (ConcurrentHashMap disallows null keys). */
+    private static final UUID NO_EVENT = new UUID(0L, 0L);
+
+    private final UploadRepository uploadRepository;
+
+    private final Map<UUID, EventTree> trees = new ConcurrentHashMap<>();
+
+    /**
+     * One event's tree and the hash each upload was indexed under; guarded by itself.
+     */
+    private static final class EventTree {
+        final BkTree<UUID> tree = new BkTree<>();
+        final Map<UUID, Long> hashes = new HashMap<>();
+    }
+
+    @Value("${moderation.duplicates.max-distance:10}")
+    private int maxDistance;
+
+    /**
+     * Register a freshly hashed upload. No-op if the event's tree is not loaded yet,
+     * since the lazy load will pick the upload up from the database, or if the upload is
+     * already indexed under this hash. A different hash can't be removed from the BK-tree,
+     * so the event's tree is dropped and rebuilt on the next lookup.
+     */
+    public void add(Upload upload) {
+        if (upload.getPerceptualHash() == null) return;
+        UUID key = key(upload.getEventId());
+        EventTree tree = trees.get(key);
+        if (tree == null) return;
+        synchronized (tree) {
+            Long previous = tree.hashes.putIfAbsent(upload.getUuid(), upload.getPerceptualHash());
+            if (previous == null) {
+                tree.tree.add(upload.getPerceptualHash(), upload.getUuid());
+                return;
+            }
+            if (previous.equals(upload.getPerceptualHash())) {
+                return;
+            }
+        }
+        trees.remove(key, tree);
+    }
+
+    /**
+     * Drop the cached tree for an event, e.g. after one of its uploads is deleted.
+     */
+    public void invalidate(UUID eventId) {
+        trees.remove(key(eventId));
+    }
+
+    /**
+     * Find uploads in the same event whose hash is within the configured Hamming distance.
+     * The upload itself is excluded from the result.
+     */
+    public List<UUID> findNearDuplicates(Upload upload) {
+        if (upload.getPerceptualHash() == null) return List.of();
+        EventTree tree = trees.computeIfAbsent(key(upload.getEventId()), k -> load(upload.getEventId()));
+        List<BkTree.Match<UUID>> matches;
+        synchronized (tree) {
+            matches = tree.tree.search(upload.getPerceptualHash(), maxDistance);
+        }
+        return matches.stream()
+                .sorted((a, b) -> Integer.compare(a.distance(), b.distance()))
+                .map(BkTree.Match::value)
+                .filter(id -> !id.equals(upload.getUuid()))
+                .distinct()
+                .toList();
+    }
+
+    private EventTree load(UUID eventId) {
+        List<Upload> hashed = eventId == null
+                ? uploadRepository.findByEventIdIsNullAndPerceptualHashNotNull()
+                : uploadRepository.findByEventIdAndPerceptualHashNotNull(eventId);
+        EventTree tree = new EventTree();
+        for (Upload u : hashed) {
+            if (tree.hashes.putIfAbsent(u.getUuid(), u.getPerceptualHash()) == null) {
+                tree.tree.add(u.getPerceptualHash(), u.getUuid());
+            }
+        }
+        log.debug("Loaded near-duplicate index for event {} ({} hashes)", eventId, tree.tree.size());
+        return tree;
+    }
+
+    private static UUID key(UUID eventId) {
+        return eventId != null ? eventId : NO_EVENT;
+    }
+}
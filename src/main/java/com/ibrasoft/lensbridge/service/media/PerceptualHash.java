@@ -0,0 +1,51 @@
+package com.ibrasoft.lensbridge.service.media;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+
+/**
+ * 64-bit difference hash (dHash) for near-duplicate image detection.
+ * Burst shots and re-edited copies of the same photo land within a few bits
+ * of each other, so comparing hashes by Hamming distance groups them cheaply.
+ */
+public final class PerceptualHash {
+
+    private static final int HASH_WIDTH = 9;
+    private static final int HASH_HEIGHT = 8;
+
+    private PerceptualHash() {}
+
+    /**
+     * Compute the dHash of an image. Works best on an already downscaled image
+     * (e.g. the generated thumbnail) since area averaging a full-size photo is slow.
+     */
+    public static long dHash(BufferedImage image) {
+        Image scaled = image.getScaledInstance(HASH_WIDTH, HASH_HEIGHT, Image.SCALE_AREA_AVERAGING);
+        BufferedImage gray = new BufferedImage(HASH_WIDTH, HASH_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = gray.createGraphics();
+        try {
+            g.drawImage(scaled, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+
+        Raster raster = gray.getRaster();
+        long hash = 0L;
+        for (int y = 0; y < HASH_HEIGHT; y++) {
+            for (int x = 0; x < HASH_WIDTH - 1; x++) {
+                boolean brighter = raster.getSample(x, y, 0) < raster.getSample(x + 1, y, 0);
+                hash = (hash << 1) | (brighter ? 1L : 0L);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Number of differing bits between two hashes.
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+}
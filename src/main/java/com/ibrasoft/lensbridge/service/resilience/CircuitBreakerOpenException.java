@@ -0,0 +1,23 @@
+package com.ibrasoft.lensbridge.service.resilience;
+
+import java.time.Duration;
+
+/**
+ * Thrown instead of calling a dependency whose circuit breaker is open.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    /**
+     * @param retryAfter how long until the breaker lets trial calls through again
+     */
+    public CircuitBreakerOpenException(String dependency, Duration retryAfter) {
+        super("Circuit breaker for " + dependency + " is open");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
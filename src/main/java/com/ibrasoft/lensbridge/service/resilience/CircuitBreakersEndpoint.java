@@ -0,0 +1,34 @@
+package com.ibrasoft.lensbridge.service.resilience;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/circuitbreakers: breaker state and recent failure rate per dependency.
+ */
+@Component
+@Endpoint(id = "circuitbreakers")
+@RequiredArgsConstructor
+public class CircuitBreakersEndpoint {
+
+    private final ResilienceRegistry resilienceRegistry;
+
+    @ReadOperation
+    public Map<String, Object> circuitBreakers() {
+        Map<String, Object> breakers = new LinkedHashMap<>();
+        for (DependencyGuard guard : resilienceRegistry.all()) {
+            CircuitBreaker breaker = guard.getCircuitBreaker();
+            breakers.put(guard.getName(), Map.of(
+                    "state", breaker.getState().name(),
+                    "failureRatePercent", breaker.getFailureRate(),
+                    "callTimeout", guard.getPolicy().getCallTimeout().toString(),
+                    "maxAttempts", guard.getPolicy().getMaxAttempts()));
+        }
+        return breakers;
+    }
+}
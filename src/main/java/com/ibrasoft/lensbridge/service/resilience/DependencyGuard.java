@@ -0,0 +1,239 @@
+package com.ibrasoft.lensbridge.service.resilience;
+
+import com.ibrasoft.lensbridge.config.ResilienceProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Wraps calls to one outbound dependency with a circuit breaker, bounded retries with
+ * jittered exponential backoff and (for async calls) a per-attempt timeout.
+ *
+ * Only exceptions the failure classifier accepts count against the breaker and are
+ * retried; anything else (a missing object, a bad request) means the dependency answered
+ * and is rethrown straight away.
+ */
+@Slf4j
+public class DependencyGuard {
+
+    private final String name;
+    private final ResilienceProperties.Policy policy;
+    private final Predicate<Throwable> isDependencyFailure;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter retries;
+    private final Counter rejected;
+    private final Counter hedges;
+
+    public DependencyGuard(String name, ResilienceProperties.Policy policy,
+                           Predicate<Throwable> isDependencyFailure, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.policy = policy;
+        this.isDependencyFailure = isDependencyFailure;
+        this.circuitBreaker = new CircuitBreaker(name, policy.getFailureRateThreshold(), policy.getMinimumCalls(),
+                policy.getSlidingWindowSize(), policy.getOpenDuration(), policy.getHalfOpenCalls());
+        Gauge.builder("resilience.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .tag("dependency", name)
+                .register(meterRegistry);
+        this.retries = Counter.builder("resilience.retries").tag("dependency", name).register(meterRegistry);
+        this.rejected = Counter.builder("resilience.rejected")
+                .description("Calls refused because the circuit was open")
+                .tag("dependency", name)
+                .register(meterRegistry);
+        this.hedges = Counter.builder("resilience.hedges").tag("dependency", name).register(meterRegistry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public ResilienceProperties.Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Run a blocking call. The call itself must enforce its own timeout (client or socket
+     * settings); this adds the breaker and retries.
+     *
+     * @throws CircuitBreakerOpenException if the breaker is open
+     */
+    public <T> T call(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            acquire();
+            try {
+                T result = action.get();
+                circuitBreaker.onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                boolean dependencyFailure = record(e);
+                if (!dependencyFailure || attempt >= policy.getMaxAttempts()) {
+                    throw e;
+                }
+                retries.increment();
+                sleep(backoff(attempt));
+            }
+        }
+    }
+
+    /**
+     * Like {@link #call} but never retries, for calls that can't be repeated safely.
+     */
+    public <T> T callOnce(Supplier<T> action) {
+        acquire();
+        try {
+            T result = action.get();
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            record(e);
+            throw e;
+        }
+    }
+
+    public void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run an async call with a timeout per attempt, retrying on a delayed executor so no
+     * thread waits out the backoff.
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> action) {
+        return callAsync(action, policy.getCallTimeout());
+    }
+
+    /**
+     * As {@link #callAsync(Supplier)} with an explicit per-attempt timeout, e.g. for transfers.
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> action, Duration timeout) {
+        return attemptAsync(action, timeout, 1);
+    }
+
+    private <T> CompletableFuture<T> attemptAsync(Supplier<CompletableFuture<T>> action, Duration timeout, int attempt) {
+        if (!circuitBreaker.tryAcquire()) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new CircuitBreakerOpenException(name, circuitBreaker.getRemainingOpenTime()));
+        }
+        CompletableFuture<T> started;
+        try {
+            started = action.get();
+        } catch (RuntimeException e) {
+            started = CompletableFuture.failedFuture(e);
+        }
+        return started
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((value, error) -> {
+                    if (error == null) {
+                        circuitBreaker.onSuccess();
+                        return CompletableFuture.completedFuture(value);
+                    }
+                    Throwable cause = unwrap(error);
+                    if (!record(cause) || attempt >= policy.getMaxAttempts()) {
+                        return CompletableFuture.<T>failedFuture(cause);
+                    }
+                    retries.increment();
+                    Duration delay = backoff(attempt);
+                    return CompletableFuture.supplyAsync(() -> null,
+                                    CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS))
+                            .thenCompose(ignored -> attemptAsync(action, timeout, attempt + 1));
+                })
+                .thenCompose(future -> future);
+    }
+
+    /**
+     * Async call for idempotent reads: if the first attempt hasn't answered within
+     * hedgeAfter, a second copy is sent and whichever answers first wins. Fails only if
+     * every copy fails.
+     */
+    public <T> CompletableFuture<T> hedgedAsync(Supplier<CompletableFuture<T>> action, Duration timeout) {
+        Duration hedgeAfter = policy.getHedgeAfter();
+        if (hedgeAfter == null || hedgeAfter.isZero() || hedgeAfter.isNegative()) {
+            return callAsync(action, timeout);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        BiConsumer<T, Throwable> onDone = (value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(unwrap(error));
+            }
+        };
+        callAsync(action, timeout).whenComplete(onDone);
+        CompletableFuture.delayedExecutor(hedgeAfter.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            // Only hedge while the first copy is still outstanding
+            if (result.isDone() || outstanding.getAndUpdate(n -> n == 0 ? 0 : n + 1) == 0) {
+                return;
+            }
+            hedges.increment();
+            callAsync(action, timeout).whenComplete(onDone);
+        });
+        return result;
+    }
+
+    private void acquire() {
+        if (!circuitBreaker.tryAcquire()) {
+            rejected.increment();
+            throw new CircuitBreakerOpenException(name, circuitBreaker.getRemainingOpenTime());
+        }
+    }
+
+    /**
+     * @return whether the failure was the dependency's fault
+     */
+    private boolean record(Throwable error) {
+        boolean dependencyFailure = error instanceof TimeoutException || isDependencyFailure.test(error);
+        if (dependencyFailure) {
+            circuitBreaker.onFailure();
+            log.debug("{} call failed: {}", name, error.toString());
+        } else {
+            circuitBreaker.onSuccess();
+        }
+        return dependencyFailure;
+    }
+
+    /**
+     * Full jitter: uniform in [0, min(maxBackoff, initialBackoff * 2^(attempt-1))].
+     */
+    Duration backoff(int attempt) {
+        long cap = policy.getInitialBackoff().toMillis() << Math.min(attempt - 1, 20);
+        long bounded = Math.min(policy.getMaxBackoff().toMillis(), cap);
+        return Duration.ofMillis(bounded <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bounded + 1));
+    }
+
+    private static void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during retry backoff", e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ibrasoft.lensbridge.service.resilience;
+
+import com.ibrasoft.lensbridge.config.ResilienceProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The guarded outbound dependencies. Each one gets its own breaker, so a slow R2 does
+ * not fail mail sends and vice versa.
+ */
+@Component
+public class ResilienceRegistry {
+
+    private final DependencyGuard r2;
+    private final DependencyGuard smtp;
+
+    public ResilienceRegistry(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.r2 = new DependencyGuard("r2", properties.getR2(), ResilienceRegistry::isStorageFailure, meterRegistry);
+        this.smtp = new DependencyGuard("smtp", properties.getSmtp(), e -> e instanceof MailSendException, meterRegistry);
+    }
+
+    public DependencyGuard r2() {
+        return r2;
+    }
+
+    public DependencyGuard smtp() {
+        return smtp;
+    }
+
+    public Collection<DependencyGuard> all() {
+        return List.of(r2, smtp);
+    }
+
+    /**
+     * Network errors, throttling and server errors; not 4xx answers such as a missing key.
+     */
+    static boolean isStorageFailure(Throwable error) {
+        if (error instanceof AwsServiceException service) {
+            return service.statusCode() >= 500 || service.statusCode() == 429;
+        }
+        return error instanceof SdkClientException || error instanceof UncheckedIOException;
+    }
+}
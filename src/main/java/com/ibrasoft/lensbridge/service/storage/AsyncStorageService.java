@@ -0,0 +1,159 @@
+package com.ibrasoft.lensbridge.service.storage;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking access to the storage backend. Every operation returns a CompletableFuture;
+ * at most storage.async.max-in-flight run at once and the rest queue without holding a
+ * thread, so a large multi-object workflow can't exhaust the R2 connection pool.
+ */
+@Service
+public class AsyncStorageService {
+
+    private final StorageBackend storageBackend;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<Runnable> queued = new ConcurrentLinkedQueue<>();
+    // Set while this thread is inside drain(), see there
+    private final ThreadLocal<Boolean> draining = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    public AsyncStorageService(StorageBackend storageBackend,
+                               @Value("${storage.async.max-in-flight:32}") int maxInFlight,
+                               MeterRegistry meterRegistry) {
+        this.storageBackend = storageBackend;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        Gauge.builder("storage.async.in_flight", inFlight, AtomicInteger::get)
+                .description("Storage operations currently running")
+                .register(meterRegistry);
+        Gauge.builder("storage.async.queued", queued, Queue::size)
+                .description("Storage operations waiting for an in-flight slot")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<byte[]> getBytes(String key) {
+        return submit(() -> storageBackend.getBytesAsync(key));
+    }
+
+    public CompletableFuture<StoredObjectInfo> put(String key, byte[] data, String contentType) {
+        return submit(() -> storageBackend.putAsync(key, data, contentType));
+    }
+
+    public CompletableFuture<Optional<StoredObjectInfo>> head(String key) {
+        return submit(() -> storageBackend.headAsync(key));
+    }
+
+    public CompletableFuture<Void> delete(String key) {
+        return submit(() -> storageBackend.deleteAsync(key));
+    }
+
+    /**
+     * Delete many objects; the backend batches where it can and batches run concurrently.
+     */
+    public CompletableFuture<Integer> deleteAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        return submit(() -> storageBackend.deleteAllAsync(List.copyOf(keys)));
+    }
+
+    /**
+     * Delete every object under a prefix.
+     *
+     * @return number of objects deleted
+     */
+    public CompletableFuture<Integer> deleteWithPrefix(String prefix) {
+        return submit(() -> storageBackend.listAsync(prefix))
+                .thenCompose(objects -> deleteAll(objects.stream().map(StoredObjectInfo::key).toList()));
+    }
+
+    /**
+     * Delete the given keys and everything under the given prefixes, all concurrently.
+     * Null or blank keys are skipped.
+     */
+    public CompletableFuture<Void> deleteObjectsAndPrefixes(Collection<String> keys, Collection<String> prefixes) {
+        List<String> validKeys = keys.stream().filter(k -> k != null && !k.isBlank()).toList();
+        List<CompletableFuture<?>> deletions = new ArrayList<>();
+        deletions.add(deleteAll(validKeys));
+        for (String prefix : prefixes) {
+            deletions.add(deleteWithPrefix(prefix));
+        }
+        return CompletableFuture.allOf(deletions.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Start the operation now if a slot is free, otherwise queue it. The returned future
+     * completes with the operation's result either way.
+     */
+    private <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> operation) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        queued.add(() -> {
+            CompletableFuture<T> started;
+            try {
+                started = operation.get();
+            } catch (RuntimeException e) {
+                started = CompletableFuture.failedFuture(e);
+            }
+            started.whenComplete((value, error) -> {
+                inFlight.decrementAndGet();
+                drain();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        });
+        drain();
+        return result;
+    }
+
+    /**
+     * Start queued operations while slots are free. An operation that fails inline (an open
+     * circuit breaker returns an already-failed future) completes, and calls drain() again,
+     * from inside next.run(); that nested call returns straight away and this loop starts
+     * the next operation, so the stack doesn't grow with the queue.
+     */
+    private void drain() {
+        if (draining.get()) {
+            return;
+        }
+        draining.set(Boolean.TRUE);
+        try {
+            drainLoop();
+        } finally {
+            draining.set(Boolean.FALSE);
+        }
+    }
+
+    private void drainLoop() {
+        while (!queued.isEmpty()) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Runnable next = queued.poll();
+            if (next == null) {
+                // Another thread took the last one; give the slot back
+                inFlight.decrementAndGet();
+                continue;
+            }
+            next.run();
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.ibrasoft.lensbridge.service.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Stores objects as plain files under a root directory, for development and
+ * self-hosted installs without R2.
+ *
+ * Layout: objects/&lt;key&gt; holds the content, meta/&lt;key&gt;.type its content type, and
+ * tmp/ receives writes before they are atomically moved into place so readers never
+ * see a partial object. Presigned URLs point at /api/storage/** (LocalStorageController)
+ * and carry an HMAC-SHA256 signature over the method, key, expiry and, for uploads,
+ * the declared content type and length.
+ */
+@Slf4j
+public class FileSystemStorageBackend implements StorageBackend {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Path objectsDir;
+    private final Path metaDir;
+    private final Path tmpDir;
+    private final byte[] signingKey;
+    private final String baseUrl;
+
+    public FileSystemStorageBackend(Path root, String signingKey, String baseUrl) {
+        if (signingKey == null || signingKey.isBlank()) {
+            throw new IllegalArgumentException("storage.filesystem.signing-key must be set");
+        }
+        Path absoluteRoot = root.toAbsolutePath().normalize();
+        this.objectsDir = absoluteRoot.resolve("objects");
+        this.metaDir = absoluteRoot.resolve("meta");
+        this.tmpDir = absoluteRoot.resolve("tmp");
+        this.signingKey = signingKey.getBytes(StandardCharsets.UTF_8);
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        try {
+            Files.createDirectories(objectsDir);
+            Files.createDirectories(metaDir);
+            Files.createDirectories(tmpDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create storage directories under " + absoluteRoot, e);
+        }
+        log.info("Filesystem storage backend at {}", absoluteRoot);
+    }
+
+    @Override
+    public String name() {
+        return "filesystem";
+    }
+
+    @Override
+    public StoredObjectInfo put(String key, byte[] data, String contentType) {
+        Path target = objectPath(key);
+        try {
+            Path tmp = Files.createTempFile(tmpDir, "put-", ".tmp");
+            try {
+                Files.write(tmp, data);
+                return commit(key, tmp, target, contentType);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store " + key, e);
+        }
+    }
+
+    @Override
+    public StoredObjectInfo put(String key, Path file, String contentType) {
+        Path target = objectPath(key);
+        try {
+            Path tmp = Files.createTempFile(tmpDir, "put-", ".tmp");
+            try {
+                try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+                     FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                    long size = in.size();
+                    long position = 0;
+                    while (position < size) {
+                        long copied = in.transferTo(position, size - position, out);
+                        if (copied <= 0) break;
+                        position += copied;
+                    }
+                }
+                return commit(key, tmp, target, contentType);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store " + key, e);
+        }
+    }
+
+    @Override
+    public StoredObjectInfo put(String key, InputStream data, long contentLength, String contentType) {
+        Path target = objectPath(key);
+        try {
+            Path tmp = Files.createTempFile(tmpDir, "put-", ".tmp");
+            try {
+                long written;
+                try (ReadableByteChannel in = Channels.newChannel(data);
+                     FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                    written = 0;
+                    while (written < contentLength) {
+                        long copied = out.transferFrom(in, written, contentLength - written);
+                        if (copied <= 0) break;
+                        written += copied;
+                    }
+                }
+                if (written != contentLength) {
+                    throw new IOException("Expected " + contentLength + " bytes for " + key + " but got " + written);
+                }
+                return commit(key, tmp, target, contentType);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store " + key, e);
+        }
+    }
+
+    private StoredObjectInfo commit(String key, Path tmp, Path target, String contentType) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path typeFile = metaPath(key);
+        if (contentType != null) {
+            Files.createDirectories(typeFile.getParent());
+            Files.writeString(typeFile, contentType);
+        } else {
+            Files.deleteIfExists(typeFile);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return info(key, target, Files.readAttributes(target, BasicFileAttributes.class));
+    }
+
+    @Override
+    public StorageObject get(String key) {
+        Path path = existingObjectPath(key);
+        try {
+            StoredObjectInfo info = info(key, path, Files.readAttributes(path, BasicFileAttributes.class));
+            return new StorageObject(info, Files.newInputStream(path), info.size());
+        } catch (NoSuchFileException e) {
+            throw new StorageObjectNotFoundException(key, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + key, e);
+        }
+    }
+
+    @Override
+    public StorageObject get(String key, long start, long end) {
+        Path path = existingObjectPath(key);
+        try {
+            StoredObjectInfo info = info(key, path, Files.readAttributes(path, BasicFileAttributes.class));
+            long last = Math.min(end, info.size() - 1);
+            if (start < 0 || start > last) {
+                throw new IllegalArgumentException("Range " + start + "-" + end + " outside " + key + " (" + info.size() + " bytes)");
+            }
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            channel.position(start);
+            long count = last - start + 1;
+            return new StorageObject(info, new BoundedInputStream(Channels.newInputStream(channel), count), count);
+        } catch (NoSuchFileException e) {
+            throw new StorageObjectNotFoundException(key, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + key, e);
+        }
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        try {
+            return Files.readAllBytes(existingObjectPath(key));
+        } catch (NoSuchFileException e) {
+            throw new StorageObjectNotFoundException(key, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + key, e);
+        }
+    }
+
+    @Override
+    public Optional<StoredObjectInfo> head(String key) {
+        Path path = objectPath(key);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.isRegularFile() ? Optional.of(info(key, path, attributes)) : Optional.empty();
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to stat " + key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(objectPath(key));
+            Files.deleteIfExists(metaPath(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete " + key, e);
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<String> keys) {
+        keys.forEach(this::delete);
+        return keys.size();
+    }
+
+    @Override
+    public List<StoredObjectInfo> list(String prefix) {
+        // Walk only the deepest directory the prefix fully names
+        int slash = prefix.lastIndexOf('/');
+        Path start = slash < 0 ? objectsDir : objectPath(prefix.substring(0, slash));
+        if (!Files.isDirectory(start)) {
+            return List.of();
+        }
+        List<StoredObjectInfo> objects = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(start)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                String key = keyOf(path);
+                if (!key.startsWith(prefix)) continue;
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    objects.add(info(key, path, attributes));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list " + prefix, e);
+        }
+        objects.sort(Comparator.comparing(StoredObjectInfo::key));
+        return objects;
+    }
+
+    @Override
+    public String presignGet(String key, Duration ttl) {
+        objectPath(key);
+        long expires = Instant.now().plus(ttl).getEpochSecond();
+        return baseUrl + "/api/storage/" + encodeKey(key)
+                + "?expires=" + expires
+                + "&sig=" + sign("GET", key, expires, null, -1);
+    }
+
+    @Override
+    public String presignPut(String key, String contentType, long contentLength, Duration ttl) {
+        objectPath(key);
+        long expires = Instant.now().plus(ttl).getEpochSecond();
+        return baseUrl + "/api/storage/" + encodeKey(key)
+                + "?expires=" + expires
+                + "&sig=" + sign("PUT", key, expires, contentType, contentLength);
+    }
+
+    /**
+     * Check a signature produced by {@link #presignGet}; also accepts HEAD.
+     */
+    public boolean verifyGet(String key, long expires, String signature) {
+        return verify(sign("GET", key, expires, null, -1), expires, signature);
+    }
+
+    /**
+     * Check a signature produced by {@link #presignPut} against the request's actual
+     * Content-Type and Content-Length.
+     */
+    public boolean verifyPut(String key, long expires, String contentType, long contentLength, String signature) {
+        return verify(sign("PUT", key, expires, contentType, contentLength), expires, signature);
+    }
+
+    private static boolean verify(String expected, long expires, String signature) {
+        if (signature == null || Instant.now().getEpochSecond() > expires) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String sign(String method, String key, long expires, String contentType, long contentLength) {
+        StringBuilder payload = new StringBuilder()
+                .append(method).append('\n')
+                .append(key).append('\n')
+                .append(expires);
+        if (contentType != null || contentLength >= 0) {
+            payload.append('\n').append(contentType).append('\n').append(contentLength);
+        }
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(signingKey, HMAC_ALGORITHM));
+            byte[] digest = mac.doFinal(payload.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+
+    @Override
+    public Optional<Path> localFile(String key) {
+        Path path = objectPath(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    private StoredObjectInfo info(String key, Path path, BasicFileAttributes attributes) {
+        Instant modified = attributes.lastModifiedTime().toInstant();
+        String eTag = "\"" + Long.toHexString(attributes.size()) + "-" + Long.toHexString(modified.toEpochMilli()) + "\"";
+        return new StoredObjectInfo(key, attributes.size(), eTag, readContentType(key, path), modified);
+    }
+
+    private String readContentType(String key, Path path) {
+        Path typeFile = metaPath(key);
+        try {
+            return Files.readString(typeFile).trim();
+        } catch (NoSuchFileException e) {
+            try {
+                return Files.probeContentType(path);
+            } catch (IOException ignored) {
+                return null;
+            }
+        } catch (IOException e) {
+            log.warn("Unreadable content type for {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private Path existingObjectPath(String key) {
+        Path path = objectPath(key);
+        if (!Files.isRegularFile(path)) {
+            throw new StorageObjectNotFoundException(key);
+        }
+        return path;
+    }
+
+    /**
+     * Resolve a key under objects/, rejecting anything that could escape the root.
+     */
+    private Path objectPath(String key) {
+        return resolveUnder(objectsDir, key, "");
+    }
+
+    private Path metaPath(String key) {
+        return resolveUnder(metaDir, key, ".type");
+    }
+
+    private static Path resolveUnder(Path dir, String key, String suffix) {
+        if (key == null || key.isEmpty() || key.startsWith("/") || key.contains("\\") || key.indexOf('\0') >= 0) {
+            throw new IllegalArgumentException("Invalid object key: " + key);
+        }
+        for (String segment : key.split("/", -1)) {
+            if (segment.isEmpty() || segment.equals(".") || segment.equals("..")) {
+                throw new IllegalArgumentException("Invalid object key: " + key);
+            }
+        }
+        Path resolved = dir.resolve(key + suffix).normalize();
+        if (!resolved.startsWith(dir)) {
+            throw new IllegalArgumentException("Invalid object key: " + key);
+        }
+        return resolved;
+    }
+
+    private String keyOf(Path path) {
+        return objectsDir.relativize(path).toString().replace('\\', '/');
+    }
+
+    private static String encodeKey(String key) {
+        StringJoiner joiner = new StringJoiner("/");
+        for (String segment : key.split("/")) {
+            joiner.add(URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20"));
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Stops after a fixed number of bytes, for ranged reads.
+     */
+    private static final class BoundedInputStream extends InputStream {
+        private final InputStream delegate;
+        private long remaining;
+
+        BoundedInputStream(InputStream delegate, long limit) {
+            this.delegate = delegate;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = delegate.read();
+            if (b >= 0) remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) return -1;
+            int n = delegate.read(buffer, offset, (int) Math.min(length, remaining));
+            if (n > 0) remaining -= n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.ibrasoft.lensbridge.service.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Records every storage operation in Micrometer:
+ * <ul>
+ *   <li>storage.operations (timer with p50/p95/p99 and a percentile histogram), tagged backend, operation, prefix, outcome</li>
+ *   <li>storage.errors, tagged backend, operation, prefix, exception</li>
+ *   <li>storage.bytes, tagged backend, operation, prefix, direction (in = uploaded, out = downloaded)</li>
+ * </ul>
+ * The prefix tag is the key's top-level folder when it is one of knownPrefixes and "other"
+ * otherwise, so arbitrary keys can't blow up tag cardinality.
+ *
+ * For streamed gets the timer covers opening the object (time to first byte); bytes are
+ * counted as the caller reads them.
+ */
+public class InstrumentedStorageBackend implements StorageBackend {
+
+    private static final String OTHER_PREFIX = "other";
+
+    private final StorageBackend delegate;
+    private final MeterRegistry meterRegistry;
+    private final List<String> knownPrefixes;
+    private final String backendName;
+
+    public InstrumentedStorageBackend(StorageBackend delegate, MeterRegistry meterRegistry, List<String> knownPrefixes) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.knownPrefixes = List.copyOf(knownPrefixes);
+        this.backendName = delegate.name();
+    }
+
+    @Override
+    public String name() {
+        return backendName;
+    }
+
+    @Override
+    public StoredObjectInfo put(String key, byte[] data, String contentType) {
+        StoredObjectInfo info = timed("put", key, () -> delegate.put(key, data, contentType));
+        countBytes("put", key, "in", data.length);
+        return info;
+    }
+
+    @Override
+    public StoredObjectInfo put(String key, Path file, String contentType) {
+        StoredObjectInfo info = timed("put", key, () -> delegate.put(key, file, contentType));
+        countBytes("put", key, "in", info.size());
+        return info;
+    }
+
+    @Override
+    public StoredObjectInfo put(String key, InputStream data, long contentLength, String contentType) {
+        StoredObjectInfo info = timed("put", key, () -> delegate.put(key, data, contentLength, contentType));
+        countBytes("put", key, "in", contentLength);
+        return info;
+    }
+
+    @Override
+    public StorageObject get(String key) {
+        return counting("get", key, timed("get", key, () -> delegate.get(key)));
+    }
+
+    @Override
+    public StorageObject get(String key, long start, long end) {
+        return counting("get_range", key, timed("get_range", key, () -> delegate.get(key, start, end)));
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        byte[] data = timed("get", key, () -> delegate.getBytes(key));
+        countBytes("get", key, "out", data.length);
+        return data;
+    }
+
+    @Override
+    public Optional<StoredObjectInfo> head(String key) {
+        return timed("head", key, () -> delegate.head(key));
+    }
+
+    @Override
+    public void delete(String key) {
+        timed("delete", key, () -> {
+            delegate.delete(key);
+            return null;
+        });
+    }
+
+    @Override
+    public int deleteAll(Collection<String> keys) {
+        return timed("delete_batch", batchKey(keys), () -> delegate.deleteAll(keys));
+    }
+
+    @Override
+    public List<StoredObjectInfo> list(String prefix) {
+        return timed("list", prefix, () -> delegate.list(prefix));
+    }
+
+    @Override
+    public String presignGet(String key, Duration ttl) {
+        return timed("presign_get", key, () -> delegate.presignGet(key, ttl));
+    }
+
+    @Override
+    public String presignPut(String key, String contentType, long contentLength, Duration ttl) {
+        return timed("presign_put", key, () -> delegate.presignPut(key, contentType, contentLength, ttl));
+    }
+
+    @Override
+    public Optional<Path> localFile(String key) {
+        return delegate.localFile(key);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> getBytesAsync(String key) {
+        return timedAsync("get", key, () -> delegate.getBytesAsync(key))
+                .thenApply(data -> {
+                    countBytes("get", key, "out", data.length);
+                    return data;
+                });
+    }
+
+    @Override
+    public CompletableFuture<StoredObjectInfo> putAsync(String key, byte[] data, String contentType) {
+        return timedAsync("put", key, () -> delegate.putAsync(key, data, contentType))
+                .thenApply(info -> {
+                    countBytes("put", key, "in", data.length);
+                    return info;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Optional<StoredObjectInfo>> headAsync(String key) {
+        return timedAsync("head", key, () -> delegate.headAsync(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(String key) {
+        return timedAsync("delete", key, () -> delegate.deleteAsync(key));
+    }
+
+    @Override
+    public CompletableFuture<Integer> deleteAllAsync(Collection<String> keys) {
+        return timedAsync("delete_batch", batchKey(keys), () -> delegate.deleteAllAsync(keys));
+    }
+
+    @Override
+    public CompletableFuture<List<StoredObjectInfo>> listAsync(String prefix) {
+        return timedAsync("list", prefix, () -> delegate.listAsync(prefix));
+    }
+
+    private <T> T timed(String operation, String key, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            T result = action.get();
+            record(operation, key, start, null);
+            return result;
+        } catch (RuntimeException e) {
+            record(operation, key, start, e);
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> timedAsync(String operation, String key, Supplier<CompletableFuture<T>> action) {
+        long start = System.nanoTime();
+        CompletableFuture<T> started;
+        try {
+            started = action.get();
+        } catch (RuntimeException e) {
+            started = CompletableFuture.failedFuture(e);
+        }
+        return started.whenComplete((value, error) -> record(operation, key, start, unwrap(error)));
+    }
+
+    private void record(String operation, String key, long startNanos, Throwable error) {
+        String prefix = prefixOf(key);
+        Timer.builder("storage.operations")
+                .description("Storage operation latency")
+                .tag("backend", backendName)
+                .tag("operation", operation)
+                .tag("prefix", prefix)
+                .tag("outcome", outcome(error))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - startNanos));
+        if (error != null && !(error instanceof StorageObjectNotFoundException)) {
+            Counter.builder("storage.errors")
+                    .description("Failed storage operations")
+                    .tag("backend", backendName)
+                    .tag("operation", operation)
+                    .tag("prefix", prefix)
+                    .tag("exception", error.getClass().getSimpleName())
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    private void countBytes(String operation, String key, String direction, long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        Counter.builder("storage.bytes")
+                .description("Bytes transferred to (in) and from (out) storage")
+                .baseUnit("bytes")
+                .tag("backend", backendName)
+                .tag("operation", operation)
+                .tag("prefix", prefixOf(key))
+                .tag("direction", direction)
+                .register(meterRegistry)
+                .increment(bytes);
+    }
+
+    private StorageObject counting(String operation, String key, StorageObject object) {
+        InputStream body = new FilterInputStream(object.body()) {
+            private long read;
+            private boolean closed;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) read++;
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) read += n;
+                return n;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    countBytes(operation, key, "out", read);
+                }
+                super.close();
+            }
+        };
+        return new StorageObject(object.info(), body, object.contentLength());
+    }
+
+    private static String outcome(Throwable error) {
+        if (error == null) {
+            return "success";
+        }
+        return error instanceof StorageObjectNotFoundException ? "not_found" : "error";
+    }
+
+    private String prefixOf(String key) {
+        if (key != null) {
+            for (String prefix : knownPrefixes) {
+                if (key.startsWith(prefix)) {
+                    return prefix;
+                }
+            }
+        }
+        return OTHER_PREFIX;
+    }
+
+    /**
+     * Batches are tagged with the shared prefix of their keys, or "other" if they span several.
+     */
+    private String batchKey(Collection<String> keys) {
+        String shared = null;
+        for (String key : keys) {
+            String prefix = prefixOf(key);
+            if (shared == null) {
+                shared = prefix;
+            } else if (!shared.equals(prefix)) {
+                return OTHER_PREFIX;
+            }
+        }
+        return shared;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
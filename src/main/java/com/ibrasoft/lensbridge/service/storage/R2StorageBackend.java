@@ -0,0 +1,367 @@
+package com.ibrasoft.lensbridge.service.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Cloudflare R2 through the S3 API. Download URLs are rewritten onto the public custom
+ * domain when one is configured; upload URLs must stay on the R2 endpoint.
+ *
+ * The async operations use S3AsyncClient, so they hold no thread while waiting on R2.
+ *
+ * Metadata calls (head, delete, list) and opening a stream are bounded by callTimeout;
+ * whole-object byte[] transfers by transferTimeout. Streamed and file uploads have no
+ * overall limit since their size is unbounded. Retries are left to the caller.
+ */
+@Slf4j
+public class R2StorageBackend implements StorageBackend {
+
+    /** S3 DeleteObjects accepts at most this many keys per request. */
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
+    private final S3Presigner presigner;
+    private final String bucketName;
+    private final String publicUrl;
+    private final AwsRequestOverrideConfiguration callTimeout;
+    private final AwsRequestOverrideConfiguration transferTimeout;
+
+    public R2StorageBackend(S3Client s3Client, S3AsyncClient s3AsyncClient, S3Presigner presigner,
+                            String bucketName, String publicUrl, Duration callTimeout, Duration transferTimeout) {
+        this.s3Client = s3Client;
+        this.s3AsyncClient = s3AsyncClient;
+        this.presigner = presigner;
+        this.bucketName = bucketName;
+        this.publicUrl = publicUrl;
+        this.callTimeout = AwsRequestOverrideConfiguration.builder().apiCallAttemptTimeout(callTimeout).build();
+        this.transferTimeout = AwsRequestOverrideConfiguration.builder().apiCallAttemptTimeout(transferTimeout).build();
+    }
+
+    @Override
+    public String name() {
+        return "r2";
+    }
+
+    @Override
+    public StoredObjectInfo put(String key, byte[] data, String contentType) {
+        return put(key, RequestBody.fromBytes(data), data.length, contentType, transferTimeout);
+    }
+
+    @Override
+    public StoredObjectInfo put(String key, Path file, String contentType) {
+        return put(key, RequestBody.fromFile(file), file.toFile().length(), contentType, null);
+    }
+
+    @Override
+    public StoredObjectInfo put(String key, InputStream data, long contentLength, String contentType) {
+        return put(key, RequestBody.fromInputStream(data, contentLength), contentLength, contentType, null);
+    }
+
+    private StoredObjectInfo put(String key, RequestBody body, long contentLength, String contentType,
+                                 AwsRequestOverrideConfiguration timeout) {
+        PutObjectResponse response = s3Client.putObject(PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .overrideConfiguration(timeout)
+                .build(), body);
+        return new StoredObjectInfo(key, contentLength, response.eTag(), contentType, null);
+    }
+
+    @Override
+    public StorageObject get(String key) {
+        return open(GetObjectRequest.builder().bucket(bucketName).key(key).overrideConfiguration(callTimeout).build(), key);
+    }
+
+    @Override
+    public StorageObject get(String key, long start, long end) {
+        return open(GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .range("bytes=" + start + "-" + end)
+                .overrideConfiguration(callTimeout)
+                .build(), key);
+    }
+
+    private StorageObject open(GetObjectRequest request, String key) {
+        try {
+            ResponseInputStream<GetObjectResponse> in = s3Client.getObject(request);
+            GetObjectResponse response = in.response();
+            long total = totalLength(response);
+            StoredObjectInfo info = new StoredObjectInfo(key, total, response.eTag(),
+                    response.contentType(), response.lastModified());
+            return new StorageObject(info, in, response.contentLength());
+        } catch (NoSuchKeyException e) {
+            throw new StorageObjectNotFoundException(key, e);
+        }
+    }
+
+    /**
+     * Full object size; for ranged responses it's after the slash in Content-Range.
+     */
+    private static long totalLength(GetObjectResponse response) {
+        String contentRange = response.contentRange();
+        if (contentRange != null) {
+            int slash = contentRange.lastIndexOf('/');
+            if (slash >= 0 && !contentRange.endsWith("*")) {
+                return Long.parseLong(contentRange.substring(slash + 1).trim());
+            }
+        }
+        return response.contentLength();
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        try {
+            return s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .overrideConfiguration(transferTimeout)
+                    .build()).asByteArray();
+        } catch (NoSuchKeyException e) {
+            throw new StorageObjectNotFoundException(key, e);
+        }
+    }
+
+    @Override
+    public Optional<StoredObjectInfo> head(String key) {
+        try {
+            HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .overrideConfiguration(callTimeout)
+                    .build());
+            return Optional.of(new StoredObjectInfo(key, head.contentLength(), head.eTag(),
+                    head.contentType(), head.lastModified()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        s3Client.deleteObject(DeleteObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .overrideConfiguration(callTimeout)
+                .build());
+    }
+
+    @Override
+    public int deleteAll(Collection<String> keys) {
+        for (DeleteObjectsRequest request : deleteRequests(keys)) {
+            checkDeleteErrors(s3Client.deleteObjects(request));
+        }
+        return keys.size();
+    }
+
+    private List<DeleteObjectsRequest> deleteRequests(Collection<String> keys) {
+        List<DeleteObjectsRequest> requests = new ArrayList<>();
+        List<ObjectIdentifier> batch = new ArrayList<>(Math.min(keys.size(), DELETE_BATCH_SIZE));
+        for (String key : keys) {
+            batch.add(ObjectIdentifier.builder().key(key).build());
+            if (batch.size() == DELETE_BATCH_SIZE) {
+                requests.add(deleteRequest(batch));
+                batch = new ArrayList<>(DELETE_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            requests.add(deleteRequest(batch));
+        }
+        return requests;
+    }
+
+    private DeleteObjectsRequest deleteRequest(List<ObjectIdentifier> batch) {
+        return DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder().objects(batch).quiet(true).build())
+                .overrideConfiguration(callTimeout)
+                .build();
+    }
+
+    private static void checkDeleteErrors(DeleteObjectsResponse response) {
+        if (response.hasErrors() && !response.errors().isEmpty()) {
+            S3Error first = response.errors().get(0);
+            throw new IllegalStateException("Failed to delete " + response.errors().size()
+                    + " objects, first: " + first.key() + " (" + first.code() + ")");
+        }
+    }
+
+    @Override
+    public List<StoredObjectInfo> list(String prefix) {
+        ListObjectsV2Request request = ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .prefix(prefix)
+                .overrideConfiguration(callTimeout)
+                .build();
+        List<StoredObjectInfo> objects = new ArrayList<>();
+        for (S3Object object : s3Client.listObjectsV2Paginator(request).contents()) {
+            objects.add(new StoredObjectInfo(object.key(), object.size(), object.eTag(), null, object.lastModified()));
+        }
+        return objects;
+    }
+
+    @Override
+    public CompletableFuture<byte[]> getBytesAsync(String key) {
+        return s3AsyncClient.getObject(GetObjectRequest.builder()
+                                .bucket(bucketName)
+                                .key(key)
+                                .overrideConfiguration(transferTimeout)
+                                .build(),
+                        AsyncResponseTransformer.toBytes())
+                .thenApply(ResponseBytes::asByteArray)
+                .exceptionally(e -> {
+                    if (unwrap(e) instanceof NoSuchKeyException notFound) {
+                        throw new StorageObjectNotFoundException(key, notFound);
+                    }
+                    throw asCompletionException(e);
+                });
+    }
+
+    @Override
+    public CompletableFuture<StoredObjectInfo> putAsync(String key, byte[] data, String contentType) {
+        return s3AsyncClient.putObject(PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .contentType(contentType)
+                        .overrideConfiguration(transferTimeout)
+                        .build(), AsyncRequestBody.fromBytes(data))
+                .thenApply(response -> new StoredObjectInfo(key, data.length, response.eTag(), contentType, null));
+    }
+
+    @Override
+    public CompletableFuture<Optional<StoredObjectInfo>> headAsync(String key) {
+        return s3AsyncClient.headObject(HeadObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .overrideConfiguration(callTimeout)
+                        .build())
+                .thenApply(head -> Optional.of(new StoredObjectInfo(key, head.contentLength(), head.eTag(),
+                        head.contentType(), head.lastModified())))
+                .exceptionally(e -> {
+                    if (unwrap(e) instanceof NoSuchKeyException) {
+                        return Optional.empty();
+                    }
+                    throw asCompletionException(e);
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(String key) {
+        return s3AsyncClient.deleteObject(DeleteObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .overrideConfiguration(callTimeout)
+                        .build())
+                .thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<Integer> deleteAllAsync(Collection<String> keys) {
+        CompletableFuture<?>[] batches = deleteRequests(keys).stream()
+                .map(request -> s3AsyncClient.deleteObjects(request).thenAccept(R2StorageBackend::checkDeleteErrors))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(batches).thenApply(ignored -> keys.size());
+    }
+
+    @Override
+    public CompletableFuture<List<StoredObjectInfo>> listAsync(String prefix) {
+        List<StoredObjectInfo> objects = new ArrayList<>();
+        return s3AsyncClient.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                        .bucket(bucketName)
+                        .prefix(prefix)
+                        .overrideConfiguration(callTimeout)
+                        .build())
+                .contents()
+                .subscribe(object -> objects.add(new StoredObjectInfo(object.key(), object.size(), object.eTag(),
+                        null, object.lastModified())))
+                .thenApply(ignored -> objects);
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private static CompletionException asCompletionException(Throwable e) {
+        return e instanceof CompletionException completion ? completion : new CompletionException(e);
+    }
+
+    @Override
+    public String presignGet(String key, Duration ttl) {
+        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .getObjectRequest(GetObjectRequest.builder().bucket(bucketName).key(key).build())
+                .build();
+        return replaceEndpointWithCustomDomain(presigner.presignGetObject(presignRequest).url().toString());
+    }
+
+    @Override
+    public String presignPut(String key, String contentType, long contentLength, Duration ttl) {
+        PutObjectPresignRequest presignRequest = PutObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .contentType(contentType)
+                        .contentLength(contentLength)
+                        .build())
+                .build();
+        // Custom domains only work for downloads, not authenticated uploads
+        return presigner.presignPutObject(presignRequest).url().toString();
+    }
+
+    /**
+     * Replace the CloudFlare R2 endpoint in a presigned URL with our custom domain
+     */
+    private String replaceEndpointWithCustomDomain(String presignedUrl) {
+        if (publicUrl == null || publicUrl.isBlank()) {
+            return presignedUrl;
+        }
+        try {
+            URI originalUri = URI.create(presignedUrl);
+            String originalPath = originalUri.getPath();
+            String queryString = originalUri.getQuery();
+            URI customUri = URI.create(publicUrl);
+
+            // Remove bucket name from path if it exists
+            String newPath = originalPath;
+            if (originalPath != null && originalPath.startsWith("/" + bucketName + "/")) {
+                newPath = originalPath.substring(bucketName.length() + 1);
+            }
+
+            StringBuilder customUrl = new StringBuilder();
+            customUrl.append(customUri.getScheme()).append("://").append(customUri.getHost());
+            customUrl.append(newPath);
+            if (queryString != null && !queryString.isEmpty()) {
+                customUrl.append("?").append(queryString);
+            }
+            return customUrl.toString();
+        } catch (Exception e) {
+            log.error("Failed to replace endpoint with custom domain in URL: {}", presignedUrl, e);
+            return presignedUrl;
+        }
+    }
+}
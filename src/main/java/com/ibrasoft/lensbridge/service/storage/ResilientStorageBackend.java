@@ -0,0 +1,145 @@
+package com.ibrasoft.lensbridge.service.storage;
+
+import com.ibrasoft.lensbridge.service.resilience.DependencyGuard;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Puts a {@link DependencyGuard} (circuit breaker, jittered retries, timeouts) in front of
+ * a remote backend. Async reads of immutable objects (keys under hedgedPrefixes) are hedged.
+ *
+ * Streamed uploads are not retried since the stream can't be replayed; presigning is
+ * local computation and passes straight through.
+ */
+public class ResilientStorageBackend implements StorageBackend {
+
+    private final StorageBackend delegate;
+    private final DependencyGuard guard;
+    private final List<String> hedgedPrefixes;
+    private final Duration transferTimeout;
+
+    public ResilientStorageBackend(StorageBackend delegate, DependencyGuard guard, List<String> hedgedPrefixes) {
+        this.delegate = delegate;
+        this.guard = guard;
+        this.hedgedPrefixes = List.copyOf(hedgedPrefixes);
+        this.transferTimeout = guard.getPolicy().getTransferTimeout();
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+
+    @Override
+    public StoredObjectInfo put(String key, byte[] data, String contentType) {
+        return guard.call(() -> delegate.put(key, data, contentType));
+    }
+
+    @Override
+    public StoredObjectInfo put(String key, Path file, String contentType) {
+        return guard.call(() -> delegate.put(key, file, contentType));
+    }
+
+    @Override
+    public StoredObjectInfo put(String key, InputStream data, long contentLength, String contentType) {
+        return guard.callOnce(() -> delegate.put(key, data, contentLength, contentType));
+    }
+
+    @Override
+    public StorageObject get(String key) {
+        return guard.call(() -> delegate.get(key));
+    }
+
+    @Override
+    public StorageObject get(String key, long start, long end) {
+        return guard.call(() -> delegate.get(key, start, end));
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        return guard.call(() -> delegate.getBytes(key));
+    }
+
+    @Override
+    public Optional<StoredObjectInfo> head(String key) {
+        return guard.call(() -> delegate.head(key));
+    }
+
+    @Override
+    public void delete(String key) {
+        guard.run(() -> delegate.delete(key));
+    }
+
+    @Override
+    public int deleteAll(Collection<String> keys) {
+        return guard.call(() -> delegate.deleteAll(keys));
+    }
+
+    @Override
+    public List<StoredObjectInfo> list(String prefix) {
+        return guard.call(() -> delegate.list(prefix));
+    }
+
+    @Override
+    public String presignGet(String key, Duration ttl) {
+        return delegate.presignGet(key, ttl);
+    }
+
+    @Override
+    public String presignPut(String key, String contentType, long contentLength, Duration ttl) {
+        return delegate.presignPut(key, contentType, contentLength, ttl);
+    }
+
+    @Override
+    public Optional<Path> localFile(String key) {
+        return delegate.localFile(key);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> getBytesAsync(String key) {
+        if (isHedged(key)) {
+            return guard.hedgedAsync(() -> delegate.getBytesAsync(key), transferTimeout);
+        }
+        return guard.callAsync(() -> delegate.getBytesAsync(key), transferTimeout);
+    }
+
+    @Override
+    public CompletableFuture<StoredObjectInfo> putAsync(String key, byte[] data, String contentType) {
+        return guard.callAsync(() -> delegate.putAsync(key, data, contentType), transferTimeout);
+    }
+
+    @Override
+    public CompletableFuture<Optional<StoredObjectInfo>> headAsync(String key) {
+        return guard.callAsync(() -> delegate.headAsync(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(String key) {
+        return guard.callAsync(() -> delegate.deleteAsync(key));
+    }
+
+    @Override
+    public CompletableFuture<Integer> deleteAllAsync(Collection<String> keys) {
+        return guard.callAsync(() -> delegate.deleteAllAsync(keys));
+    }
+
+    @Override
+    public CompletableFuture<List<StoredObjectInfo>> listAsync(String prefix) {
+        return guard.callAsync(() -> delegate.listAsync(prefix));
+    }
+
+    private boolean isHedged(String key) {
+        for (String prefix : hedgedPrefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
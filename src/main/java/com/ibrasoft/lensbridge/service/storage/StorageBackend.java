@@ -0,0 +1,114 @@
+package com.ibrasoft.lensbridge.service.storage;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Object storage used for uploads, thumbnails, derivatives and posters. Keys are
+ * slash-separated paths such as "images/uuid.jpg".
+ *
+ * The active implementation is chosen by storage.backend (see StorageConfig):
+ * r2 (default) or filesystem.
+ *
+ * The *Async variants default to running the blocking call on a virtual thread;
+ * backends with a non-blocking client override them. Callers should normally go
+ * through AsyncStorageService, which bounds how many run at once.
+ */
+public interface StorageBackend {
+
+    /**
+     * Short name for logs and metrics, e.g. "r2".
+     */
+    String name();
+
+    StoredObjectInfo put(String key, byte[] data, String contentType);
+
+    StoredObjectInfo put(String key, Path file, String contentType);
+
+    StoredObjectInfo put(String key, InputStream data, long contentLength, String contentType);
+
+    /**
+     * Open an object for reading. The caller must close the returned object.
+     *
+     * @throws StorageObjectNotFoundException if the key does not exist
+     */
+    StorageObject get(String key);
+
+    /**
+     * Open a byte range of an object, both ends inclusive.
+     *
+     * @throws StorageObjectNotFoundException if the key does not exist
+     */
+    StorageObject get(String key, long start, long end);
+
+    /**
+     * Read a whole object into memory. Only for objects known to be small or
+     * about to be decoded anyway.
+     *
+     * @throws StorageObjectNotFoundException if the key does not exist
+     */
+    byte[] getBytes(String key);
+
+    Optional<StoredObjectInfo> head(String key);
+
+    /**
+     * Delete an object. Deleting a missing key is not an error.
+     */
+    void delete(String key);
+
+    /**
+     * Delete many objects, batching requests where the backend supports it.
+     *
+     * @return number of keys submitted for deletion
+     */
+    int deleteAll(Collection<String> keys);
+
+    List<StoredObjectInfo> list(String prefix);
+
+    /**
+     * Time-limited URL a client can GET the object from without further authentication.
+     */
+    String presignGet(String key, Duration ttl);
+
+    /**
+     * Time-limited URL a client can PUT exactly contentLength bytes of contentType to.
+     */
+    String presignPut(String key, String contentType, long contentLength, Duration ttl);
+
+    /**
+     * The object's file on local disk, if this backend stores objects as local files.
+     * Lets callers stream with sendfile instead of copying through the backend.
+     */
+    default Optional<Path> localFile(String key) {
+        return Optional.empty();
+    }
+
+    default CompletableFuture<byte[]> getBytesAsync(String key) {
+        return CompletableFuture.supplyAsync(() -> getBytes(key), StorageExecutors.BLOCKING_IO);
+    }
+
+    default CompletableFuture<StoredObjectInfo> putAsync(String key, byte[] data, String contentType) {
+        return CompletableFuture.supplyAsync(() -> put(key, data, contentType), StorageExecutors.BLOCKING_IO);
+    }
+
+    default CompletableFuture<Optional<StoredObjectInfo>> headAsync(String key) {
+        return CompletableFuture.supplyAsync(() -> head(key), StorageExecutors.BLOCKING_IO);
+    }
+
+    default CompletableFuture<Void> deleteAsync(String key) {
+        return CompletableFuture.runAsync(() -> delete(key), StorageExecutors.BLOCKING_IO);
+    }
+
+    default CompletableFuture<Integer> deleteAllAsync(Collection<String> keys) {
+        return CompletableFuture.supplyAsync(() -> deleteAll(keys), StorageExecutors.BLOCKING_IO);
+    }
+
+    default CompletableFuture<List<StoredObjectInfo>> listAsync(String prefix) {
+        return CompletableFuture.supplyAsync(() -> list(prefix), StorageExecutors.BLOCKING_IO);
+    }
+}
@@ -0,0 +1,17 @@
+package com.ibrasoft.lensbridge.service.storage;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Threads for the default (blocking) implementations of the async storage methods.
+ * Virtual threads, so a blocked call costs no platform thread.
+ */
+final class StorageExecutors {
+
+    static final ExecutorService BLOCKING_IO =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("storage-io-", 0).factory());
+
+    private StorageExecutors() {
+    }
+}
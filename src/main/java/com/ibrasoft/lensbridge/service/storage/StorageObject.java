@@ -0,0 +1,20 @@
+package com.ibrasoft.lensbridge.service.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An open object (or byte range of one) returned by {@link StorageBackend#get}.
+ *
+ * @param info          metadata of the whole object
+ * @param body          content stream, positioned at the start of the requested range
+ * @param contentLength number of bytes the body will produce
+ */
+public record StorageObject(StoredObjectInfo info, InputStream body, long contentLength) implements Closeable {
+
+    @Override
+    public void close() throws IOException {
+        body.close();
+    }
+}
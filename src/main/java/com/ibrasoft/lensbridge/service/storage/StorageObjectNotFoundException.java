@@ -0,0 +1,12 @@
+package com.ibrasoft.lensbridge.service.storage;
+
+public class StorageObjectNotFoundException extends RuntimeException {
+
+    public StorageObjectNotFoundException(String key) {
+        super("Object not found: " + key);
+    }
+
+    public StorageObjectNotFoundException(String key, Throwable cause) {
+        super("Object not found: " + key, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package com.ibrasoft.lensbridge.service.storage;
+
+import java.time.Instant;
+
+/**
+ * Metadata of a stored object.
+ *
+ * @param eTag opaque version tag; changes whenever the content changes
+ */
+public record StoredObjectInfo(String key, long size, String eTag, String contentType, Instant lastModified) {
+}
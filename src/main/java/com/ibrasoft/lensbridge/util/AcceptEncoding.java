@@ -0,0 +1,50 @@
+package com.ibrasoft.lensbridge.util;
+
+import java.util.Locale;
+
+/**
+ * Reads an Accept-Encoding header, q-values included (RFC 9110 §12.5.3).
+ */
+public final class AcceptEncoding {
+    private AcceptEncoding() {}
+
+    /**
+     * Whether the header allows the coding: it is listed with q > 0, or not listed and
+     * {@code *} is listed with q > 0.
+     */
+    public static boolean accepts(String header, String coding) {
+        if (header == null || header.isBlank()) {
+            return false;
+        }
+        Double explicit = null;
+        Double wildcard = null;
+        for (String element : header.split(",")) {
+            String[] parts = element.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = quality(parts);
+            if (name.equals(coding) || name.equals("x-" + coding)) {
+                explicit = explicit == null ? q : Math.max(explicit, q);
+            } else if (name.equals("*")) {
+                wildcard = q;
+            }
+        }
+        if (explicit != null) {
+            return explicit > 0;
+        }
+        return wildcard != null && wildcard > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
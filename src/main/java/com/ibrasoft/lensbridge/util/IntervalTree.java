@@ -0,0 +1,100 @@
+package com.ibrasoft.lensbridge.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable interval tree over closed intervals [start, end].
+ *
+ * Intervals are sorted by start and laid out as an implicit balanced tree (the middle
+ * element of each range is its root), with every node holding the largest end in its
+ * subtree. An overlap query skips subtrees that end before the query and stops at nodes that
+ * start after it, so it costs O(log n + k). Results come back in ascending start order.
+ *
+ * Build a new tree to change the contents; instances are safe to share between threads.
+ */
+public final class IntervalTree<T> {
+
+    /**
+     * An item and its interval.
+     */
+    public record Interval<T>(long start, long end, T value) {
+    }
+
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+    private final List<T> values;
+
+    private IntervalTree(List<Interval<T>> sorted) {
+        int n = sorted.size();
+        starts = new long[n];
+        ends = new long[n];
+        maxEnds = new long[n];
+        values = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Interval<T> interval = sorted.get(i);
+            starts[i] = interval.start();
+            ends[i] = interval.end();
+            values.add(interval.value());
+        }
+        computeMaxEnds(0, n - 1);
+    }
+
+    public static <T> IntervalTree<T> of(Collection<Interval<T>> intervals) {
+        List<Interval<T>> sorted = new ArrayList<>(intervals);
+        sorted.sort(Comparator.comparingLong(Interval<T>::start).thenComparingLong(Interval::end));
+        return new IntervalTree<>(sorted);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Values whose interval contains the point.
+     */
+    public List<T> containing(long point) {
+        return overlapping(point, point);
+    }
+
+    /**
+     * Values whose interval shares at least one point with [from, to].
+     */
+    public List<T> overlapping(long from, long to) {
+        List<T> out = new ArrayList<>();
+        collect(0, values.size() - 1, from, to, out);
+        return out;
+    }
+
+    private long computeMaxEnds(int lo, int hi) {
+        if (lo > hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(ends[mid], Math.max(computeMaxEnds(lo, mid - 1), computeMaxEnds(mid + 1, hi)));
+        maxEnds[mid] = max;
+        return max;
+    }
+
+    private void collect(int lo, int hi, long from, long to, List<T> out) {
+        if (lo > hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (maxEnds[mid] < from) {
+            return;
+        }
+        collect(lo, mid - 1, from, to, out);
+        if (starts[mid] > to) {
+            // Everything to the right starts later still
+            return;
+        }
+        if (ends[mid] >= from) {
+            out.add(values.get(mid));
+        }
+        collect(mid + 1, hi, from, to, out);
+    }
+}
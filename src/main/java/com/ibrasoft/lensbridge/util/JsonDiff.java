@@ -0,0 +1,88 @@
+package com.ibrasoft.lensbridge.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Produces an RFC 6902 JSON Patch that turns one document into another.
+ *
+ * Only add, remove and replace are emitted. Arrays are compared index by index, with
+ * trailing elements added or removed, so the patch is correct but not minimal when
+ * elements are inserted or removed in the middle.
+ */
+public final class JsonDiff {
+
+    private JsonDiff() {
+    }
+
+    public static ArrayNode diff(JsonNode source, JsonNode target) {
+        ArrayNode patch = JsonNodeFactory.instance.arrayNode();
+        diff(patch, "", source, target);
+        return patch;
+    }
+
+    private static void diff(ArrayNode patch, String path, JsonNode source, JsonNode target) {
+        if (source.equals(target)) {
+            return;
+        }
+        if (source.isObject() && target.isObject()) {
+            diffObjects(patch, path, source, target);
+        } else if (source.isArray() && target.isArray()) {
+            diffArrays(patch, path, source, target);
+        } else {
+            op(patch, "replace", path).set("value", target);
+        }
+    }
+
+    private static void diffObjects(ArrayNode patch, String path, JsonNode source, JsonNode target) {
+        Iterator<String> names = source.fieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            if (!target.has(name)) {
+                op(patch, "remove", path + "/" + escape(name));
+            }
+        }
+        for (Map.Entry<String, JsonNode> field : target.properties()) {
+            String fieldPath = path + "/" + escape(field.getKey());
+            JsonNode previous = source.get(field.getKey());
+            if (previous == null) {
+                op(patch, "add", fieldPath).set("value", field.getValue());
+            } else {
+                diff(patch, fieldPath, previous, field.getValue());
+            }
+        }
+    }
+
+    private static void diffArrays(ArrayNode patch, String path, JsonNode source, JsonNode target) {
+        int common = Math.min(source.size(), target.size());
+        for (int i = 0; i < common; i++) {
+            diff(patch, path + "/" + i, source.get(i), target.get(i));
+        }
+        // Remove from the end so earlier indexes stay valid while the patch is applied
+        for (int i = source.size() - 1; i >= common; i--) {
+            op(patch, "remove", path + "/" + i);
+        }
+        for (int i = common; i < target.size(); i++) {
+            op(patch, "add", path + "/-").set("value", target.get(i));
+        }
+    }
+
+    private static ObjectNode op(ArrayNode patch, String op, String path) {
+        ObjectNode node = patch.addObject();
+        node.put("op", op);
+        node.put("path", path);
+        return node;
+    }
+
+    /**
+     * JSON Pointer escaping (RFC 6901): ~ becomes ~0 and / becomes ~1.
+     */
+    private static String escape(String name) {
+        return name.replace("~", "~0").replace("/", "~1");
+    }
+}
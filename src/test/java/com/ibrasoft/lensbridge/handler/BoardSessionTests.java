@@ -0,0 +1,83 @@
+package com.ibrasoft.lensbridge.handler;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardSessionTests {
+
+    @Test
+    void testMessagesGoOutInOrderOneAtATime() throws Exception {
+        BoardSession session = new BoardSession(null, Duration.ofMinutes(1), Long.MAX_VALUE);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<String> received = new ArrayList<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        try {
+            List<CompletableFuture<Void>> sends = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                sends.add(session.enqueue(new TextMessage(Integer.toString(i)), executor, message -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    received.add(((TextMessage) message).getPayload());
+                    inFlight.decrementAndGet();
+                }));
+            }
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, maxInFlight.get());
+        assertEquals(500, received.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(Integer.toString(i), received.get(i));
+        }
+    }
+
+    @Test
+    void testBlockedSendTripsBothLimits() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch sending = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            BoardSession slow = new BoardSession(null, Duration.ofMillis(50), Long.MAX_VALUE);
+            BoardSession full = new BoardSession(null, Duration.ofMinutes(1), 10);
+            for (BoardSession session : List.of(slow, full)) {
+                session.enqueue(new TextMessage("stuck"), executor, message -> {
+                    sending.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+            // Within both limits while the send has only just started
+            full.enqueue(new TextMessage("12345"), executor, message -> { });
+            assertThrows(SessionLimitExceededException.class,
+                    () -> full.enqueue(new TextMessage("123456"), executor, message -> { }));
+
+            Thread.sleep(100);
+            assertThrows(SessionLimitExceededException.class,
+                    () -> slow.enqueue(new TextMessage("ping"), executor, message -> { }));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
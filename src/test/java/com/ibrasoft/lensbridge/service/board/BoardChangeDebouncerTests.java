@@ -0,0 +1,71 @@
+package com.ibrasoft.lensbridge.service.board;
+
+import com.ibrasoft.lensbridge.model.board.BoardLocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardChangeDebouncerTests {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<BoardContentChangedEvent> flushed = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private BoardChangeDebouncer debouncer(Duration window, Duration maxDelay) {
+        return new BoardChangeDebouncer(window, maxDelay, scheduler, flushed::add);
+    }
+
+    private static BoardContentChangedEvent change(Set<BoardLocation> locations, BoardSource source) {
+        return new BoardContentChangedEvent(locations, EnumSet.of(source));
+    }
+
+    @Test
+    void testBurstIsFlushedOncePerLocation() throws Exception {
+        BoardChangeDebouncer debouncer = debouncer(Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        for (int i = 0; i < 5; i++) {
+            debouncer.submit(change(Set.of(BoardLocation.BROTHERS_MUSALLAH), BoardSource.POSTERS));
+        }
+        debouncer.submit(change(EnumSet.allOf(BoardLocation.class), BoardSource.EVENTS));
+        assertTrue(flushed.isEmpty());
+
+        Thread.sleep(400);
+        assertEquals(2, flushed.size());
+        assertTrue(flushed.contains(new BoardContentChangedEvent(Set.of(BoardLocation.BROTHERS_MUSALLAH),
+                EnumSet.of(BoardSource.POSTERS, BoardSource.EVENTS))));
+        assertTrue(flushed.contains(change(Set.of(BoardLocation.SISTERS_MUSALLAH), BoardSource.EVENTS)));
+    }
+
+    @Test
+    void testSteadyStreamIsFlushedAtMaxDelay() throws Exception {
+        BoardChangeDebouncer debouncer = debouncer(Duration.ofMillis(150), Duration.ofMillis(300));
+
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < Duration.ofMillis(600).toNanos()) {
+            debouncer.submit(change(Set.of(BoardLocation.SISTERS_MUSALLAH), BoardSource.CONFIG));
+            Thread.sleep(50);
+        }
+        assertFalse(flushed.isEmpty(), "changes arriving faster than the window must still be flushed");
+    }
+
+    @Test
+    void testZeroWindowFlushesImmediately() {
+        BoardContentChangedEvent event = change(Set.of(BoardLocation.BROTHERS_MUSALLAH), BoardSource.CONFIG);
+        debouncer(Duration.ZERO, Duration.ZERO).submit(event);
+
+        assertEquals(List.of(event), flushed);
+    }
+}
@@ -0,0 +1,55 @@
+package com.ibrasoft.lensbridge.service.board.index;
+
+import com.ibrasoft.lensbridge.model.board.Audience;
+import com.ibrasoft.lensbridge.util.IntervalTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudienceIntervalIndexTests {
+
+    private record Item(UUID id, Audience audience, long start, long end) {
+    }
+
+    private static AudienceIntervalIndex<Item> index() {
+        return new AudienceIntervalIndex<>(Item::id, Item::audience,
+                item -> new IntervalTree.Interval<>(item.start(), item.end(), item),
+                Comparator.comparingLong(Item::start));
+    }
+
+    @Test
+    void testLookupIncludesBothAudience() {
+        AudienceIntervalIndex<Item> index = index();
+        Item brothers = new Item(UUID.randomUUID(), Audience.BROTHERS, 0, 10);
+        Item both = new Item(UUID.randomUUID(), Audience.BOTH, 5, 15);
+        Item sisters = new Item(UUID.randomUUID(), Audience.SISTERS, 0, 10);
+        index.reload(() -> List.of(brothers, both, sisters));
+
+        assertEquals(List.of(brothers, both), index.overlapping(Audience.BROTHERS, 8, 20));
+        assertEquals(List.of(both), index.overlapping(Audience.SISTERS, 12, 20));
+    }
+
+    @Test
+    void testWritesDuringReloadSurviveTheSnapshot() {
+        AudienceIntervalIndex<Item> index = index();
+        Item stale = new Item(UUID.randomUUID(), Audience.BROTHERS, 0, 10);
+        Item deleted = new Item(UUID.randomUUID(), Audience.BROTHERS, 0, 10);
+        Item updated = new Item(stale.id(), Audience.BROTHERS, 20, 30);
+        Item created = new Item(UUID.randomUUID(), Audience.BOTH, 0, 10);
+
+        index.reload(() -> {
+            // Local writes landing after the snapshot was read
+            index.put(updated);
+            index.put(created);
+            index.remove(deleted.id());
+            return List.of(stale, deleted);
+        });
+
+        assertEquals(List.of(created), index.overlapping(Audience.BROTHERS, 0, 10));
+        assertEquals(List.of(updated), index.overlapping(Audience.BROTHERS, 20, 30));
+    }
+}
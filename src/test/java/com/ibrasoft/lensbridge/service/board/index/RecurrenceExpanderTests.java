@@ -0,0 +1,109 @@
+package com.ibrasoft.lensbridge.service.board.index;
+
+import com.ibrasoft.lensbridge.model.board.Event;
+import com.ibrasoft.lensbridge.model.board.Recurrence;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceExpanderTests {
+
+    private static final ZoneId TORONTO = ZoneId.of("America/Toronto");
+
+    private static long at(int year, int month, int day, int hour) {
+        return ZonedDateTime.of(LocalDateTime.of(year, month, day, hour, 0), TORONTO).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime local(Event occurrence) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(occurrence.getStartTimestamp()), TORONTO)
+                .toLocalDateTime();
+    }
+
+    private static Event series(long start, Recurrence recurrence) {
+        recurrence.setTimezone(TORONTO.getId());
+        return Event.builder()
+                .id(UUID.randomUUID())
+                .name("Halaqa")
+                .startTimestamp(start)
+                .endTimestamp(start + 3_600_000)
+                .recurrence(recurrence)
+                .build();
+    }
+
+    @Test
+    void testWeeklyByDayWithinWindow() {
+        // Monday 2026-01-05 19:00, repeating Mondays and Thursdays
+        Event halaqa = series(at(2026, 1, 5, 19), Recurrence.builder()
+                .frequency(Recurrence.Frequency.WEEKLY)
+                .byDay(Set.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY))
+                .build());
+
+        List<Event> week = RecurrenceExpander.expand(halaqa, at(2026, 3, 1, 0), at(2026, 3, 7, 23));
+
+        assertEquals(2, week.size());
+        assertEquals(LocalDateTime.of(2026, 3, 2, 19, 0), local(week.get(0)));
+        assertEquals(LocalDateTime.of(2026, 3, 5, 19, 0), local(week.get(1)));
+        assertEquals(halaqa.getId(), week.get(0).getSeriesId());
+        assertEquals(RecurrenceExpander.occurrenceId(halaqa.getId(), LocalDate.of(2026, 3, 2)), week.get(0).getId());
+        assertNotEquals(week.get(0).getId(), week.get(1).getId());
+        assertEquals(3_600_000, week.get(0).getEndTimestamp() - week.get(0).getStartTimestamp());
+    }
+
+    @Test
+    void testWallClockTimeKeptAcrossDst() {
+        Event daily = series(at(2026, 3, 6, 6), Recurrence.builder()
+                .frequency(Recurrence.Frequency.DAILY)
+                .build());
+
+        // Clocks go forward on 2026-03-08
+        List<Event> occurrences = RecurrenceExpander.expand(daily, at(2026, 3, 7, 0), at(2026, 3, 9, 23));
+
+        assertEquals(3, occurrences.size());
+        for (Event occurrence : occurrences) {
+            assertEquals(6, local(occurrence).getHour());
+        }
+    }
+
+    @Test
+    void testCountIncludesExceptions() {
+        Event daily = series(at(2026, 1, 1, 18), Recurrence.builder()
+                .frequency(Recurrence.Frequency.DAILY)
+                .interval(2)
+                .count(4)
+                .exceptions(List.of(LocalDate.of(2026, 1, 3)))
+                .build());
+
+        List<Event> all = RecurrenceExpander.expand(daily, at(2025, 12, 1, 0), at(2026, 12, 31, 0));
+
+        assertEquals(List.of(LocalDateTime.of(2026, 1, 1, 18, 0), LocalDateTime.of(2026, 1, 5, 18, 0),
+                LocalDateTime.of(2026, 1, 7, 18, 0)), all.stream().map(RecurrenceExpanderTests::local).toList());
+        assertEquals(at(2026, 1, 7, 19), RecurrenceExpander.lastEnd(daily));
+    }
+
+    @Test
+    void testUntilIsInclusiveAndOpenEndedSeriesNeverEnds() {
+        Recurrence rule = Recurrence.builder()
+                .frequency(Recurrence.Frequency.WEEKLY)
+                .until(LocalDate.of(2026, 1, 19))
+                .build();
+        Event weekly = series(at(2026, 1, 5, 19), rule);
+
+        assertEquals(at(2026, 1, 19, 20), RecurrenceExpander.lastEnd(weekly));
+        assertTrue(RecurrenceExpander.next(weekly, at(2026, 1, 20, 0)).isEmpty());
+
+        rule.setUntil(null);
+        assertEquals(Long.MAX_VALUE, RecurrenceExpander.lastEnd(weekly));
+        assertEquals(LocalDateTime.of(2036, 1, 7, 19, 0),
+                local(RecurrenceExpander.next(weekly, at(2036, 1, 1, 0)).orElseThrow()));
+    }
+}
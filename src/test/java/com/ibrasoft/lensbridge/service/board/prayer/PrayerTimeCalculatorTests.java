@@ -0,0 +1,69 @@
+package com.ibrasoft.lensbridge.service.board.prayer;
+
+import com.ibrasoft.lensbridge.service.board.prayer.PrayerTimes.Prayer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrayerTimeCalculatorTests {
+
+    private static final ZoneId TORONTO = ZoneId.of("America/Toronto");
+
+    private static void assertNear(String expected, Instant actual, LocalDate date) {
+        Instant want = date.atTime(LocalTime.parse(expected)).atZone(TORONTO).toInstant();
+        long off = Math.abs(Duration.between(want, actual).toMinutes());
+        assertTrue(off <= 2, "expected ~" + expected + " but was " + actual.atZone(TORONTO).toLocalTime());
+    }
+
+    @Test
+    void testTorontoIsnaSummerSolstice() {
+        LocalDate date = LocalDate.of(2024, 6, 21);
+        PrayerTimes times = PrayerTimeCalculator.compute(date, 43.6532, -79.3832, CalculationMethod.ISNA);
+
+        assertNear("03:48", times.get(Prayer.FAJR), date);
+        assertNear("05:36", times.get(Prayer.SUNRISE), date);
+        assertNear("13:19", times.get(Prayer.DHUHR), date);
+        assertNear("17:26", times.get(Prayer.ASR), date);
+        assertNear("21:03", times.get(Prayer.MAGHRIB), date);
+        assertNear("22:53", times.get(Prayer.ISHA), date);
+    }
+
+    @Test
+    void testFixedIshaFollowsMaghrib() {
+        PrayerTimes times = PrayerTimeCalculator.compute(LocalDate.of(2025, 3, 1), 21.4225, 39.8262, CalculationMethod.UMM_AL_QURA);
+
+        assertEquals(Duration.ofMinutes(90), Duration.between(times.get(Prayer.MAGHRIB), times.get(Prayer.ISHA)));
+    }
+
+    @Test
+    void testHighLatitudeSummerStillHasFajrAndIsha() {
+        // The sun doesn't go 18 degrees below the horizon in Reykjavik in June
+        PrayerTimes times = PrayerTimeCalculator.compute(LocalDate.of(2025, 6, 21), 64.1466, -21.9426, CalculationMethod.MWL);
+
+        assertNotNull(times.get(Prayer.FAJR));
+        assertNotNull(times.get(Prayer.ISHA));
+        assertTrue(times.get(Prayer.FAJR).isBefore(times.get(Prayer.SUNRISE)));
+        assertTrue(times.get(Prayer.ISHA).isAfter(times.get(Prayer.MAGHRIB)));
+    }
+
+    @Test
+    void testNextPrayerSkipsSunrise() {
+        PrayerTimes times = PrayerTimeCalculator.compute(LocalDate.of(2024, 6, 21), 43.6532, -79.3832, CalculationMethod.ISNA);
+
+        assertEquals(Prayer.DHUHR, times.next(times.get(Prayer.SUNRISE)));
+        assertNull(times.next(times.get(Prayer.ISHA).plusSeconds(60)));
+    }
+
+    @Test
+    void testUnknownMethodFallsBackToIsna() {
+        assertEquals(CalculationMethod.ISNA, CalculationMethod.fromId(99));
+        assertEquals(CalculationMethod.MWL, CalculationMethod.fromId(3));
+        assertEquals(CalculationMethod.ISNA, CalculationMethod.fromId(null));
+    }
+}
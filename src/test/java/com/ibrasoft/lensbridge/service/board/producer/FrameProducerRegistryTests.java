@@ -0,0 +1,85 @@
+package com.ibrasoft.lensbridge.service.board.producer;
+
+import com.ibrasoft.lensbridge.model.board.BoardLocation;
+import com.ibrasoft.lensbridge.model.board.frames.FrameDefinition;
+import com.ibrasoft.lensbridge.model.board.frames.FrameType;
+import com.ibrasoft.lensbridge.service.board.BoardContentVersions;
+import com.ibrasoft.lensbridge.service.board.BoardContext;
+import com.ibrasoft.lensbridge.service.board.BoardSource;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameProducerRegistryTests {
+
+    private final BoardContentVersions versions = new BoardContentVersions();
+    private final BoardContext brothers = BoardContext.of(BoardLocation.BROTHERS_MUSALLAH, null);
+
+    private static FrameProducer producer(String name, FrameType type, BoardSource source) {
+        return new FrameProducer() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public Set<FrameType> frameTypes() {
+                return Set.of(type);
+            }
+
+            @Override
+            public Set<BoardSource> sources() {
+                return Set.of(source);
+            }
+
+            @Override
+            public Object timeBucket(BoardContext ctx) {
+                return ctx.today();
+            }
+
+            @Override
+            public List<FrameDefinition> produce(BoardContext ctx) {
+                return List.of();
+            }
+        };
+    }
+
+    @Test
+    void testCacheKeyOnlyChangesWithOwnSourcesAndConfig() {
+        FrameProducer posters = producer("posters", FrameType.POSTER, BoardSource.POSTERS);
+        FrameProducerRegistry registry = new FrameProducerRegistry(List.of(posters), versions);
+        FrameProducerRegistry.CacheKey initial = registry.cacheKey(posters, brothers);
+
+        versions.bump(Set.of(BoardLocation.BROTHERS_MUSALLAH), Set.of(BoardSource.EVENTS));
+        versions.bump(Set.of(BoardLocation.SISTERS_MUSALLAH), Set.of(BoardSource.POSTERS));
+        assertEquals(initial, registry.cacheKey(posters, brothers));
+
+        versions.bump(Set.of(BoardLocation.BROTHERS_MUSALLAH), Set.of(BoardSource.POSTERS));
+        FrameProducerRegistry.CacheKey afterPosterWrite = registry.cacheKey(posters, brothers);
+        assertNotEquals(initial, afterPosterWrite);
+
+        versions.bump(Set.of(BoardLocation.BROTHERS_MUSALLAH), Set.of(BoardSource.CONFIG));
+        assertNotEquals(afterPosterWrite, registry.cacheKey(posters, brothers));
+    }
+
+    @Test
+    void testTwoProducersForOneFrameTypeAreRejected() {
+        List<FrameProducer> producers = List.of(
+                producer("a", FrameType.POSTER, BoardSource.POSTERS),
+                producer("b", FrameType.POSTER, BoardSource.EVENTS));
+
+        assertThrows(IllegalStateException.class, () -> new FrameProducerRegistry(producers, versions));
+    }
+
+    @Test
+    void testProducersAreIndexedByFrameType() {
+        FrameProducer events = producer("events", FrameType.EVENT_LIST, BoardSource.EVENTS);
+        FrameProducerRegistry registry = new FrameProducerRegistry(List.of(events), versions);
+
+        assertSame(events, registry.producerFor(FrameType.EVENT_LIST).orElseThrow());
+        assertTrue(registry.producerFor(FrameType.POSTER).isEmpty());
+    }
+}
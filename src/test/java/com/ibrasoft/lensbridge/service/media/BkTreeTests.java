@@ -0,0 +1,81 @@
+package com.ibrasoft.lensbridge.service.media;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BkTreeTests {
+
+    @Test
+    void testSearchReturnsOnlyHashesWithinDistance() {
+        BkTree<String> tree = new BkTree<>();
+        tree.add(0b0000L, "zero");
+        tree.add(0b0001L, "one-bit");
+        tree.add(0b0111L, "three-bits");
+        tree.add(0xFFFFL, "sixteen-bits");
+
+        List<String> matches = tree.search(0L, 1).stream().map(BkTree.Match::value).toList();
+
+        assertEquals(2, matches.size());
+        assertTrue(matches.containsAll(List.of("zero", "one-bit")));
+    }
+
+    @Test
+    void testSearchMatchesBruteForce() {
+        Random random = new Random(42);
+        BkTree<Long> tree = new BkTree<>();
+        long[] hashes = new long[500];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+            tree.add(hashes[i], hashes[i]);
+        }
+
+        long probe = hashes[17] ^ 0b1011L; // three bits away from a known hash
+        long expected = 0;
+        for (long h : hashes) {
+            if (PerceptualHash.distance(h, probe) <= 12) expected++;
+        }
+
+        assertEquals(expected, tree.search(probe, 12).size());
+    }
+
+    @Test
+    void testSlightlyEditedImageHashesClose() {
+        BufferedImage original = gradient(0);
+        BufferedImage brightened = gradient(12);
+        BufferedImage flipped = flip(original);
+
+        long h1 = PerceptualHash.dHash(original);
+        long h2 = PerceptualHash.dHash(brightened);
+        long h3 = PerceptualHash.dHash(flipped);
+
+        assertTrue(PerceptualHash.distance(h1, h2) <= 4);
+        assertTrue(PerceptualHash.distance(h1, h3) > 20);
+    }
+
+    private static BufferedImage gradient(int brightnessOffset) {
+        BufferedImage img = new BufferedImage(200, 150, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < img.getWidth(); x++) {
+            for (int y = 0; y < img.getHeight(); y++) {
+                int v = Math.min(255, (x + (y % 40)) * 255 / 240 + brightnessOffset);
+                img.setRGB(x, y, new Color(v, v, v).getRGB());
+            }
+        }
+        return img;
+    }
+
+    private static BufferedImage flip(BufferedImage src) {
+        BufferedImage out = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        g.drawImage(src, src.getWidth(), 0, -src.getWidth(), src.getHeight(), null);
+        g.dispose();
+        return out;
+    }
+}
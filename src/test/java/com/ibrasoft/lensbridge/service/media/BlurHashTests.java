@@ -0,0 +1,54 @@
+package com.ibrasoft.lensbridge.service.media;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class BlurHashTests {
+
+    private static final String BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    @Test
+    void testSolidImageEncodesColourInDcComponent() {
+        String hash = BlurHash.encode(solid(new Color(255, 0, 0), 120, 80));
+
+        // size flag + max AC + 4-char DC + 11 two-char AC components
+        assertEquals(28, hash.length());
+        assertEquals('L', hash.charAt(0)); // (4-1) + (3-1)*9 = 21
+
+        int dc = decode83(hash.substring(2, 6));
+        assertEquals(0xFF0000, dc);
+    }
+
+    @Test
+    void testDifferentImagesProduceDifferentHashes() {
+        BufferedImage split = solid(Color.WHITE, 120, 80);
+        Graphics2D g = split.createGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, 60, 80);
+        g.dispose();
+
+        assertNotEquals(BlurHash.encode(solid(Color.GRAY, 120, 80)), BlurHash.encode(split));
+    }
+
+    private static BufferedImage solid(Color color, int w, int h) {
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, w, h);
+        g.dispose();
+        return img;
+    }
+
+    private static int decode83(String s) {
+        int value = 0;
+        for (char c : s.toCharArray()) value = value * 83 + BASE83.indexOf(c);
+        return value;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ibrasoft.lensbridge.service.media;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ByteRangeTests {
+
+    @Test
+    void testExplicitAndOpenEndedRanges() {
+        assertEquals(new ByteRange(0, 99), ByteRange.parse("bytes=0-99", 1000));
+        assertEquals(new ByteRange(500, 999), ByteRange.parse("bytes=500-", 1000));
+        assertEquals(new ByteRange(900, 999), ByteRange.parse("bytes=900-5000", 1000));
+    }
+
+    @Test
+    void testSuffixRange() {
+        ByteRange range = ByteRange.parse("bytes=-100", 1000);
+        assertEquals(new ByteRange(900, 999), range);
+        assertEquals("bytes 900-999/1000", range.contentRange(1000));
+        assertEquals(new ByteRange(0, 999), ByteRange.parse("bytes=-5000", 1000));
+    }
+
+    @Test
+    void testServesFullContentForUnsupportedHeaders() {
+        assertNull(ByteRange.parse(null, 1000));
+        assertNull(ByteRange.parse("items=0-1", 1000));
+        assertNull(ByteRange.parse("bytes=0-1,5-6", 1000));
+        assertNull(ByteRange.parse("bytes=abc-", 1000));
+    }
+
+    @Test
+    void testUnsatisfiable() {
+        assertThrows(ByteRange.UnsatisfiableRangeException.class, () -> ByteRange.parse("bytes=1000-", 1000));
+    }
+}
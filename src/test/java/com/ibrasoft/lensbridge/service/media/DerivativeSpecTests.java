@@ -0,0 +1,50 @@
+package com.ibrasoft.lensbridge.service.media;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DerivativeSpecTests {
+
+    private static final List<Integer> SIZES = List.of(160, 320, 640, 1280);
+
+    @Test
+    void testSnapsUpToNearestAllowedSize() {
+        DerivativeSpec spec = DerivativeSpec.snap(300, 161, "cover", SIZES);
+
+        assertEquals(320, spec.width());
+        assertEquals(320, spec.height());
+        assertEquals(DerivativeSpec.Fit.COVER, spec.fit());
+    }
+
+    @Test
+    void testOversizedRequestClampsToLargest() {
+        assertEquals(1280, DerivativeSpec.snap(5000, 5000, null, SIZES).width());
+    }
+
+    @Test
+    void testMissingDimension() {
+        DerivativeSpec contain = DerivativeSpec.snap(200, null, "contain", SIZES);
+        DerivativeSpec cover = DerivativeSpec.snap(null, 200, "cover", SIZES);
+
+        assertEquals(1280, contain.height());
+        assertEquals(320, cover.width());
+    }
+
+    @Test
+    void testRejectsBadInput() {
+        assertThrows(IllegalArgumentException.class, () -> DerivativeSpec.snap(null, null, null, SIZES));
+        assertThrows(IllegalArgumentException.class, () -> DerivativeSpec.snap(100, 100, "stretch", SIZES));
+    }
+
+    @Test
+    void testObjectKey() {
+        UUID id = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        assertEquals("derivatives/00000000-0000-0000-0000-000000000001/640x320-contain.jpg",
+                new DerivativeSpec(640, 320, DerivativeSpec.Fit.CONTAIN).objectKey(id));
+    }
+}
@@ -0,0 +1,64 @@
+package com.ibrasoft.lensbridge.service.media;
+
+import com.ibrasoft.lensbridge.model.upload.Upload;
+import com.ibrasoft.lensbridge.repository.UploadRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NearDuplicateIndexTests {
+
+    private static final UUID EVENT = UUID.randomUUID();
+
+    @Mock
+    private UploadRepository uploadRepository;
+
+    @InjectMocks
+    private NearDuplicateIndex index;
+
+    private static Upload upload(long hash) {
+        Upload upload = new Upload();
+        upload.setUuid(UUID.randomUUID());
+        upload.setEventId(EVENT);
+        upload.setPerceptualHash(hash);
+        return upload;
+    }
+
+    private static Upload rehashed(Upload upload, long hash) {
+        Upload copy = new Upload();
+        copy.setUuid(upload.getUuid());
+        copy.setEventId(upload.getEventId());
+        copy.setPerceptualHash(hash);
+        return copy;
+    }
+
+    @Test
+    void testUploadIsIndexedOnceAndRehashReplacesIt() {
+        ReflectionTestUtils.setField(index, "maxDistance", 4);
+        Upload original = upload(0L);
+        Upload duplicate = upload(1L);
+        when(uploadRepository.findByEventIdAndPerceptualHashNotNull(EVENT)).thenReturn(List.of(original, duplicate));
+
+        assertEquals(List.of(duplicate.getUuid()), index.findNearDuplicates(original));
+
+        // Thumbnail regenerated with the same hash, e.g. after the lazy load already saw it
+        index.add(duplicate);
+        assertEquals(List.of(duplicate.getUuid()), index.findNearDuplicates(original));
+
+        // Regenerated with a different hash: the old one must stop matching
+        Upload moved = rehashed(duplicate, -1L);
+        when(uploadRepository.findByEventIdAndPerceptualHashNotNull(EVENT)).thenReturn(List.of(original, moved));
+        index.add(moved);
+        assertEquals(List.of(), index.findNearDuplicates(original));
+    }
+}
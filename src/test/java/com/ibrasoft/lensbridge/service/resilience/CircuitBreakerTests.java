@@ -0,0 +1,74 @@
+package com.ibrasoft.lensbridge.service.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTests {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private CircuitBreaker breaker() {
+        return new CircuitBreaker("test", 50, 4, 10, Duration.ofSeconds(30), 2, now::get);
+    }
+
+    @Test
+    void testOpensOnceFailureRateReached() {
+        CircuitBreaker breaker = breaker();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void testHalfOpenClosesAfterTrialCallsSucceed() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) breaker.onFailure();
+        assertFalse(breaker.tryAcquire());
+
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void testHalfOpenFailureReopens() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) breaker.onFailure();
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void testRemainingOpenTimeCountsDown() {
+        CircuitBreaker breaker = breaker();
+        assertEquals(Duration.ZERO, breaker.getRemainingOpenTime());
+        for (int i = 0; i < 4; i++) breaker.onFailure();
+        assertEquals(Duration.ofSeconds(30), breaker.getRemainingOpenTime());
+
+        now.addAndGet(Duration.ofSeconds(12).toNanos());
+        assertEquals(Duration.ofSeconds(18), breaker.getRemainingOpenTime());
+
+        now.addAndGet(Duration.ofSeconds(20).toNanos());
+        assertEquals(Duration.ZERO, breaker.getRemainingOpenTime());
+    }
+}
@@ -0,0 +1,44 @@
+package com.ibrasoft.lensbridge.service.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncStorageServiceTests {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void testLongQueueOfInlineFailuresDoesNotRecurse() {
+        CompletableFuture<Optional<StoredObjectInfo>> gate = new CompletableFuture<>();
+        StorageBackend backend = new FileSystemStorageBackend(root, "test-key", "http://localhost:8080/") {
+            @Override
+            public CompletableFuture<Optional<StoredObjectInfo>> headAsync(String key) {
+                // Like DependencyGuard with the breaker open: fail without going anywhere
+                return key.equals("slow") ? gate : CompletableFuture.failedFuture(new IllegalStateException("open"));
+            }
+        };
+        AsyncStorageService storage = new AsyncStorageService(backend, 1, new SimpleMeterRegistry());
+
+        CompletableFuture<Optional<StoredObjectInfo>> slow = storage.head("slow");
+        List<CompletableFuture<Optional<StoredObjectInfo>>> queued = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            queued.add(storage.head("key-" + i));
+        }
+        gate.complete(Optional.empty());
+
+        assertTrue(slow.isDone());
+        for (CompletableFuture<Optional<StoredObjectInfo>> future : queued) {
+            assertTrue(future.isCompletedExceptionally());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.ibrasoft.lensbridge.service.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSystemStorageBackendTests {
+
+    @TempDir
+    Path root;
+
+    private FileSystemStorageBackend backend() {
+        return new FileSystemStorageBackend(root, "test-key", "http://localhost:8080/");
+    }
+
+    @Test
+    void testPutGetRangeAndHead() throws Exception {
+        FileSystemStorageBackend storage = backend();
+        byte[] data = "0123456789".getBytes(StandardCharsets.US_ASCII);
+        StoredObjectInfo stored = storage.put("images/a.jpg", data, "image/jpeg");
+
+        assertEquals(10, stored.size());
+        assertEquals("image/jpeg", stored.contentType());
+        assertArrayEquals(data, storage.getBytes("images/a.jpg"));
+        try (StorageObject range = storage.get("images/a.jpg", 2, 5)) {
+            assertEquals(4, range.contentLength());
+            assertEquals("2345", new String(range.body().readAllBytes(), StandardCharsets.US_ASCII));
+        }
+        assertEquals(stored.eTag(), storage.head("images/a.jpg").orElseThrow().eTag());
+        assertTrue(storage.localFile("images/a.jpg").isPresent());
+    }
+
+    @Test
+    void testListAndDelete() {
+        FileSystemStorageBackend storage = backend();
+        storage.put("derivatives/x/1.jpg", new byte[1], "image/jpeg");
+        storage.put("derivatives/x/2.jpg", new byte[2], "image/jpeg");
+        storage.put("derivatives/y/1.jpg", new byte[3], "image/jpeg");
+
+        List<String> keys = storage.list("derivatives/x/").stream().map(StoredObjectInfo::key).toList();
+        assertEquals(List.of("derivatives/x/1.jpg", "derivatives/x/2.jpg"), keys);
+
+        assertEquals(2, storage.deleteAll(keys));
+        assertTrue(storage.list("derivatives/x/").isEmpty());
+        assertTrue(storage.head("derivatives/y/1.jpg").isPresent());
+        assertThrows(StorageObjectNotFoundException.class, () -> storage.getBytes("derivatives/x/1.jpg"));
+    }
+
+    @Test
+    void testRejectsKeysOutsideRoot() {
+        FileSystemStorageBackend storage = backend();
+        assertThrows(IllegalArgumentException.class, () -> storage.put("../escape", new byte[1], null));
+        assertThrows(IllegalArgumentException.class, () -> storage.put("/etc/passwd", new byte[1], null));
+        assertThrows(IllegalArgumentException.class, () -> storage.head("a//b"));
+    }
+
+    @Test
+    void testSignedUrls() {
+        FileSystemStorageBackend storage = backend();
+        URI get = URI.create(storage.presignGet("images/a b.jpg", Duration.ofMinutes(5)));
+        assertEquals("/api/storage/images/a%20b.jpg", get.getRawPath());
+
+        long expires = Long.parseLong(param(get, "expires"));
+        String sig = param(get, "sig");
+        assertTrue(storage.verifyGet("images/a b.jpg", expires, sig));
+        assertFalse(storage.verifyGet("images/other.jpg", expires, sig));
+        assertFalse(storage.verifyGet("images/a b.jpg", expires + 1, sig));
+
+        URI put = URI.create(storage.presignPut("videos/v.mp4", "video/mp4", 1234, Duration.ofMinutes(5)));
+        long putExpires = Long.parseLong(param(put, "expires"));
+        String putSig = param(put, "sig");
+        assertTrue(storage.verifyPut("videos/v.mp4", putExpires, "video/mp4", 1234, putSig));
+        assertFalse(storage.verifyPut("videos/v.mp4", putExpires, "video/mp4", 9999, putSig));
+        assertFalse(storage.verifyGet("videos/v.mp4", putExpires, putSig));
+
+        URI expired = URI.create(storage.presignGet("images/a.jpg", Duration.ofMinutes(-1)));
+        assertFalse(storage.verifyGet("images/a.jpg", Long.parseLong(param(expired, "expires")), param(expired, "sig")));
+    }
+
+    private static String param(URI uri, String name) {
+        for (String pair : uri.getRawQuery().split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        throw new AssertionError("Missing " + name);
+    }
+}
@@ -0,0 +1,51 @@
+package com.ibrasoft.lensbridge.service.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentedStorageBackendTests {
+
+    @TempDir
+    Path root;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private InstrumentedStorageBackend backend() {
+        return new InstrumentedStorageBackend(new FileSystemStorageBackend(root, "test-key", "http://localhost:8080/"),
+                registry, List.of("images/", "videos/"));
+    }
+
+    @Test
+    void testRecordsLatencyAndBytesByPrefix() throws Exception {
+        InstrumentedStorageBackend storage = backend();
+        byte[] data = "0123456789".getBytes(StandardCharsets.US_ASCII);
+        storage.put("images/a.jpg", data, "image/jpeg");
+        try (StorageObject object = storage.get("images/a.jpg", 2, 5)) {
+            object.body().readAllBytes();
+        }
+
+        assertEquals(1, registry.get("storage.operations")
+                .tags("operation", "put", "prefix", "images/", "outcome", "success").timer().count());
+        assertEquals(10.0, registry.get("storage.bytes")
+                .tags("operation", "put", "direction", "in").counter().count());
+        assertEquals(4.0, registry.get("storage.bytes")
+                .tags("operation", "get_range", "direction", "out").counter().count());
+    }
+
+    @Test
+    void testMissingObjectIsNotCountedAsError() {
+        InstrumentedStorageBackend storage = backend();
+        assertThrows(StorageObjectNotFoundException.class, () -> storage.getBytes("misc/missing.bin"));
+
+        assertEquals(1, registry.get("storage.operations")
+                .tags("operation", "get", "prefix", "other", "outcome", "not_found").timer().count());
+        assertNull(registry.find("storage.errors").counter());
+    }
+}
@@ -0,0 +1,31 @@
+package com.ibrasoft.lensbridge.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AcceptEncodingTests {
+
+    @Test
+    void testListedCodings() {
+        assertTrue(AcceptEncoding.accepts("gzip, deflate, br", "gzip"));
+        assertTrue(AcceptEncoding.accepts("br;q=1.0, GZIP;q=0.5", "gzip"));
+        assertTrue(AcceptEncoding.accepts("x-gzip", "gzip"));
+        assertFalse(AcceptEncoding.accepts("deflate, br", "gzip"));
+        assertFalse(AcceptEncoding.accepts(null, "gzip"));
+    }
+
+    @Test
+    void testZeroQualityRefuses() {
+        assertFalse(AcceptEncoding.accepts("gzip;q=0", "gzip"));
+        assertFalse(AcceptEncoding.accepts("br, gzip; q=0.000", "gzip"));
+        assertFalse(AcceptEncoding.accepts("*, gzip;q=0", "gzip"));
+    }
+
+    @Test
+    void testWildcard() {
+        assertTrue(AcceptEncoding.accepts("*", "gzip"));
+        assertFalse(AcceptEncoding.accepts("*;q=0", "gzip"));
+        assertTrue(AcceptEncoding.accepts("*;q=0, gzip", "gzip"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.ibrasoft.lensbridge.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTests {
+
+    private static IntervalTree.Interval<String> interval(long start, long end) {
+        return new IntervalTree.Interval<>(start, end, start + "-" + end);
+    }
+
+    @Test
+    void testEndpointsAreInclusive() {
+        IntervalTree<String> tree = IntervalTree.of(List.of(interval(1, 3), interval(5, 8), interval(10, 10)));
+
+        assertEquals(List.of("1-3"), tree.containing(3));
+        assertEquals(List.of(), tree.containing(4));
+        assertEquals(List.of("5-8", "10-10"), tree.overlapping(8, 10));
+        assertEquals(List.of("10-10"), tree.containing(10));
+    }
+
+    @Test
+    void testEmptyTree() {
+        IntervalTree<String> tree = IntervalTree.of(List.of());
+
+        assertEquals(0, tree.size());
+        assertEquals(List.of(), tree.overlapping(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void testMatchesLinearScanInStartOrder() {
+        Random random = new Random(42);
+        List<IntervalTree.Interval<String>> intervals = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long start = random.nextInt(10_000);
+            intervals.add(new IntervalTree.Interval<>(start, start + random.nextInt(300), "i" + i));
+        }
+        IntervalTree<String> tree = IntervalTree.of(intervals);
+        List<IntervalTree.Interval<String>> sorted = new ArrayList<>(intervals);
+        sorted.sort((a, b) -> a.start() != b.start() ? Long.compare(a.start(), b.start()) : Long.compare(a.end(), b.end()));
+
+        for (int q = 0; q < 200; q++) {
+            long from = random.nextInt(10_500);
+            long to = from + random.nextInt(500);
+            List<String> expected = new ArrayList<>();
+            for (IntervalTree.Interval<String> interval : sorted) {
+                if (interval.start() <= to && interval.end() >= from) {
+                    expected.add(interval.value());
+                }
+            }
+            assertEquals(expected, tree.overlapping(from, to), "query [" + from + ", " + to + "]");
+        }
+    }
+}
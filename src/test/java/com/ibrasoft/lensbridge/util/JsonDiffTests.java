@@ -0,0 +1,42 @@
+package com.ibrasoft.lensbridge.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonDiffTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode json(String text) throws Exception {
+        return mapper.readTree(text.replace('\'', '"'));
+    }
+
+    @Test
+    void testIdenticalDocumentsProduceEmptyPatch() throws Exception {
+        assertEquals(0, JsonDiff.diff(json("{'a':[1,2],'b':{'c':true}}"), json("{'a':[1,2],'b':{'c':true}}")).size());
+    }
+
+    @Test
+    void testObjectFieldsAreAddedRemovedAndReplaced() throws Exception {
+        ArrayNode patch = JsonDiff.diff(json("{'keep':1,'gone':2,'nested':{'x':'old'}}"),
+                json("{'keep':1,'nested':{'x':'new'},'a/b':3}"));
+
+        assertEquals(json("[{'op':'remove','path':'/gone'},"
+                + "{'op':'replace','path':'/nested/x','value':'new'},"
+                + "{'op':'add','path':'/a~1b','value':3}]"), patch);
+    }
+
+    @Test
+    void testArraysShrinkFromTheEndAndGrowByAppending() throws Exception {
+        assertEquals(json("[{'op':'replace','path':'/frames/0','value':9},"
+                        + "{'op':'remove','path':'/frames/3'},{'op':'remove','path':'/frames/2'}]"),
+                JsonDiff.diff(json("{'frames':[1,2,3,4]}"), json("{'frames':[9,2]}")));
+
+        assertEquals(json("[{'op':'add','path':'/frames/-','value':{'id':2}}]"),
+                JsonDiff.diff(json("{'frames':[{'id':1}]}"), json("{'frames':[{'id':1},{'id':2}]}")));
+    }
+}